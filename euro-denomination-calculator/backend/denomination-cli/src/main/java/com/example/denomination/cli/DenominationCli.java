@@ -0,0 +1,108 @@
+package com.example.denomination.cli;
+
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+//Command line entry point: breaks down a file of amounts into CSV rows without starting the web application.
+//
+//Usage: denomination-cli [--changes] [--denominations 200,100,...] <input> [<output>]
+//Rows go to standard output when no output file is given. Exits with 1 when the input cannot be processed and with 2
+//on wrong usage.
+public final class DenominationCli {
+
+    static final String USAGE = "Usage: denomination-cli [--changes] [--denominations 200,100,...] <input> [<output>]";
+    static final double[] EURO = {200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01};
+
+    private DenominationCli() {
+    }
+
+    public static void main(String[] args) {
+        int status = run(args, new FileOutputStream(FileDescriptor.out).getChannel(), System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    //Process the arguments, writing rows to stdout unless an output file is given, and return the exit status
+    static int run(String[] args, WritableByteChannel stdout, PrintStream err) {
+        boolean changes = false;
+        double[] denominations = EURO;
+        Path input = null;
+        Path output = null;
+        DenominationSet set;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--changes" -> changes = true;
+                    case "--denominations" -> {
+                        if (++i == args.length) {
+                            throw new IllegalArgumentException("--denominations needs a value");
+                        }
+                        denominations = parseDenominations(args[i]);
+                    }
+                    default -> {
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option: " + args[i]);
+                        } else if (input == null) {
+                            input = Path.of(args[i]);
+                        } else if (output == null) {
+                            output = Path.of(args[i]);
+                        } else {
+                            throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+                        }
+                    }
+                }
+            }
+            if (input == null) {
+                throw new IllegalArgumentException("No input file given");
+            }
+            set = DenominationSet.of(denominations);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        FileProcessor processor = new FileProcessor(DenominationEngine.compile(set, EngineSettings.DEFAULTS), changes);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            if (output == null) {
+                processor.process(in, stdout);
+                return 0;
+            }
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                processor.process(in, out);
+            }
+            return 0;
+        } catch (IllegalArgumentException e) {
+            err.println(input + ": " + e.getMessage());
+            return 1;
+        } catch (IOException e) {
+            err.println("Cannot process " + input + ": " + e);
+            return 1;
+        }
+    }
+
+    private static double[] parseDenominations(String list) {
+        String[] values = list.split(",");
+        double[] denominations = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            try {
+                denominations[i] = Double.parseDouble(values[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Denomination is not a number: " + values[i]);
+            }
+        }
+        return denominations;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.denomination.cli;
+
+import com.example.denomination.engine.AmountParser;
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+//Breaks down every amount of a text or CSV file and writes one CSV row per amount.
+//
+//The file is memory-mapped in windows that end at a line end, so files larger than one mapping are read without
+//copying them into the heap. Lines are parsed in place, breakdowns go into reused count arrays and rows into a reused
+//output buffer; nothing is allocated per line.
+//
+//Each line holds an amount, optionally followed by the previous amount after a comma; breakdown rows ignore anything
+//after the amount. A change row without a previous amount is taken against the amount of the line before it, the
+//first one against an empty till.
+final class FileProcessor {
+
+    static final int WINDOW_BYTES = 1 << 30;
+    static final int OUTPUT_BYTES = 1 << 20;
+
+    private final DenominationEngine engine;
+    private final boolean changes;
+    private final int windowBytes;
+
+    private long[] counts;
+    private long[] previousCounts;
+    private long[] changeCounts;
+    //Amount whose breakdown previousCounts holds, AmountParser.BLANK for an empty till
+    private long previousCents;
+    private long line;
+
+    FileProcessor(DenominationEngine engine, boolean changes) {
+        this(engine, changes, WINDOW_BYTES);
+    }
+
+    FileProcessor(DenominationEngine engine, boolean changes, int windowBytes) {
+        this.engine = engine;
+        this.changes = changes;
+        this.windowBytes = windowBytes;
+    }
+
+    //Write the header and a row for every amount of the input, returning the number of rows. A line that is not a
+    //positive amount with at most two decimal places fails with its line number.
+    long process(FileChannel input, WritableByteChannel output) throws IOException {
+        DenominationSet set = engine.set();
+        counts = new long[set.size()];
+        previousCounts = new long[set.size()];
+        changeCounts = new long[set.size()];
+        previousCents = AmountParser.BLANK;
+        line = 0;
+
+        RowWriter writer = new RowWriter(output, OUTPUT_BYTES);
+        writer.text("amount");
+        if (changes) {
+            writer.text("previous");
+        }
+        for (int i = 0; i < set.size(); i++) {
+            writer.text(set.key(i));
+        }
+        writer.endRow();
+
+        long rows = 0;
+        long size = input.size();
+        long position = 0;
+        while (position < size) {
+            long length = Math.min(windowBytes, size - position);
+            MappedByteBuffer window = input.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int end = (int) length;
+            if (position + length < size) {
+                while (end > 0 && window.get(end - 1) != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    throw new IllegalArgumentException(
+                            "Line " + (line + 1) + ": Lines must be shorter than " + windowBytes + " bytes");
+                }
+            }
+            rows += process(window, end, writer);
+            position += end;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private long process(MappedByteBuffer window, int end, RowWriter writer) throws IOException {
+        long rows = 0;
+        int lineStart = 0;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            int comma = -1;
+            while (lineEnd < end && window.get(lineEnd) != '\n') {
+                if (comma < 0 && window.get(lineEnd) == ',') {
+                    comma = lineEnd;
+                }
+                lineEnd++;
+            }
+            line++;
+            try {
+                if (row(window, lineStart, lineEnd, comma, writer)) {
+                    rows++;
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return rows;
+    }
+
+    //Write the row of one line, false for a blank line
+    private boolean row(MappedByteBuffer window, int from, int to, int comma, RowWriter writer) throws IOException {
+        long cents = AmountParser.parseCents(window, from, comma >= 0 ? comma : to);
+        if (cents == AmountParser.BLANK) {
+            if (comma >= 0) {
+                throw new IllegalArgumentException("Amount is missing");
+            }
+            return false;
+        }
+        if (!changes) {
+            engine.breakdown(cents, counts);
+            writer.cents(cents);
+            writer.numbers(counts);
+            writer.endRow();
+            return true;
+        }
+
+        long previous = comma >= 0 ? AmountParser.parseCents(window, comma + 1, to) : AmountParser.BLANK;
+        if (previous == AmountParser.BLANK) {
+            previous = previousCents;
+        } else if (previous != previousCents) {
+            engine.breakdown(previous, previousCounts);
+        }
+        engine.breakdown(cents, counts);
+
+        writer.cents(cents);
+        if (previous == AmountParser.BLANK) {
+            writer.empty();
+            writer.numbers(counts);
+        } else {
+            writer.cents(previous);
+            for (int i = 0; i < counts.length; i++) {
+                changeCounts[i] = counts[i] - previousCounts[i];
+            }
+            writer.numbers(changeCounts);
+        }
+        writer.endRow();
+
+        // The breakdown just made is the previous one of the next line, unless that line gives its own
+        long[] swap = previousCounts;
+        previousCounts = counts;
+        counts = swap;
+        previousCents = cents;
+        return true;
+    }
+}
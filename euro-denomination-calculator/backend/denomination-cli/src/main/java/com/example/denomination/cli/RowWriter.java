@@ -0,0 +1,134 @@
+package com.example.denomination.cli;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+//Writes CSV rows of numbers into one reused buffer that is handed to the channel whenever it fills up, so writing a
+//row allocates nothing
+final class RowWriter {
+
+    //Longest field: a sign, 19 digits, a decimal point and the separator
+    private static final int MAX_FIELD_BYTES = 22;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+    private final byte[] scratch = new byte[MAX_FIELD_BYTES];
+    private int position;
+    private boolean rowStarted;
+
+    RowWriter(WritableByteChannel channel, int bufferBytes) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(Math.max(bufferBytes, MAX_FIELD_BYTES));
+        this.bytes = buffer.array();
+    }
+
+    //Text field such as a header, quoted by the caller when needed
+    void text(String value) throws IOException {
+        separator();
+        byte[] text = value.getBytes(StandardCharsets.UTF_8);
+        for (byte b : text) {
+            if (position == bytes.length) {
+                flush();
+            }
+            bytes[position++] = b;
+        }
+    }
+
+    //Empty field, for a value that is absent
+    void empty() throws IOException {
+        separator();
+    }
+
+    void number(long value) throws IOException {
+        separator();
+        digit(value);
+    }
+
+    //One field per value, with a single check for room in the buffer
+    void numbers(long[] values) throws IOException {
+        if (bytes.length < values.length * MAX_FIELD_BYTES) {
+            for (long value : values) {
+                number(value);
+            }
+            return;
+        }
+        if (bytes.length - position < values.length * MAX_FIELD_BYTES) {
+            flush();
+        }
+        for (long value : values) {
+            if (rowStarted) {
+                bytes[position++] = ',';
+            }
+            rowStarted = true;
+            digit(value);
+        }
+    }
+
+    //Cents written as an amount with two decimal places, such as 234.23
+    void cents(long value) throws IOException {
+        separator();
+        digits(value, true);
+    }
+
+    void endRow() throws IOException {
+        if (position == bytes.length) {
+            flush();
+        }
+        bytes[position++] = '\n';
+        rowStarted = false;
+    }
+
+    void flush() throws IOException {
+        buffer.limit(position).position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        position = 0;
+    }
+
+    private void separator() throws IOException {
+        if (bytes.length - position < MAX_FIELD_BYTES) {
+            flush();
+        }
+        if (rowStarted) {
+            bytes[position++] = ',';
+        }
+        rowStarted = true;
+    }
+
+    private void digit(long value) {
+        // Most counts and changes are a single digit
+        if (value >= 0 && value < 10) {
+            bytes[position++] = (byte) ('0' + value);
+        } else if (value < 0 && value > -10) {
+            bytes[position++] = '-';
+            bytes[position++] = (byte) ('0' - value);
+        } else {
+            digits(value, false);
+        }
+    }
+
+    //Digits written from the end into scratch, working on the negated value so that Long.MIN_VALUE needs no special
+    //case
+    private void digits(long value, boolean cents) {
+        long rest = value < 0 ? value : -value;
+        int at = scratch.length;
+        // At least one unit digit, and for cents the two decimals after the decimal point
+        for (int digit = 0; rest != 0 || digit < (cents ? 3 : 1); digit++) {
+            if (cents && digit == 2) {
+                scratch[--at] = '.';
+            }
+            scratch[--at] = (byte) ('0' - rest % 10);
+            rest /= 10;
+        }
+        if (value < 0) {
+            scratch[--at] = '-';
+        }
+        System.arraycopy(scratch, at, bytes, position, scratch.length - at);
+        position += scratch.length - at;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.denomination.cli;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenominationCliTest {
+
+    @TempDir
+    Path dir;
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    private int run(String... args) {
+        return DenominationCli.run(args, Channels.newChannel(stdout),
+                new PrintStream(stderr, true, StandardCharsets.UTF_8));
+    }
+
+    private Path input(String content) throws Exception {
+        Path file = dir.resolve("amounts.txt");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    @Test
+    void testWritesToStandardOutput() throws Exception {
+        assertEquals(0, run(input("234.23\n").toString()));
+        assertTrue(stdout.toString(StandardCharsets.UTF_8).endsWith("\n234.23,1,0,0,1,1,0,2,0,0,1,0,0,1,1\n"));
+    }
+
+    @Test
+    void testWritesToTheOutputFile() throws Exception {
+        Path output = dir.resolve("rows.csv");
+        Files.writeString(output, "left over from an earlier run that was much longer\n");
+
+        assertEquals(0, run("--changes", "--denominations", "10, 5, 1", input("16\n5\n").toString(),
+                output.toString()));
+        assertEquals("amount,previous,10.00,5.00,1.00\n16.00,,1,1,1\n5.00,16.00,-1,0,-1\n",
+                Files.readString(output));
+        assertEquals(0, stdout.size());
+    }
+
+    @Test
+    void testFailsOnABadLine() throws Exception {
+        Path input = input("1\nabc\n");
+
+        assertEquals(1, run(input.toString()));
+        assertEquals(input + ": Line 2: Amount is not a number", stderr.toString(StandardCharsets.UTF_8).trim());
+    }
+
+    @Test
+    void testFailsOnAMissingFile() {
+        assertEquals(1, run(dir.resolve("missing.txt").toString()));
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).startsWith("Cannot process "));
+    }
+
+    @Test
+    void testRejectsWrongUsage() {
+        assertEquals(2, run());
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).contains("No input file given"));
+        assertEquals(2, run("--verbose", "in.txt"));
+        assertEquals(2, run("--denominations"));
+        assertEquals(2, run("--denominations", "1,x", "in.txt"));
+        assertEquals(2, run("--denominations", "1,1", "in.txt"));
+        assertEquals(2, run("a", "b", "c"));
+        assertTrue(stderr.toString(StandardCharsets.UTF_8).contains(DenominationCli.USAGE));
+    }
+}
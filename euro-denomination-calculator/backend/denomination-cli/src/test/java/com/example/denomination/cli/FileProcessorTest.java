@@ -0,0 +1,114 @@
+package com.example.denomination.cli;
+
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileProcessorTest {
+
+    private static final DenominationEngine EURO =
+            DenominationEngine.compile(DenominationSet.of(DenominationCli.EURO), EngineSettings.DEFAULTS);
+    private static final String HEADER =
+            "200.00,100.00,50.00,20.00,10.00,5.00,2.00,1.00,0.50,0.20,0.10,0.05,0.02,0.01\n";
+
+    @TempDir
+    Path dir;
+
+    private String process(String input, boolean changes, int windowBytes) throws Exception {
+        Path file = dir.resolve("amounts.csv");
+        Files.writeString(file, input);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(file)) {
+            new FileProcessor(EURO, changes, windowBytes).process(channel, Channels.newChannel(out));
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private String process(String input, boolean changes) throws Exception {
+        return process(input, changes, FileProcessor.WINDOW_BYTES);
+    }
+
+    @Test
+    void testWritesBreakdownRows() throws Exception {
+        assertEquals("amount," + HEADER
+                        + "234.23,1,0,0,1,1,0,2,0,0,1,0,0,1,1\n"
+                        + "45.32,0,0,0,2,0,1,0,0,0,1,1,0,1,0\n",
+                process("234.23\n45.32\n", false));
+    }
+
+    @Test
+    void testSkipsBlankLinesAndIgnoresFurtherColumns() throws Exception {
+        assertEquals("amount," + HEADER
+                        + "1.00,0,0,0,0,0,0,0,1,0,0,0,0,0,0\n"
+                        + "0.05,0,0,0,0,0,0,0,0,0,0,0,1,0,0\n",
+                process("\n 1 ,ignored\r\n\n.05", false));
+    }
+
+    @Test
+    void testChangesAgainstThePreviousLine() throws Exception {
+        assertEquals("amount,previous," + HEADER
+                        + "234.23,,1,0,0,1,1,0,2,0,0,1,0,0,1,1\n"
+                        + "45.32,234.23,-1,0,0,1,-1,1,-2,0,0,0,1,0,0,-1\n",
+                process("234.23\n45.32\n", true));
+    }
+
+    @Test
+    void testChangesAgainstTheGivenPreviousAmount() throws Exception {
+        assertEquals("amount,previous," + HEADER
+                        + "5.00,2.00,0,0,0,0,0,1,-1,0,0,0,0,0,0,0\n"
+                        + "5.00,5.00,0,0,0,0,0,0,0,0,0,0,0,0,0,0\n"
+                        + "2.00,5.00,0,0,0,0,0,-1,1,0,0,0,0,0,0,0\n",
+                process("5,2\n5,5\n2\n", true));
+    }
+
+    @Test
+    void testMatchesTheEngineAcrossWindows() throws Exception {
+        SplittableRandom random = new SplittableRandom(15);
+        StringBuilder input = new StringBuilder();
+        StringBuilder expected = new StringBuilder("amount," + HEADER);
+        for (int i = 0; i < 2_000; i++) {
+            long cents = random.nextLong(1, 1_000_000);
+            input.append(DenominationEngine.formatCents(cents)).append('\n');
+            expected.append(DenominationEngine.formatCents(cents));
+            for (long count : EURO.breakdown(cents)) {
+                expected.append(',').append(count);
+            }
+            expected.append('\n');
+        }
+
+        // Windows of a few lines each, so most of them end in the middle of a line
+        assertEquals(expected.toString(), process(input.toString(), false, 64));
+    }
+
+    @Test
+    void testReportsTheBadLine() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> process("1.00\n\n2.005\n", false));
+        assertEquals("Line 3: Amount must have at most two decimal places", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class, () -> process("1.00\n,2.00\n", true));
+        assertEquals("Line 2: Amount is missing", e.getMessage());
+
+        e = assertThrows(IllegalArgumentException.class, () -> process("1.00,2.00,3.00\n", true));
+        assertEquals("Line 1: Amount is not a number", e.getMessage());
+    }
+
+    @Test
+    void testRejectsLinesLongerThanAWindow() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> process("1.00\n" + "1".repeat(100) + "\n2.00\n", false, 64));
+        assertEquals("Line 2: Lines must be shorter than 64 bytes", e.getMessage());
+    }
+}
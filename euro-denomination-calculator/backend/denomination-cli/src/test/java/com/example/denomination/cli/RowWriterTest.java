@@ -0,0 +1,76 @@
+package com.example.denomination.cli;
+
+import com.example.denomination.engine.DenominationEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowWriterTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private String written(RowWriter writer) throws Exception {
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testWritesRows() throws Exception {
+        RowWriter writer = new RowWriter(Channels.newChannel(out), 1024);
+        writer.text("amount");
+        writer.text("previous");
+        writer.endRow();
+        writer.cents(23423);
+        writer.empty();
+        writer.numbers(new long[]{1, 0, -2, 12, -345});
+        writer.endRow();
+
+        assertEquals("amount,previous\n234.23,,1,0,-2,12,-345\n", written(writer));
+    }
+
+    @Test
+    void testFormatsCents() throws Exception {
+        RowWriter writer = new RowWriter(Channels.newChannel(out), 1024);
+        writer.cents(0);
+        writer.cents(5);
+        writer.cents(10);
+        writer.cents(100);
+        writer.cents(-5);
+        writer.cents(Long.MAX_VALUE);
+        writer.cents(Long.MIN_VALUE);
+
+        assertEquals("0.00,0.05,0.10,1.00,-0.05,92233720368547758.07,-92233720368547758.08", written(writer));
+    }
+
+    @Test
+    void testFormatsNumbers() throws Exception {
+        RowWriter writer = new RowWriter(Channels.newChannel(out), 1024);
+        writer.number(9);
+        writer.number(-9);
+        writer.number(10);
+        writer.number(-10);
+        writer.number(Long.MIN_VALUE);
+
+        assertEquals("9,-9,10,-10,-9223372036854775808", written(writer));
+    }
+
+    @Test
+    void testFlushesWhenTheBufferFills() throws Exception {
+        // Smaller than a row of counts, so every field and the row ends go through their own flushes
+        RowWriter writer = new RowWriter(Channels.newChannel(out), 1);
+        StringBuilder expected = new StringBuilder();
+        for (int row = 0; row < 100; row++) {
+            writer.cents(row * 1001L);
+            writer.numbers(new long[]{row, -row, Long.MAX_VALUE});
+            writer.endRow();
+            expected.append(DenominationEngine.formatCents(row * 1001L)).append(',').append(row).append(',')
+                    .append(-row).append(',').append(Long.MAX_VALUE).append('\n');
+        }
+
+        assertEquals(expected.toString(), written(writer));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.denomination.engine;
+
+import java.nio.ByteBuffer;
+
+//Parses amounts written as decimal text straight into cents, without allocating or going through a double.
+//Lines of amount files are read from any buffer, so a block read into a heap array and a memory-mapped file are
+//parsed the same way; JSON numbers are read from the characters of a JSON parser.
+public final class AmountParser {
+
+    //Returned for a blank line
+    public static final long BLANK = Long.MIN_VALUE;
+
+    //Exponents are clamped to this magnitude, far past where any non-zero amount overflows or loses digits
+    private static final int MAX_EXPONENT = 100_000;
+
+    private AmountParser() {
+    }
+
+    //Cents of a positive amount with at most two decimal places such as 1234.5 between the absolute positions from
+    //and to, surrounded by optional blanks; BLANK when there is nothing but blanks
+    public static long parseCents(ByteBuffer bytes, int from, int to) {
+        while (from < to && isBlank(bytes.get(from))) {
+            from++;
+        }
+        while (to > from && isBlank(bytes.get(to - 1))) {
+            to--;
+        }
+        if (from == to) {
+            return BLANK;
+        }
+
+        long cents = 0;
+        int i = from;
+        while (i < to && isDigit(bytes.get(i))) {
+            cents = appendDigit(cents, bytes.get(i++) - '0');
+        }
+        boolean digits = i > from;
+        int decimals = 0;
+        if (i < to && bytes.get(i) == '.') {
+            i++;
+            while (i < to && isDigit(bytes.get(i))) {
+                digits = true;
+                if (decimals < 2) {
+                    cents = appendDigit(cents, bytes.get(i) - '0');
+                    decimals++;
+                } else if (bytes.get(i) != '0') {
+                    throw new IllegalArgumentException("Amount must have at most two decimal places");
+                }
+                i++;
+            }
+        }
+        if (i != to || !digits) {
+            if (bytes.get(from) == '-') {
+                throw new IllegalArgumentException("Amount must be positive");
+            }
+            throw new IllegalArgumentException("Amount is not a number");
+        }
+        for (; decimals < 2; decimals++) {
+            cents = appendDigit(cents, 0);
+        }
+        if (cents == 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return cents;
+    }
+
+    //Cents of a JSON decimal number such as -234.23, 1e3 or 0.5E2: an optional minus sign, digits with an optional
+    //fraction and an optional exponent. Digits past the second decimal place must be zeros.
+    public static long parseDecimalCents(char[] text, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = i < end && text[i] == '-';
+        if (negative) {
+            i++;
+        }
+
+        int integerStart = i;
+        while (i < end && isDigit(text[i])) {
+            i++;
+        }
+        int integerEnd = i;
+        int fractionStart = i;
+        int fractionEnd = i;
+        if (i < end && text[i] == '.') {
+            fractionStart = ++i;
+            while (i < end && isDigit(text[i])) {
+                i++;
+            }
+            fractionEnd = i;
+        }
+        if (integerEnd == integerStart && fractionEnd == fractionStart) {
+            throw new IllegalArgumentException("Amount is not a number");
+        }
+
+        int exponent = 0;
+        if (i < end && (text[i] == 'e' || text[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < end && text[i] == '-';
+            if (i < end && (text[i] == '-' || text[i] == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && isDigit(text[i])) {
+                exponent = Math.min(exponent * 10 + (text[i] - '0'), MAX_EXPONENT);
+                i++;
+            }
+            if (i == exponentStart) {
+                throw new IllegalArgumentException("Amount is not a number");
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (i != end) {
+            throw new IllegalArgumentException("Amount is not a number");
+        }
+
+        // Digits up to two places after the (shifted) decimal point make the cents, any further ones must be 0
+        int integerDigits = integerEnd - integerStart;
+        int digits = integerDigits + fractionEnd - fractionStart;
+        long centDigits = (long) integerDigits + exponent + 2;
+        long cents = 0;
+        for (int d = 0; d < digits; d++) {
+            int digit = text[d < integerDigits ? integerStart + d : fractionStart + d - integerDigits] - '0';
+            if (d < centDigits) {
+                cents = appendDigit(cents, digit);
+            } else if (digit != 0) {
+                throw new IllegalArgumentException("Amount must have at most two decimal places");
+            }
+        }
+        for (long d = digits; cents != 0 && d < centDigits; d++) {
+            cents = appendDigit(cents, 0);
+        }
+        return negative ? -cents : cents;
+    }
+
+    private static long appendDigit(long cents, int digit) {
+        if (cents > (Long.MAX_VALUE - digit) / 10) {
+            throw new IllegalArgumentException("Amount is too large");
+        }
+        return cents * 10 + digit;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.denomination.engine;
+
+//Fewest-pieces breakdown when only a limited number of each denomination is available.
+//Branch-and-bound over cent values: denominations are tried highest first, taking as many pieces as
+//possible, and a branch is cut as soon as it cannot beat the best breakdown found so far.
+//What each explored remainder was proven to need is remembered, so remainders reached again through a
+//different combination of larger pieces are not searched twice and impossible stock fails fast.
+//
+//Most solves take a few microseconds, but stock that leaves many near-equal ways to make the amount can take
+//hundreds of times longer. The search is therefore cut after a budget of states once it has found a breakdown,
+//and that breakdown is returned: it is always one the stock allows, though not proven to use the fewest pieces. Until
+//a first breakdown is found the search continues, so null still means the stock cannot make the amount.
+public final class BoundedChangeSolver {
+
+    //Pieces recorded for a remainder that cannot be made at all
+    private static final long IMPOSSIBLE = Long.MAX_VALUE / 2;
+    //States searched before the best breakdown found so far is accepted
+    static final int STATE_BUDGET = 20_000;
+
+    private final long[] cents;
+    private final long unit;
+    private final int stateBudget;
+    //Largest remainder whose state key fits in a long
+    private final long maxAmount;
+
+    public BoundedChangeSolver(DenominationSet set) {
+        this(set, STATE_BUDGET);
+    }
+
+    BoundedChangeSolver(DenominationSet set, int stateBudget) {
+        this.cents = new long[set.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = set.cents(i);
+        }
+        this.unit = CanonicalCheck.unit(set);
+        this.stateBudget = stateBudget;
+        this.maxAmount = (Long.MAX_VALUE - 1 - cents.length) / (cents.length + 1);
+    }
+
+    //Counts per denomination using the fewest pieces, or null when the stock cannot make the amount;
+    //an amount no stock of the set could make is rejected like the engines reject it
+    public long[] solve(long amountCents, int[] available) {
+        if (available.length != cents.length) {
+            throw new IllegalArgumentException("Expected stock for " + cents.length + " denominations");
+        }
+        DenominationEngine.requireAmount(amountCents, unit);
+        if (amountCents > maxAmount) {
+            throw new IllegalArgumentException("Amount is too large for limited stock: "
+                    + DenominationEngine.formatCents(amountCents));
+        }
+        Search search = new Search(available);
+        if (search.residuesReachable(amountCents)) {
+            search.run(0, amountCents, 0);
+        }
+        return search.bestPieces != Long.MAX_VALUE ? search.best : null;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    //Scratch state for one solve call
+    private final class Search {
+
+        private final int[] available;
+        //Total value and gcd of everything still available from each denomination downwards
+        private final long[] capacity;
+        private final long[] divisor;
+        private final long[] current;
+        private final long[] best;
+        private long bestPieces = Long.MAX_VALUE;
+        private int states;
+        private final LowerBounds lowerBounds = new LowerBounds();
+
+        private Search(int[] available) {
+            int n = cents.length;
+            this.available = available;
+            this.capacity = new long[n + 1];
+            this.divisor = new long[n + 1];
+            this.current = new long[n];
+            this.best = new long[n];
+
+            for (int i = n - 1; i >= 0; i--) {
+                if (available[i] < 0) {
+                    throw new IllegalArgumentException("Available count cannot be negative");
+                }
+                long value = available[i] * cents[i];
+                capacity[i] = capacity[i + 1] > Long.MAX_VALUE - value ? Long.MAX_VALUE : capacity[i + 1] + value;
+                divisor[i] = available[i] > 0 ? gcd(cents[i], divisor[i + 1]) : divisor[i + 1];
+            }
+        }
+
+        //Whatever larger pieces are taken, the remainder left for a denomination and those below it has the
+        //amount's residue modulo the gcd of the larger ones in stock. Where that gcd is at most 64 the residues
+        //the smaller stock can make are a bitmask, which rules out most impossible stock before any search.
+        private boolean residuesReachable(long amountCents) {
+            long larger = 0;
+            for (int index = 1; index < cents.length; index++) {
+                // An unchanged gcd means the denomination above is out of stock or a multiple of it, adding nothing
+                long previous = larger;
+                larger = available[index - 1] > 0 ? gcd(cents[index - 1], larger) : larger;
+                if (larger != previous && larger > 1 && larger <= Long.SIZE
+                        && (residues(index, (int) larger) >>> (amountCents % larger) & 1) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //Bit r is set when the stock from the index downwards can make a sum with residue r modulo the modulus
+        private long residues(int index, int modulus) {
+            long mask = modulus == Long.SIZE ? -1 : (1L << modulus) - 1;
+            long reachable = 1;
+            for (int i = index; i < cents.length && reachable != mask; i++) {
+                int step = (int) (cents[i] % modulus);
+                for (int taken = 0; step != 0 && taken < available[i]; taken++) {
+                    long next = (reachable | reachable << step | reachable >>> (modulus - step)) & mask;
+                    if (next == reachable) {
+                        break;
+                    }
+                    reachable = next;
+                }
+            }
+            return reachable;
+        }
+
+        private void run(int index, long remaining, long pieces) {
+            if (remaining == 0) {
+                if (pieces < bestPieces) {
+                    bestPieces = pieces;
+                    System.arraycopy(current, 0, best, 0, current.length);
+                }
+                return;
+            }
+            // Nothing left, not enough value left, or the remainder is not a multiple of what is left
+            if (index == cents.length || remaining > capacity[index] || divisor[index] == 0
+                    || remaining % divisor[index] != 0) {
+                return;
+            }
+            // Out of budget with a breakdown in hand: every later state returns here, so the search unwinds with it
+            if (++states > stateBudget && bestPieces != Long.MAX_VALUE) {
+                return;
+            }
+            long state = remaining * (cents.length + 1) + index;
+            long budget = bestPieces == Long.MAX_VALUE ? IMPOSSIBLE : bestPieces - pieces;
+            if (lowerBounds.get(state) >= budget) {
+                return;
+            }
+
+            // A search that finds nothing proves the remainder needs at least the budget it was given,
+            // one that improves the best breakdown has found exactly what the remainder needs
+            long before = bestPieces;
+            search(index, remaining, pieces);
+            lowerBounds.raise(state, bestPieces < before ? bestPieces - pieces : budget);
+        }
+
+        private void search(int index, long remaining, long pieces) {
+            long value = cents[index];
+            long most = Math.min(available[index], remaining / value);
+            for (long take = most; take >= 0; take--) {
+                long rest = remaining - take * value;
+                // Fewer pieces of this denomination only leave more value for smaller ones
+                if (rest > capacity[index + 1]) {
+                    break;
+                }
+                long bound = pieces + take + lowerBound(index + 1, rest);
+                if (bound >= bestPieces) {
+                    break;
+                }
+                current[index] = take;
+                run(index + 1, rest, pieces + take);
+            }
+            current[index] = 0;
+        }
+
+        //At least this many pieces are needed for the rest, since no smaller denomination is worth more
+        private long lowerBound(int index, long remaining) {
+            if (remaining == 0) {
+                return 0;
+            }
+            return index < cents.length ? (remaining + cents[index] - 1) / cents[index] : Long.MAX_VALUE / 2;
+        }
+    }
+
+    //Open-addressing map from (denomination, remainder) state to the fewest pieces it is known to need
+    private static final class LowerBounds {
+
+        private long[] keys = new long[256];
+        private long[] values = new long[256];
+        private int size;
+
+        private long get(long state) {
+            long key = state + 1;
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return 0;
+        }
+
+        private void raise(long state, long bound) {
+            if (size * 2 >= keys.length) {
+                grow();
+            }
+            if (insert(keys, values, state + 1, bound)) {
+                size++;
+            }
+        }
+
+        private void grow() {
+            long[] largerKeys = new long[keys.length * 2];
+            long[] largerValues = new long[keys.length * 2];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    insert(largerKeys, largerValues, keys[i], values[i]);
+                }
+            }
+            keys = largerKeys;
+            values = largerValues;
+        }
+
+        //Store the bound unless a higher one is already known, returning whether a new key was added
+        private static boolean insert(long[] keys, long[] values, long key, long bound) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            boolean added = keys[slot] == 0;
+            keys[slot] = key;
+            values[slot] = added ? bound : Math.max(values[slot], bound);
+            return added;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
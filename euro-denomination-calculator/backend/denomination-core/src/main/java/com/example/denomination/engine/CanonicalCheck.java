@@ -0,0 +1,95 @@
+package com.example.denomination.engine;
+
+//Whether greedy gives the fewest pieces for every amount of a denomination set.
+//By Kozen and Zaks, a set containing the unit piece that has a counterexample has one below the sum of its two
+//largest denominations, so comparing greedy against a minimum-pieces table up to that sum decides the question.
+public final class CanonicalCheck {
+
+    private final boolean canonical;
+    private final long counterexampleCents;
+    private final String reason;
+
+    private CanonicalCheck(boolean canonical, long counterexampleCents, String reason) {
+        this.canonical = canonical;
+        this.counterexampleCents = counterexampleCents;
+        this.reason = reason;
+    }
+
+    //Search for a counterexample, giving up as not canonical when the search range exceeds the limit
+    public static CanonicalCheck run(DenominationSet set, long searchLimitCents) {
+        long unit = unit(set);
+        int n = set.size();
+        long[] units = new long[n];
+        for (int i = 0; i < n; i++) {
+            units[i] = set.cents(i) / unit;
+        }
+
+        if (units[n - 1] != 1) {
+            return new CanonicalCheck(false, -1, "not canonical: the smallest denomination is not a common unit");
+        }
+        if (n <= 2) {
+            return new CanonicalCheck(true, -1, "canonical");
+        }
+        long range = units[0] + units[1];
+        if (range * unit > searchLimitCents) {
+            return new CanonicalCheck(false, -1, "not verified as canonical: search range of "
+                    + range * unit + " cents exceeds the limit of " + searchLimitCents);
+        }
+
+        int[] fewest = new int[(int) range];
+        for (int amount = 1; amount < range; amount++) {
+            int best = Integer.MAX_VALUE;
+            for (long value : units) {
+                if (value <= amount && fewest[(int) (amount - value)] + 1 < best) {
+                    best = fewest[(int) (amount - value)] + 1;
+                }
+            }
+            fewest[amount] = best;
+
+            long greedy = greedyPieces(units, amount);
+            if (greedy != best) {
+                return new CanonicalCheck(false, amount * unit, String.format(
+                        "not canonical: greedy needs %d pieces for %s, the fewest is %d",
+                        greedy, DenominationSet.formatKey(amount * unit / 100.0), best));
+            }
+        }
+        return new CanonicalCheck(true, -1, "canonical");
+    }
+
+    //Largest cent value every denomination is a multiple of
+    static long unit(DenominationSet set) {
+        long unit = 0;
+        for (int i = 0; i < set.size(); i++) {
+            long a = set.cents(i);
+            while (a != 0) {
+                long t = unit % a;
+                unit = a;
+                a = t;
+            }
+        }
+        return unit;
+    }
+
+    private static long greedyPieces(long[] units, long amount) {
+        long pieces = 0;
+        for (long value : units) {
+            pieces += amount / value;
+            amount %= value;
+        }
+        return pieces;
+    }
+
+    public boolean canonical() {
+        return canonical;
+    }
+
+    //Smallest amount greedy gets wrong, or -1 when none was found
+    public long counterexampleCents() {
+        return counterexampleCents;
+    }
+
+    @Override
+    public String toString() {
+        return reason;
+    }
+}
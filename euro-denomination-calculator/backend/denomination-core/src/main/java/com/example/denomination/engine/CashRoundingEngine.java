@@ -0,0 +1,48 @@
+package com.example.denomination.engine;
+
+//Engine that rounds every amount to the nearest multiple of its set's unit before breaking it down, halves up.
+//That is how eurozone countries without 1- and 2-cent coins round cash payments: 0.01 and 0.02 down to 0.00,
+//0.03 and 0.04 up to 0.05. Callers report round(amount) as the amount they calculated.
+public final class CashRoundingEngine implements DenominationEngine {
+
+    private final DenominationEngine engine;
+    private final long unit;
+
+    CashRoundingEngine(DenominationEngine engine) {
+        this.engine = engine;
+        this.unit = CanonicalCheck.unit(engine.set());
+    }
+
+    @Override
+    public DenominationSet set() {
+        return engine.set();
+    }
+
+    @Override
+    public long round(long amountCents) {
+        DenominationEngine.requireAmount(amountCents, 1);
+        long rest = amountCents % unit;
+        if (rest * 2 < unit) {
+            return amountCents - rest;
+        }
+        if (amountCents - rest > Long.MAX_VALUE - unit) {
+            throw new IllegalArgumentException("Amount is too large to round: " + DenominationEngine.formatCents(amountCents));
+        }
+        return amountCents - rest + unit;
+    }
+
+    @Override
+    public void breakdown(long amountCents, long[] counts) {
+        engine.breakdown(round(amountCents), counts);
+    }
+
+    @Override
+    public long memoryBytes() {
+        return engine.memoryBytes();
+    }
+
+    @Override
+    public String toString() {
+        return engine + " with cash rounding to " + DenominationEngine.formatCents(unit);
+    }
+}
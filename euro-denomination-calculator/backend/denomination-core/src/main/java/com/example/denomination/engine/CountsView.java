@@ -0,0 +1,101 @@
+package com.example.denomination.engine;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+//Read-only map over primitive count arrays; entries are only materialized while the map is read or serialized
+final class CountsView extends AbstractMap<String, Long> {
+
+    private final DenominationSet set;
+    private final long[] current;
+    private final long[] previous;
+
+    CountsView(DenominationSet set, long[] current, long[] previous) {
+        this.set = set;
+        this.current = current;
+        this.previous = previous;
+    }
+
+    DenominationSet set() {
+        return set;
+    }
+
+    //A breakdown lists used denominations; a change list also keeps the ones only the previous amount used
+    private boolean present(int index) {
+        return current[index] > 0 || (previous != null && previous[index] > 0);
+    }
+
+    private long valueAt(int index) {
+        return previous != null ? current[index] - previous[index] : current[index];
+    }
+
+    @Override
+    public Long get(Object key) {
+        int index = set.indexOf(key);
+        return index >= 0 && present(index) ? valueAt(index) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int index = set.indexOf(key);
+        return index >= 0 && present(index);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (present(i)) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Long>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Long>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CountsView.this.size();
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Long>> {
+
+        private int next = advance(0);
+
+        private int advance(int from) {
+            int index = from;
+            while (index < current.length && !present(index)) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < current.length;
+        }
+
+        @Override
+        public Map.Entry<String, Long> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = next;
+            next = advance(index + 1);
+            return new SimpleImmutableEntry<>(set.key(index), valueAt(index));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.denomination.engine;
+
+//Breakdown of cent amounts into counts per denomination of one compiled set
+public interface DenominationEngine {
+
+    DenominationSet set();
+
+    //Fill counts with the breakdown, one count per denomination in the order of the set;
+    //throws IllegalArgumentException for negative amounts and amounts the set cannot make exactly
+    void breakdown(long amountCents, long[] counts);
+
+    //Breakdown for the given amount in cents, as one count per denomination
+    default long[] breakdown(long amountCents) {
+        long[] counts = new long[set().size()];
+        breakdown(amountCents, counts);
+        return counts;
+    }
+
+    //Amount the engine breaks down for the given one, the same amount unless it rounds cash payments
+    default long round(long amountCents) {
+        return amountCents;
+    }
+
+    //Bytes held by precomputed tables
+    default long memoryBytes() {
+        return 0;
+    }
+
+    //Converting Euros to cents to avoid floating point errors
+    static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    //Cents written as an amount with two decimal places, without going through a double
+    static String formatCents(long cents) {
+        long units = Math.abs(cents / 100);
+        long rest = Math.abs(cents % 100);
+        return (cents < 0 ? "-" : "") + units + (rest < 10 ? ".0" : ".") + rest;
+    }
+
+    //Engines index their tables by the amount, so a negative one must not get that far, and an amount that is not a
+    //multiple of the set's unit, such as 234.23 in francs, would otherwise lose its remainder without a word
+    static void requireAmount(long amountCents, long unitCents) {
+        if (amountCents < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + formatCents(amountCents));
+        }
+        if (amountCents % unitCents != 0) {
+            throw new IllegalArgumentException("Amount " + formatCents(amountCents)
+                    + " is not a multiple of " + formatCents(unitCents) + ", the smallest the denominations can make");
+        }
+    }
+
+    //The engine with every amount rounded to the nearest multiple of the set's unit, such as 0.05 once the 1- and
+    //2-cent coins are withdrawn, instead of rejecting the amounts it cannot make
+    static DenominationEngine cashRounding(DenominationEngine engine) {
+        return new CashRoundingEngine(engine);
+    }
+
+    //Greedy when it is proven to give the fewest pieces for this set, from a residue table when that fits the
+    //settings, and the optimal engine otherwise
+    static DenominationEngine compile(DenominationSet set, EngineSettings settings) {
+        CanonicalCheck check = CanonicalCheck.run(set, settings.optimalTableLimitCents());
+        if (!check.canonical()) {
+            return new OptimalEngine(set, check, settings.optimalTableLimitCents());
+        }
+        ResidueTableEngine table = ResidueTableEngine.build(set, check, settings.lookupTableMaxBytes());
+        return table != null ? table : new GreedyEngine(set, check);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.denomination.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+//Immutable denomination set compiled once into cent values and response keys
+public final class DenominationSet {
+
+    private final double[] values;
+    private final long[] cents;
+    private final String[] keys;
+    private final Map<String, Integer> indexByKey;
+    private final int id;
+
+    private DenominationSet(double[] values) {
+        this.values = sortDescending(values);
+        this.cents = new long[values.length];
+        this.keys = new String[values.length];
+        this.indexByKey = new HashMap<>();
+
+        for (int i = 0; i < this.values.length; i++) {
+            long value = Math.round(this.values[i] * 100);
+            if (value <= 0) {
+                throw new IllegalArgumentException("Denomination must be at least 0.01: " + this.values[i]);
+            }
+            if (i > 0 && value == cents[i - 1]) {
+                throw new IllegalArgumentException("Duplicate denomination: " + this.values[i]);
+            }
+            cents[i] = value;
+            keys[i] = formatKey(this.values[i]).intern();
+            indexByKey.put(keys[i], i);
+        }
+        this.id = checksum(cents);
+    }
+
+    //Identifies the set on the wire: CRC-32 of the cent values, highest first
+    private static int checksum(long[] cents) {
+        CRC32 crc = new CRC32();
+        for (long value : cents) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                crc.update((int) (value >>> shift));
+            }
+        }
+        return (int) crc.getValue();
+    }
+
+    //The greedy breakdown relies on the highest denomination coming first
+    private static double[] sortDescending(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+            double swap = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = swap;
+        }
+        return sorted;
+    }
+
+    //Compile the configured denomination values, highest first
+    public static DenominationSet of(double... values) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException("At least one denomination is required");
+        }
+        return new DenominationSet(values);
+    }
+
+    //Format denomination value as a string with two decimal places
+    public static String formatKey(double denomination) {
+        return String.format("%.2f", denomination);
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public int size() {
+        return cents.length;
+    }
+
+    public long cents(int index) {
+        return cents[index];
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    public String key(int index) {
+        return keys[index];
+    }
+
+    //Index of the denomination for a response key, or -1 when the key is unknown
+    public int indexOf(Object key) {
+        Integer index = indexByKey.get(key);
+        return index != null ? index : -1;
+    }
+
+    public double[] values() {
+        return values.clone();
+    }
+
+    //Convert available counts keyed like the breakdown into one count per denomination, missing ones being 0
+    public int[] stock(Map<String, Integer> available) {
+        int[] stock = new int[keys.length];
+        for (Map.Entry<String, Integer> entry : available.entrySet()) {
+            int index = indexOf(entry.getKey());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown denomination: " + entry.getKey());
+            }
+            if (entry.getValue() == null || entry.getValue() < 0) {
+                throw new IllegalArgumentException("Available count must not be negative: " + entry.getKey());
+            }
+            stock[index] = entry.getValue();
+        }
+        return stock;
+    }
+
+    //Denominations as listed by the API with the symbol of the ISO currency, for example 200.00€ or 1000.00 CHF
+    public List<String> listing(String currencyCode) {
+        String symbol = Currency.getInstance(currencyCode).getSymbol(Locale.ROOT);
+        String suffix = symbol.length() == 1 ? symbol : " " + symbol;
+        List<String> listing = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            listing.add(key + suffix);
+        }
+        return List.copyOf(listing);
+    }
+
+    //Set behind a breakdown or change view, or null for any other map
+    public static DenominationSet ofView(Map<String, Long> counts) {
+        return counts instanceof CountsView view ? view.set() : null;
+    }
+
+    //Read-only map view of a breakdown, listing only denominations that are used
+    public Map<String, Long> breakdownView(long[] counts) {
+        return new CountsView(this, counts, null);
+    }
+
+    //Read-only map view of current minus previous, listing denominations used by either side
+    public Map<String, Long> changesView(long[] current, long[] previous) {
+        return new CountsView(this, current, previous);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
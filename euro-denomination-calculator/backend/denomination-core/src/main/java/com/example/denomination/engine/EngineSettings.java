@@ -0,0 +1,11 @@
+package com.example.denomination.engine;
+
+//Limits applied when compiling a denomination set into an engine
+public record EngineSettings(
+        //Largest amount in cents the optimal engine tabulates for sets where greedy is not optimal
+        long optimalTableLimitCents,
+        //Largest residue lookup table in bytes before the greedy loop is used instead
+        long lookupTableMaxBytes
+) {
+    public static final EngineSettings DEFAULTS = new EngineSettings(2_000_000, 16 * 1024 * 1024);
+}
@@ -0,0 +1,46 @@
+package com.example.denomination.engine;
+
+//Greedy breakdown over precompiled cent values, the fewest pieces for canonical sets such as the euro
+public final class GreedyEngine implements DenominationEngine {
+
+    private final DenominationSet set;
+    private final long[] cents;
+    private final long unit;
+    private final CanonicalCheck check;
+
+    public GreedyEngine(DenominationSet set) {
+        this(set, null);
+    }
+
+    GreedyEngine(DenominationSet set, CanonicalCheck check) {
+        this.set = set;
+        this.check = check;
+        this.cents = new long[set.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = set.cents(i);
+        }
+        this.unit = CanonicalCheck.unit(set);
+    }
+
+    @Override
+    public DenominationSet set() {
+        return set;
+    }
+
+    //Fill counts with the breakdown, processing each denomination from highest to lowest value
+    @Override
+    public void breakdown(long amountCents, long[] counts) {
+        DenominationEngine.requireAmount(amountCents, unit);
+        long remaining = amountCents;
+        for (int i = 0; i < cents.length; i++) {
+            long count = remaining / cents[i];
+            counts[i] = count;
+            remaining -= count * cents[i];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "greedy engine" + (check != null ? " (" + check + ")" : "");
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.denomination.engine;
+
+import java.util.Arrays;
+
+//Moves the fewest pieces to turn the previous contents of a drawer into the new amount.
+//
+//Subtracting two independent breakdowns can take out pieces only to put the same value back in another form; here
+//every denomination gets a signed adjustment instead, never removing more pieces than the drawer holds, and the sum of
+//the adjustments' sizes is minimized. Branch-and-bound over denominations highest first, starting from the plain
+//difference to the fewest-pieces breakdown so the answer never moves more than that and keeps it on ties.
+//
+//Bounds come from tables built once per set: for every suffix of the denominations, the fewest pieces for each
+//difference up to the next larger denomination, once adding and taking away freely and once only adding, for when
+//the drawer holds none of those denominations. Past a table, the difference divided by the largest remaining
+//denomination is the bound.
+public final class MinimalExchangeSolver {
+
+    //Bound recorded for a difference the remaining denominations cannot make
+    private static final int IMPOSSIBLE = Short.MAX_VALUE;
+
+    private final DenominationEngine engine;
+    private final long unit;
+    private final long[] units;
+    //Greatest common divisor of each suffix, a difference it does not divide cannot be made
+    private final long[] divisor;
+    //Per suffix, fewest signed pieces for differences -range..range stored at difference + range, and fewest pieces
+    //only adding for 0..range; null past the memory limit
+    private final short[][] signedTables;
+    private final short[][] addingTables;
+    private final long[] ranges;
+
+    public MinimalExchangeSolver(DenominationEngine engine, EngineSettings settings) {
+        DenominationSet set = engine.set();
+        int n = set.size();
+        this.engine = engine;
+        this.unit = CanonicalCheck.unit(set);
+        this.units = new long[n];
+        for (int i = 0; i < n; i++) {
+            units[i] = set.cents(i) / unit;
+        }
+        this.divisor = new long[n + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            divisor[i] = gcd(units[i], divisor[i + 1]);
+        }
+
+        // Small suffixes get their tables first, the largest ones are left to the weaker bound when memory runs out
+        this.signedTables = new short[n][];
+        this.addingTables = new short[n][];
+        this.ranges = new long[n];
+        long bytes = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            long range = i > 0 ? units[i - 1] : units[0];
+            bytes += (3 * range + 2) * Short.BYTES;
+            if (bytes > settings.lookupTableMaxBytes()) {
+                break;
+            }
+            ranges[i] = range;
+            signedTables[i] = signedPieces(i, range);
+            addingTables[i] = addingPieces(i, range);
+        }
+    }
+
+    //Fewest pieces of denominations from index on, each added or taken away, for every difference within range.
+    //A shortest sequence can be ordered to step towards its target, never further than one piece beyond it, so a
+    //breadth-first search that stays within range plus the largest piece finds it.
+    private short[] signedPieces(int index, long range) {
+        int reach = Math.toIntExact(range + units[index]);
+        int size = 2 * reach + 1;
+        short[] pieces = new short[size];
+        Arrays.fill(pieces, (short) IMPOSSIBLE);
+        int[] queue = new int[size];
+        int head = 0;
+        int tail = 0;
+        pieces[reach] = 0;
+        queue[tail++] = reach;
+        while (head < tail) {
+            int at = queue[head++];
+            // Counts past the cap stay at the cap, which is still a valid bound
+            short next = (short) Math.min(pieces[at] + 1, IMPOSSIBLE - 1);
+            for (int i = index; i < units.length; i++) {
+                int up = at + (int) units[i];
+                if (up < size && pieces[up] == IMPOSSIBLE) {
+                    pieces[up] = next;
+                    queue[tail++] = up;
+                }
+                int down = at - (int) units[i];
+                if (down >= 0 && pieces[down] == IMPOSSIBLE) {
+                    pieces[down] = next;
+                    queue[tail++] = down;
+                }
+            }
+        }
+        return Arrays.copyOfRange(pieces, (int) (reach - range), (int) (reach + range + 1));
+    }
+
+    //Fewest pieces of denominations from index on for every amount up to range, the way the optimal engine counts
+    private short[] addingPieces(int index, long range) {
+        short[] pieces = new short[(int) range + 1];
+        for (int amount = 1; amount < pieces.length; amount++) {
+            int fewest = IMPOSSIBLE;
+            for (int i = index; i < units.length; i++) {
+                if (units[i] <= amount) {
+                    fewest = Math.min(fewest, pieces[amount - (int) units[i]] + 1);
+                }
+            }
+            pieces[amount] = (short) Math.min(fewest, IMPOSSIBLE);
+        }
+        return pieces;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    //Counts per denomination after the fewest moves from the previous counts to the amount
+    public long[] solve(long[] previous, long amountCents) {
+        if (previous.length != units.length) {
+            throw new IllegalArgumentException("Expected counts for " + units.length + " denominations");
+        }
+        long[] target = engine.breakdown(amountCents);
+        long previousCents = 0;
+        long moves = 0;
+        for (int i = 0; i < units.length; i++) {
+            if (previous[i] < 0) {
+                throw new IllegalArgumentException("Previous count cannot be negative");
+            }
+            previousCents += previous[i] * units[i] * unit;
+            moves += Math.abs(target[i] - previous[i]);
+        }
+
+        Search search = new Search(previous, moves);
+        search.run(0, (amountCents - previousCents) / unit, 0);
+        if (search.best == null) {
+            return target;
+        }
+        long[] counts = new long[units.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = previous[i] + search.best[i];
+        }
+        return counts;
+    }
+
+    //No piece from index on moves more than the largest of them
+    private long weakBound(int index, long difference) {
+        return (Math.abs(difference) + units[index] - 1) / units[index];
+    }
+
+    //Bytes held by the bound tables
+    public long memoryBytes() {
+        long bytes = 0;
+        for (int i = 0; i < units.length; i++) {
+            if (signedTables[i] != null) {
+                bytes += (long) (signedTables[i].length + addingTables[i].length) * Short.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    //Scratch state for one solve call
+    private final class Search {
+
+        private final long[] previous;
+        //Units the drawer can give up from each denomination downwards
+        private final long[] removable;
+        private final long[] current;
+        private long[] best;
+        private long bestMoves;
+
+        private Search(long[] previous, long movesToBeat) {
+            this.previous = previous;
+            this.removable = new long[units.length + 1];
+            for (int i = units.length - 1; i >= 0; i--) {
+                removable[i] = removable[i + 1] + previous[i] * units[i];
+            }
+            this.current = new long[units.length];
+            this.bestMoves = movesToBeat;
+        }
+
+        //Fewest pieces the denominations from index on need for a difference
+        private long lowerBound(int index, long difference) {
+            if (difference == 0) {
+                return 0;
+            }
+            if (index == units.length || difference % divisor[index] != 0 || difference < -removable[index]) {
+                return IMPOSSIBLE;
+            }
+            if (signedTables[index] == null || Math.abs(difference) > ranges[index]) {
+                return weakBound(index, difference);
+            }
+            // With nothing to take out, pieces can only be added
+            return removable[index] == 0
+                    ? addingTables[index][(int) difference]
+                    : signedTables[index][(int) (difference + ranges[index])];
+        }
+
+        private void run(int index, long remaining, long moves) {
+            if (remaining == 0) {
+                if (moves < bestMoves) {
+                    bestMoves = moves;
+                    best = current.clone();
+                    Arrays.fill(best, index, best.length, 0);
+                }
+                return;
+            }
+            long value = units[index];
+            if (index == units.length - 1) {
+                // The smallest denomination has to make up the rest on its own
+                if (remaining % value == 0) {
+                    long take = remaining / value;
+                    if (take >= -previous[index] && moves + Math.abs(take) < bestMoves) {
+                        current[index] = take;
+                        run(index + 1, 0, moves + Math.abs(take));
+                    }
+                }
+                current[index] = 0;
+                return;
+            }
+
+            // Adjustments leaving a remainder in [0, value) first, then outwards in both directions. Moving out by
+            // one changes this adjustment's size by at most one and the rest's weak bound by at least one, so once
+            // that bound cannot beat the best, nothing further out in the same direction can.
+            long center = Math.floorDiv(remaining, value);
+            for (long take = center; take >= -previous[index]; take--) {
+                if (!tryTake(index, remaining, moves, take)) {
+                    break;
+                }
+            }
+            for (long take = Math.max(center + 1, -previous[index]); ; take++) {
+                if (!tryTake(index, remaining, moves, take)) {
+                    break;
+                }
+            }
+            current[index] = 0;
+        }
+
+        //Search with this adjustment of the denomination, returning false once its direction cannot improve
+        private boolean tryTake(int index, long remaining, long moves, long take) {
+            long rest = remaining - take * units[index];
+            long spent = moves + Math.abs(take);
+            if (spent + weakBound(index + 1, rest) >= bestMoves) {
+                return false;
+            }
+            if (spent + lowerBound(index + 1, rest) < bestMoves) {
+                current[index] = take;
+                run(index + 1, rest, spent);
+            }
+            return true;
+        }
+    }
+}
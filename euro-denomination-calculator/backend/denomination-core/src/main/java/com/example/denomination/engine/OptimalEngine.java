@@ -0,0 +1,109 @@
+package com.example.denomination.engine;
+
+import java.util.Arrays;
+
+//Fewest-pieces breakdown for sets where greedy is not optimal, such as 4, 3 and 1.
+//A minimum-pieces table is precomputed up to (largest - 1) * second largest units: above that every optimal
+//breakdown contains the largest denomination, so larger amounts take largest pieces until they fall into the table.
+public final class OptimalEngine implements DenominationEngine {
+
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final DenominationSet set;
+    private final CanonicalCheck check;
+    private final long unit;
+    private final long[] units;
+    private final int[] pieces;
+    private final byte[] choice;
+    private final boolean exact;
+
+    OptimalEngine(DenominationSet set, CanonicalCheck check, long tableLimitCents) {
+        if (set.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("At most " + Byte.MAX_VALUE + " denominations are supported");
+        }
+        this.set = set;
+        this.check = check;
+        this.unit = CanonicalCheck.unit(set);
+        this.units = new long[set.size()];
+        for (int i = 0; i < units.length; i++) {
+            units[i] = set.cents(i) / unit;
+        }
+
+        // Past this bound the largest denomination is always part of an optimal breakdown
+        long exactBound = units.length > 1 ? (units[0] - 1) * units[1] : 0;
+        long limit = Math.min(tableLimitCents / unit, Integer.MAX_VALUE - 1);
+        long tableSize = Math.max(Math.min(exactBound, limit), units[0] - 1);
+        if (tableSize > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Denominations are too large for the optimal engine: " + set);
+        }
+        this.exact = tableSize >= exactBound;
+        this.pieces = new int[(int) tableSize + 1];
+        this.choice = new byte[(int) tableSize + 1];
+        fillTable();
+    }
+
+    //Minimum pieces for every amount in the table, and a denomination that starts such a breakdown
+    private void fillTable() {
+        Arrays.fill(pieces, 1, pieces.length, UNREACHABLE);
+        for (int amount = 1; amount < pieces.length; amount++) {
+            for (int i = 0; i < units.length; i++) {
+                if (units[i] <= amount) {
+                    int rest = pieces[amount - (int) units[i]];
+                    if (rest != UNREACHABLE && rest + 1 < pieces[amount]) {
+                        pieces[amount] = rest + 1;
+                        choice[amount] = (byte) i;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public DenominationSet set() {
+        return set;
+    }
+
+    @Override
+    public void breakdown(long amountCents, long[] counts) {
+        DenominationEngine.requireAmount(amountCents, unit);
+        Arrays.fill(counts, 0);
+
+        long remaining = amountCents / unit;
+        int top = pieces.length - 1;
+        if (remaining > top) {
+            long largest = (remaining - top + units[0] - 1) / units[0];
+            counts[0] = largest;
+            remaining -= largest * units[0];
+        }
+        if (pieces[(int) remaining] == UNREACHABLE) {
+            throw new IllegalArgumentException("Amount cannot be made from the configured denominations");
+        }
+
+        while (remaining > 0) {
+            int index = choice[(int) remaining];
+            counts[index]++;
+            remaining -= units[index];
+        }
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) pieces.length * (Integer.BYTES + Byte.BYTES);
+    }
+
+    //False when the table was capped below the exact bound, so amounts past the table may not be minimal
+    public boolean exact() {
+        return exact;
+    }
+
+    //Amounts covered by the minimum-pieces table
+    public int tableSize() {
+        return pieces.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("optimal engine (%s; table of %d amounts, %s)", check, pieces.length,
+                exact ? "exact for every amount" : "larger amounts may not be minimal");
+    }
+}
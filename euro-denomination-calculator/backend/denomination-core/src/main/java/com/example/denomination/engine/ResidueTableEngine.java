@@ -0,0 +1,97 @@
+package com.example.denomination.engine;
+
+//Breakdown by table lookup for canonical sets: the amount is so many of the largest denomination plus the greedy
+//breakdown of the remainder below it, and the remainder breakdowns are precomputed with all counts packed in a long.
+//For the euro that is 20,000 remainders in 160 KB, and each breakdown is one division and one table read.
+public final class ResidueTableEngine implements DenominationEngine {
+
+    private final DenominationSet set;
+    private final CanonicalCheck check;
+    private final long largest;
+    private final long unit;
+    private final long[] table;
+    private final int[] shifts;
+    private final long[] masks;
+
+    private ResidueTableEngine(DenominationSet set, CanonicalCheck check, long[] table, int[] shifts, long[] masks) {
+        this.set = set;
+        this.check = check;
+        this.largest = set.cents(0);
+        this.unit = CanonicalCheck.unit(set);
+        this.table = table;
+        this.shifts = shifts;
+        this.masks = masks;
+    }
+
+    //Build the table, or return null when the counts do not pack into a long or the table exceeds maxBytes
+    static ResidueTableEngine build(DenominationSet set, CanonicalCheck check, long maxBytes) {
+        long largest = set.cents(0);
+        if (largest * Long.BYTES > maxBytes) {
+            return null;
+        }
+
+        int n = set.size();
+        long unit = CanonicalCheck.unit(set);
+        GreedyEngine greedy = new GreedyEngine(set);
+
+        // The most pieces of each denomination any remainder needs decides how many bits it gets; only multiples of
+        // the unit are ever looked up, the other slots stay 0
+        long[] most = new long[n];
+        long[] counts = new long[n];
+        for (long residue = 0; residue < largest; residue += unit) {
+            greedy.breakdown(residue, counts);
+            for (int i = 1; i < n; i++) {
+                most[i] = Math.max(most[i], counts[i]);
+            }
+        }
+        int[] shifts = new int[n];
+        long[] masks = new long[n];
+        int bits = 0;
+        for (int i = 1; i < n; i++) {
+            int width = 64 - Long.numberOfLeadingZeros(most[i]);
+            shifts[i] = bits;
+            masks[i] = (1L << width) - 1;
+            bits += width;
+        }
+        if (bits > Long.SIZE) {
+            return null;
+        }
+
+        long[] table = new long[(int) largest];
+        for (int residue = 0; residue < largest; residue += (int) unit) {
+            greedy.breakdown(residue, counts);
+            long packed = 0;
+            for (int i = 1; i < n; i++) {
+                packed |= counts[i] << shifts[i];
+            }
+            table[residue] = packed;
+        }
+        return new ResidueTableEngine(set, check, table, shifts, masks);
+    }
+
+    @Override
+    public DenominationSet set() {
+        return set;
+    }
+
+    @Override
+    public void breakdown(long amountCents, long[] counts) {
+        DenominationEngine.requireAmount(amountCents, unit);
+        long top = amountCents / largest;
+        long packed = table[(int) (amountCents - top * largest)];
+        counts[0] = top;
+        for (int i = 1; i < counts.length; i++) {
+            counts[i] = (packed >>> shifts[i]) & masks[i];
+        }
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("residue table engine (%s; %d remainders in %d bytes)", check, table.length, memoryBytes());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountParserTest {
+
+    @Test
+    void testParseCents() {
+        assertEquals(123450, parse(" 1234.5\r"));
+        assertEquals(Long.MAX_VALUE, parse("92233720368547758.07"));
+        assertEquals(5, parse(".05"));
+        assertEquals(100, parse("1.000"));
+        assertEquals(700, parse("7."));
+    }
+
+    @Test
+    void testBlankLine() {
+        assertEquals(AmountParser.BLANK, parse(""));
+        assertEquals(AmountParser.BLANK, parse(" \t\r"));
+    }
+
+    @Test
+    void testParsesBetweenAbsolutePositions() {
+        ByteBuffer bytes = ByteBuffer.wrap("12.34,5.6\n".getBytes(StandardCharsets.US_ASCII));
+        // The buffer position is neither used nor moved
+        bytes.position(9);
+
+        assertEquals(1234, AmountParser.parseCents(bytes, 0, 5));
+        assertEquals(560, AmountParser.parseCents(bytes, 6, 9));
+        assertEquals(9, bytes.position());
+    }
+
+    @Test
+    void testRejections() {
+        assertEquals("Amount must be positive", rejection("-1"));
+        assertEquals("Amount must be positive", rejection("0.00"));
+        assertEquals("Amount must have at most two decimal places", rejection("1.005"));
+        assertEquals("Amount is too large", rejection("92233720368547758.08"));
+        assertEquals("Amount is not a number", rejection("1,50"));
+        assertEquals("Amount is not a number", rejection("."));
+        assertEquals("Amount is not a number", rejection("1 2"));
+    }
+
+    private static long parse(String amount) {
+        byte[] bytes = amount.getBytes(StandardCharsets.US_ASCII);
+        return AmountParser.parseCents(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    private static String rejection(String amount) {
+        return assertThrows(IllegalArgumentException.class, () -> parse(amount)).getMessage();
+    }
+
+    @Test
+    void testParseDecimalCents() {
+        assertEquals(23423, decimal("234.23"));
+        assertEquals(-500, decimal("-5"));
+        assertEquals(100_000, decimal("1e3"));
+        assertEquals(5, decimal("0.5E-1"));
+        assertEquals(100, decimal("100E-2"));
+        assertEquals(0, decimal("0e99999999"));
+        assertEquals(Long.MAX_VALUE, decimal("92233720368547758.07"));
+
+        assertEquals("Amount must have at most two decimal places", decimalRejection("1.005"));
+        assertEquals("Amount must have at most two decimal places", decimalRejection("1e-3"));
+        assertEquals("Amount is too large", decimalRejection("1e17"));
+        assertEquals("Amount is not a number", decimalRejection("1e"));
+        assertEquals("Amount is not a number", decimalRejection("abc"));
+        assertEquals("Amount is not a number", decimalRejection(""));
+    }
+
+    @Test
+    void testParseDecimalCentsWithinLargerText() {
+        char[] text = "[12.5,7]".toCharArray();
+
+        assertEquals(1250, AmountParser.parseDecimalCents(text, 1, 4));
+        assertEquals(700, AmountParser.parseDecimalCents(text, 6, 1));
+    }
+
+    private static long decimal(String amount) {
+        return AmountParser.parseDecimalCents(amount.toCharArray(), 0, amount.length());
+    }
+
+    private static String decimalRejection(String amount) {
+        return assertThrows(IllegalArgumentException.class, () -> decimal(amount)).getMessage();
+    }
+}
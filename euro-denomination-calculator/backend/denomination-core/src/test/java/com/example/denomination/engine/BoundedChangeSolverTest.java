@@ -0,0 +1,136 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedChangeSolverTest {
+
+    private final BoundedChangeSolver solver = new BoundedChangeSolver(
+            DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01));
+
+    private static int[] stock(int count) {
+        int[] available = new int[14];
+        Arrays.fill(available, count);
+        return available;
+    }
+
+    @Test
+    void testSolve_MatchesGreedyWithPlentifulStock() {
+        long[] counts = solver.solve(23423, stock(100));
+
+        assertArrayEquals(new long[]{1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 0, 1, 1}, counts);
+    }
+
+    @Test
+    void testSolve_WorksAroundEmptyDenominations() {
+        // 0.60 without any 0.10 coins: greedy would take 0.50 and get stuck
+        int[] available = new int[14];
+        available[8] = 1;
+        available[9] = 3;
+
+        long[] counts = solver.solve(60, available);
+
+        assertNotNull(counts);
+        assertEquals(0, counts[8]);
+        assertEquals(3, counts[9]);
+    }
+
+    @Test
+    void testSolve_UsesFewestPieces() {
+        // 60.00 from 50, 20 and 10 notes, with a single 10 available
+        int[] available = new int[14];
+        available[2] = 1;
+        available[3] = 3;
+        available[4] = 1;
+
+        long[] counts = solver.solve(6000, available);
+
+        assertEquals(1, counts[2]);
+        assertEquals(0, counts[3]);
+        assertEquals(1, counts[4]);
+    }
+
+    @Test
+    void testSolve_ReturnsNullWhenStockCannotMakeAmount() {
+        int[] available = new int[14];
+        available[0] = 5;
+        available[12] = 10;
+
+        assertNull(solver.solve(3, available));
+        assertNull(solver.solve(100_001, available));
+        assertNull(solver.solve(200_000, available));
+    }
+
+    @Test
+    void testSolve_RejectsAmountBelowTheSmallestUnit() {
+        BoundedChangeSolver franc = new BoundedChangeSolver(
+                DenominationSet.of(1000, 200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05));
+        int[] available = new int[13];
+        Arrays.fill(available, 10);
+
+        assertNotNull(franc.solve(23425, available));
+        assertThrows(IllegalArgumentException.class, () -> franc.solve(23423, available));
+    }
+
+    @Test
+    void testSolve_LargeAmountWithLimitedNotes() {
+        int[] available = stock(3);
+        available[0] = 10;
+
+        long[] counts = solver.solve(250_000, available);
+
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            assertTrue(counts[i] <= available[i]);
+            total += counts[i] * DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01)
+                    .cents(i);
+        }
+        assertEquals(250_000, total);
+        assertEquals(10, counts[0]);
+        assertEquals(3, counts[1]);
+    }
+
+    @Test
+    void testSolve_ReturnsNullForStockThatCannotMakeTheCents() {
+        // Whatever notes are taken, 0.63 is left for the coins, and 0.05 with three 0.02 cannot end in 3
+        int[] available = stock(100);
+        available[12] = 3;
+        available[13] = 0;
+
+        assertNull(solver.solve(473_063, available));
+        assertNotNull(solver.solve(473_061, available));
+    }
+
+    @Test
+    void testSolve_AcceptsTheBestBreakdownFoundWithinTheBudget() {
+        // 0.60 from one 0.50, three 0.20 and five 0.02: the search finds 0.50 + 5 x 0.02 before 3 x 0.20
+        int[] available = new int[14];
+        available[8] = 1;
+        available[9] = 3;
+        available[12] = 5;
+        BoundedChangeSolver hurried = new BoundedChangeSolver(
+                DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01), 1);
+
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 5, 0}, hurried.solve(60, available));
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 3, 0, 0, 0, 0}, solver.solve(60, available));
+        // Past the budget the search still goes on until it has a breakdown
+        available[12] = 4;
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 3, 0, 0, 4, 0}, hurried.solve(68, available));
+    }
+
+    @Test
+    void testSolve_RejectsAmountTooLargeForTheSearch() {
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(Long.MAX_VALUE / 10, stock(100)));
+    }
+
+    @Test
+    void testSolve_RejectsInvalidStock() {
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(100, new int[3]));
+        int[] negative = new int[14];
+        negative[0] = -1;
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(100, negative));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalCheckTest {
+
+    @Test
+    void testEuroIsCanonical() {
+        CanonicalCheck check = CanonicalCheck.run(
+                DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01), 2_000_000);
+
+        assertTrue(check.canonical());
+        assertEquals(-1, check.counterexampleCents());
+    }
+
+    @Test
+    void testFindsSmallestCounterexample() {
+        // 6 is 4 + 1 + 1 greedily but 3 + 3 at best
+        CanonicalCheck check = CanonicalCheck.run(DenominationSet.of(4, 3, 1), 2_000_000);
+
+        assertFalse(check.canonical());
+        assertEquals(600, check.counterexampleCents());
+        assertEquals("not canonical: greedy needs 3 pieces for 6.00, the fewest is 2", check.toString());
+    }
+
+    @Test
+    void testSetWithoutUnitPieceIsNotCanonical() {
+        assertFalse(CanonicalCheck.run(DenominationSet.of(5, 3), 2_000_000).canonical());
+    }
+
+    @Test
+    void testGivesUpPastSearchLimit() {
+        CanonicalCheck check = CanonicalCheck.run(DenominationSet.of(200, 100, 1), 1000);
+
+        assertFalse(check.canonical());
+        assertTrue(check.toString().startsWith("not verified"));
+    }
+
+    @Test
+    void testUnit() {
+        assertEquals(100, CanonicalCheck.unit(DenominationSet.of(4, 3, 1)));
+        assertEquals(5, CanonicalCheck.unit(DenominationSet.of(1, 0.5, 0.05)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashRoundingEngineTest {
+
+    private final DenominationEngine engine = DenominationEngine.cashRounding(DenominationEngine.compile(
+            DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05), EngineSettings.DEFAULTS));
+
+    @Test
+    void testRoundsToTheNearestFiveCents() {
+        assertEquals(23425, engine.round(23423));
+        assertEquals(0, engine.round(2));
+        assertEquals(5, engine.round(3));
+        assertEquals(5, engine.round(7));
+        assertEquals(10, engine.round(8));
+        assertEquals(4535, engine.round(4535));
+    }
+
+    @Test
+    void testBreaksDownTheRoundedAmount() {
+        assertArrayEquals(new long[]{1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 1}, engine.breakdown(23423));
+        assertArrayEquals(new long[12], engine.breakdown(2));
+        assertTrue(engine.toString().endsWith("with cash rounding to 0.05"));
+    }
+
+    @Test
+    void testRejectsAmountsItCannotRound() {
+        assertThrows(IllegalArgumentException.class, () -> engine.round(-3));
+        assertEquals(Long.MAX_VALUE - 2, engine.round(Long.MAX_VALUE));
+
+        // The largest amounts have no multiple of 0.10 to round up to
+        DenominationEngine tens = DenominationEngine.cashRounding(
+                DenominationEngine.compile(DenominationSet.of(1, 0.1), EngineSettings.DEFAULTS));
+        assertEquals(Long.MAX_VALUE - 7, tens.round(Long.MAX_VALUE - 3));
+        assertThrows(IllegalArgumentException.class, () -> tens.round(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testEnginesWithoutRoundingKeepTheAmount() {
+        DenominationEngine euro = DenominationEngine.compile(
+                DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01), EngineSettings.DEFAULTS);
+
+        assertEquals(23423, euro.round(23423));
+    }
+}
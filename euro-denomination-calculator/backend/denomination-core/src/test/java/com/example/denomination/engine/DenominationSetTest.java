@@ -0,0 +1,90 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenominationSetTest {
+
+    @Test
+    void testFormatKey() {
+        assertEquals("50.00", DenominationSet.formatKey(50.0));
+        assertEquals("0.05", DenominationSet.formatKey(0.05));
+    }
+
+    @Test
+    void testCompileSortsHighestFirst() {
+        DenominationSet set = DenominationSet.of(0.5, 2, 1);
+
+        assertEquals(3, set.size());
+        assertEquals(200, set.cents(0));
+        assertEquals(50, set.cents(2));
+        assertEquals("2.00", set.key(0));
+        assertEquals(1, set.indexOf("1.00"));
+        assertEquals(-1, set.indexOf("3.00"));
+    }
+
+    @Test
+    void testCompileRejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> DenominationSet.of());
+        assertThrows(IllegalArgumentException.class, () -> DenominationSet.of(1, 0.001));
+        assertThrows(IllegalArgumentException.class, () -> DenominationSet.of(1, 1.0));
+    }
+
+    @Test
+    void testKeysAreShared() {
+        DenominationSet set = DenominationSet.of(2, 1);
+        Map<String, Long> first = set.breakdownView(new long[]{1, 1});
+        Map<String, Long> second = set.breakdownView(new long[]{1, 0});
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test
+    void testBreakdownViewSkipsUnusedDenominations() {
+        DenominationSet set = DenominationSet.of(2, 1, 0.5);
+        Map<String, Long> view = set.breakdownView(new long[]{3, 0, 1});
+
+        assertEquals(Map.of("2.00", 3L, "0.50", 1L), view);
+        assertEquals(2, view.size());
+        assertNull(view.get("1.00"));
+        assertFalse(view.containsKey("1.00"));
+        assertThrows(UnsupportedOperationException.class, () -> view.put("1.00", 1L));
+    }
+
+    @Test
+    void testChangesViewKeepsDenominationsUsedByEitherSide() {
+        DenominationSet set = DenominationSet.of(2, 1, 0.5);
+        Map<String, Long> view = set.changesView(new long[]{1, 0, 0}, new long[]{1, 1, 0});
+
+        assertEquals(Map.of("2.00", 0L, "1.00", -1L), view);
+        assertTrue(view.containsKey("2.00"));
+        assertFalse(view.containsKey("0.50"));
+    }
+
+    @Test
+    void testIdDependsOnlyOnTheValues() {
+        assertEquals(DenominationSet.of(2, 1, 0.5).id(), DenominationSet.of(0.5, 1, 2).id());
+        assertNotEquals(DenominationSet.of(2, 1, 0.5).id(), DenominationSet.of(2, 1, 0.2).id());
+    }
+
+    @Test
+    void testStockKeyedLikeTheBreakdown() {
+        DenominationSet set = DenominationSet.of(2, 1, 0.5);
+
+        assertArrayEquals(new int[]{0, 3, 1}, set.stock(Map.of("1.00", 3, "0.50", 1)));
+        assertEquals("Unknown denomination: 5.00",
+                assertThrows(IllegalArgumentException.class, () -> set.stock(Map.of("5.00", 1))).getMessage());
+        assertEquals("Available count must not be negative: 2.00",
+                assertThrows(IllegalArgumentException.class, () -> set.stock(Map.of("2.00", -1))).getMessage());
+    }
+
+    @Test
+    void testListingWithCurrencySymbol() {
+        assertEquals(List.of("2.00€", "0.50€"), DenominationSet.of(2, 0.5).listing("EUR"));
+        assertEquals(List.of("1000.00 CHF"), DenominationSet.of(1000).listing("CHF"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreedyEngineTest {
+
+    private final DenominationEngine engine = new GreedyEngine(
+            DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01));
+
+    @Test
+    void testToCents() {
+        assertEquals(23423, DenominationEngine.toCents(234.23));
+        assertEquals(3, DenominationEngine.toCents(0.03));
+    }
+
+    @Test
+    void testBreakdown() {
+        long[] counts = engine.breakdown(23423);
+
+        assertArrayEquals(new long[]{1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 0, 1, 1}, counts);
+    }
+
+    @Test
+    void testBreakdownReusesCallerArray() {
+        long[] counts = new long[14];
+        engine.breakdown(23423, counts);
+        engine.breakdown(40000, counts);
+
+        assertEquals(2, counts[0]);
+        assertEquals(0, counts[3]);
+        assertEquals(0, counts[13]);
+    }
+
+    @Test
+    void testBreakdownRejectsNegativeAmount() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> engine.breakdown(-5));
+        assertEquals("Amount must not be negative: -0.05", e.getMessage());
+    }
+
+    @Test
+    void testBreakdownRejectsAmountBelowTheSmallestUnit() {
+        GreedyEngine franc = new GreedyEngine(DenominationSet.of(1000, 200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05));
+
+        assertArrayEquals(new long[]{0, 1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 1}, franc.breakdown(23425));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> franc.breakdown(23423));
+        assertEquals("Amount 234.23 is not a multiple of 0.05, the smallest the denominations can make", e.getMessage());
+    }
+
+    @Test
+    void testCompileChoosesGreedyWhenLookupTableDoesNotFit() {
+        DenominationEngine compiled = DenominationEngine.compile(engine.set(), new EngineSettings(2_000_000, 1024));
+
+        assertInstanceOf(GreedyEngine.class, compiled);
+        assertTrue(compiled.toString().contains("canonical"));
+        assertEquals(0, compiled.memoryBytes());
+    }
+}
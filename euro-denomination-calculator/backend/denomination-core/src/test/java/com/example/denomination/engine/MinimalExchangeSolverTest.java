@@ -0,0 +1,165 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinimalExchangeSolverTest {
+
+    private static final DenominationSet EURO =
+            DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01);
+
+    private final DenominationEngine engine = DenominationEngine.compile(EURO, EngineSettings.DEFAULTS);
+    private final MinimalExchangeSolver solver = new MinimalExchangeSolver(engine, EngineSettings.DEFAULTS);
+
+    private static long moves(long[] from, long[] to) {
+        long moves = 0;
+        for (int i = 0; i < from.length; i++) {
+            moves += Math.abs(to[i] - from[i]);
+        }
+        return moves;
+    }
+
+    private static long total(DenominationSet set, long[] counts) {
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i] * set.cents(i);
+        }
+        return total;
+    }
+
+    @Test
+    void testSolve_MovesFewerPiecesThanTheDifference() {
+        long[] previous = engine.breakdown(4532);
+
+        long[] counts = solver.solve(previous, 23423);
+
+        assertEquals(23423, total(EURO, counts));
+        assertEquals(8, moves(previous, engine.breakdown(23423)));
+        // In go 200.00, 5.00, 2 x 2.00 and 0.01, out go one 20.00 note and the 0.10 coin
+        assertEquals(7, moves(previous, counts));
+        assertEquals(1, counts[3]);
+        assertEquals(2, counts[5]);
+        assertEquals(0, counts[10]);
+    }
+
+    @Test
+    void testSolve_TakesOutAndGivesBack() {
+        // 10.01 to 20.00 is another 10.00 note in and the cent out, instead of swapping the note for a 20.00
+        long[] previous = engine.breakdown(1001);
+
+        long[] counts = solver.solve(previous, 2000);
+
+        assertEquals(3, moves(previous, engine.breakdown(2000)));
+        assertEquals(2, moves(previous, counts));
+        assertEquals(2, counts[4]);
+        assertEquals(0, counts[13]);
+    }
+
+    @Test
+    void testSolve_NeverTakesOutMoreThanTheDrawerHolds() {
+        long[] previous = new long[14];
+        previous[4] = 1;
+
+        // Without a cent to take out, 19.99 has to be made by adding pieces only
+        long[] counts = solver.solve(previous, 1999);
+
+        assertEquals(1999, total(EURO, counts));
+        for (long count : counts) {
+            assertTrue(count >= 0);
+        }
+        assertArrayEquals(engine.breakdown(1999), counts);
+    }
+
+    @Test
+    void testSolve_KeepsTheBreakdownOnTies() {
+        long[] previous = engine.breakdown(500);
+
+        assertArrayEquals(engine.breakdown(700), solver.solve(previous, 700));
+        assertArrayEquals(previous, solver.solve(previous, 500));
+    }
+
+    @Test
+    void testSolve_LargeAmounts() {
+        long[] previous = engine.breakdown(1_000_000_001_001L);
+
+        long[] counts = solver.solve(previous, 1_000_000_002_000L);
+
+        assertEquals(2, moves(previous, counts));
+        assertEquals(50_000_000, counts[0]);
+        assertEquals(2, counts[4]);
+    }
+
+    @Test
+    void testSolve_MatchesExhaustiveSearch() {
+        assertMatchesExhaustiveSearch(DenominationSet.of(0.1, 0.05, 0.02, 0.01));
+        // Greedy is not optimal for this set, so the breakdown comes from the optimal engine
+        assertMatchesExhaustiveSearch(DenominationSet.of(0.04, 0.03, 0.01));
+        assertMatchesExhaustiveSearch(DenominationSet.of(0.25, 0.1, 0.05));
+    }
+
+    private static void assertMatchesExhaustiveSearch(DenominationSet set) {
+        DenominationEngine engine = DenominationEngine.compile(set, EngineSettings.DEFAULTS);
+        MinimalExchangeSolver solver = new MinimalExchangeSolver(engine, EngineSettings.DEFAULTS);
+        SplittableRandom random = new SplittableRandom(42);
+        long step = set.cents(set.size() - 1);
+        for (int run = 0; run < 300; run++) {
+            long[] previous = new long[set.size()];
+            for (int i = 0; i < previous.length; i++) {
+                previous[i] = random.nextInt(4);
+            }
+            long amount = step * random.nextInt(1, 40);
+
+            long[] counts = solver.solve(previous, amount);
+
+            assertEquals(amount, total(set, counts), set + " from " + total(set, previous) + " to " + amount);
+            for (long count : counts) {
+                assertTrue(count >= 0);
+            }
+            assertEquals(fewestMoves(set, previous, amount, new long[set.size()], 0), moves(previous, counts),
+                    set + " from " + total(set, previous) + " to " + amount);
+        }
+    }
+
+    //Every new count from 0 to 60, fine for the small sets and amounts of the exhaustive test
+    private static long fewestMoves(DenominationSet set, long[] previous, long amount, long[] counts, int index) {
+        if (index == counts.length) {
+            return total(set, counts) == amount ? moves(previous, counts) : Long.MAX_VALUE;
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int count = 0; count <= 60 && count * set.cents(index) <= amount; count++) {
+            counts[index] = count;
+            fewest = Math.min(fewest, fewestMoves(set, previous, amount, counts, index + 1));
+        }
+        counts[index] = 0;
+        return fewest;
+    }
+
+    @Test
+    void testSolve_WithoutTablesStillMinimal() {
+        MinimalExchangeSolver untabled = new MinimalExchangeSolver(engine, new EngineSettings(2_000_000, 0));
+        long[] previous = engine.breakdown(4532);
+
+        assertEquals(0, untabled.memoryBytes());
+        assertEquals(7, moves(previous, untabled.solve(previous, 23423)));
+    }
+
+    @Test
+    void testSolve_RejectsInvalidPreviousCounts() {
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(new long[3], 100));
+        long[] negative = new long[14];
+        negative[0] = -1;
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(negative, 100));
+    }
+
+    @Test
+    void testSolve_RejectsAmountBelowTheSmallestUnit() {
+        DenominationSet franc = DenominationSet.of(1000, 200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05);
+        DenominationEngine francEngine = DenominationEngine.compile(franc, EngineSettings.DEFAULTS);
+        MinimalExchangeSolver francSolver = new MinimalExchangeSolver(francEngine, EngineSettings.DEFAULTS);
+
+        assertThrows(IllegalArgumentException.class, () -> francSolver.solve(francEngine.breakdown(4530), 23423));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimalEngineTest {
+
+    private static OptimalEngine engine(long tableLimitCents, double... values) {
+        DenominationSet set = DenominationSet.of(values);
+        return new OptimalEngine(set, CanonicalCheck.run(set, tableLimitCents), tableLimitCents);
+    }
+
+    @Test
+    void testCompileChoosesOptimalForNonCanonicalSet() {
+        assertInstanceOf(OptimalEngine.class, DenominationEngine.compile(DenominationSet.of(4, 3, 1), EngineSettings.DEFAULTS));
+    }
+
+    @Test
+    void testBreakdownUsesFewestPieces() {
+        OptimalEngine engine = engine(2_000_000, 4, 3, 1);
+
+        assertArrayEquals(new long[]{0, 2, 0}, engine.breakdown(600));
+        assertArrayEquals(new long[]{1, 0, 0}, engine.breakdown(400));
+        assertArrayEquals(new long[]{0, 0, 0}, engine.breakdown(0));
+    }
+
+    @Test
+    void testBreakdownMatchesExhaustiveSearchPastTheTable() {
+        OptimalEngine engine = engine(2_000_000, 4, 3, 1);
+        assertTrue(engine.exact());
+
+        for (long amount = 0; amount <= 200; amount++) {
+            long[] counts = engine.breakdown(amount * 100);
+            assertEquals(amount, 4L * counts[0] + 3L * counts[1] + counts[2]);
+            assertEquals(fewest(amount), counts[0] + counts[1] + counts[2], "amount " + amount);
+        }
+    }
+
+    //Fewest pieces of 4, 3 and 1 by trying every count of 4 and 3
+    private static long fewest(long amount) {
+        long best = Long.MAX_VALUE;
+        for (long fours = 0; fours * 4 <= amount; fours++) {
+            for (long threes = 0; fours * 4 + threes * 3 <= amount; threes++) {
+                best = Math.min(best, fours + threes + amount - fours * 4 - threes * 3);
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void testBreakdownWithoutUnitPiece() {
+        OptimalEngine engine = engine(2_000_000, 5, 3);
+
+        assertArrayEquals(new long[]{0, 2}, engine.breakdown(600));
+        assertArrayEquals(new long[]{2, 1}, engine.breakdown(1300));
+        assertThrows(IllegalArgumentException.class, () -> engine.breakdown(700));
+        assertThrows(IllegalArgumentException.class, () -> engine.breakdown(650));
+    }
+
+    @Test
+    void testBreakdownRejectsNegativeAmount() {
+        OptimalEngine engine = engine(2_000_000, 4, 3, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.breakdown(-100));
+    }
+
+    @Test
+    void testCappedTableIsNotExact() {
+        OptimalEngine engine = engine(500, 200, 150, 1);
+
+        assertFalse(engine.exact());
+        assertEquals(200, engine.tableSize());
+        assertEquals(1000, engine.memoryBytes());
+        assertTrue(engine.toString().contains("larger amounts may not be minimal"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.denomination.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResidueTableEngineTest {
+
+    private final DenominationSet euro =
+            DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01);
+
+    private ResidueTableEngine build(DenominationSet set, long maxBytes) {
+        return ResidueTableEngine.build(set, CanonicalCheck.run(set, 2_000_000), maxBytes);
+    }
+
+    @Test
+    void testCompileChoosesTableForEuro() {
+        DenominationEngine engine = DenominationEngine.compile(euro, EngineSettings.DEFAULTS);
+
+        assertInstanceOf(ResidueTableEngine.class, engine);
+        assertEquals(160_000, engine.memoryBytes());
+    }
+
+    @Test
+    void testBreakdownMatchesGreedy() {
+        ResidueTableEngine table = build(euro, 1_000_000);
+        GreedyEngine greedy = new GreedyEngine(euro);
+
+        for (long amount = 0; amount < 40_000; amount++) {
+            assertArrayEquals(greedy.breakdown(amount), table.breakdown(amount), "amount " + amount);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < 10_000; i++) {
+            long amount = random.nextLong(1_000_000_000L);
+            assertArrayEquals(greedy.breakdown(amount), table.breakdown(amount), "amount " + amount);
+        }
+    }
+
+    @Test
+    void testBreakdownExample() {
+        assertArrayEquals(new long[]{1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 0, 1, 1}, build(euro, 1_000_000).breakdown(23423));
+    }
+
+    @Test
+    void testBreakdownRejectsNegativeAmount() {
+        ResidueTableEngine table = build(euro, 1_000_000);
+
+        assertThrows(IllegalArgumentException.class, () -> table.breakdown(-1));
+        assertThrows(IllegalArgumentException.class, () -> table.breakdown(-40_001));
+    }
+
+    @Test
+    void testBreakdownRejectsAmountBelowTheSmallestUnit() {
+        ResidueTableEngine franc = build(DenominationSet.of(1000, 200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05),
+                1_000_000);
+
+        assertArrayEquals(new GreedyEngine(franc.set()).breakdown(23425), franc.breakdown(23425));
+        assertThrows(IllegalArgumentException.class, () -> franc.breakdown(23423));
+        assertThrows(IllegalArgumentException.class, () -> franc.breakdown(100_001));
+    }
+
+    @Test
+    void testBuildRespectsSizeCap() {
+        assertNull(build(euro, 100_000));
+    }
+
+    @Test
+    void testBuildGivesUpWhenCountsDoNotPack() {
+        // Up to 6,666 pieces of 0.03 below a 200 note still fit in 13 bits
+        assertNotNull(build(DenominationSet.of(200, 0.03, 0.02, 0.01), 1_000_000));
+
+        // Every cent value from 0.01 to 0.70 needs a bit of its own, 69 in total
+        double[] every = new double[70];
+        for (int i = 0; i < every.length; i++) {
+            every[i] = (i + 1) / 100.0;
+        }
+        assertNull(build(DenominationSet.of(every), 1_000_000));
+    }
+}
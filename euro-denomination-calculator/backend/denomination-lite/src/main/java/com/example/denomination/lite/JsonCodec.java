@@ -0,0 +1,335 @@
+package com.example.denomination.lite;
+
+import com.example.denomination.engine.AmountParser;
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Hand-written JSON for the calculate contract, so the lite server needs no JSON library.
+//
+//Requests are read field by field into a Request, with amounts taken straight into cents like the Spring
+//application's CentAmountDeserializer; unknown fields are skipped. Results are written in the same shape as the
+//Spring application's DenominationResult, listing used denominations highest first.
+final class JsonCodec {
+
+    //Fields of a calculate request, amounts in cents; changeMode MINIMAL_EXCHANGE sets minimalExchange
+    record Request(long amountCents, Long previousAmountCents, Map<String, Integer> available, String drawerId,
+                   String currency, boolean minimalExchange) {
+    }
+
+    private JsonCodec() {
+    }
+
+    static Request decodeRequest(byte[] body) {
+        Reader in = new Reader(new String(body, StandardCharsets.UTF_8).toCharArray());
+        Long amount = null;
+        Long previousAmount = null;
+        Map<String, Integer> available = null;
+        String drawerId = null;
+        String currency = null;
+        boolean minimalExchange = false;
+
+        in.expect('{');
+        if (!in.consume('}')) {
+            do {
+                String field = in.string();
+                in.expect(':');
+                switch (field) {
+                    case "amount" -> amount = in.amount();
+                    case "previousAmount" -> previousAmount = in.amount();
+                    case "available" -> available = in.counts();
+                    case "drawerId" -> drawerId = in.stringOrNull();
+                    case "currency" -> currency = in.stringOrNull();
+                    case "changeMode" -> minimalExchange = minimalExchange(in.stringOrNull());
+                    default -> in.skipValue();
+                }
+            } while (in.consume(','));
+            in.expect('}');
+        }
+        in.end();
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        return new Request(amount, previousAmount, available, drawerId, currency, minimalExchange);
+    }
+
+    //The Spring application's ChangeMode constants, DIFFERENCE when not given
+    private static boolean minimalExchange(String changeMode) {
+        if (changeMode == null || changeMode.equals("DIFFERENCE")) {
+            return false;
+        }
+        if (changeMode.equals("MINIMAL_EXCHANGE")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown changeMode: " + changeMode);
+    }
+
+    //{"amount":234.23,"breakdown":{"200.00":1,...},"changes":null}, with changes when previous counts are given
+    static byte[] encodeResult(long amountCents, DenominationSet set, long[] breakdown, long[] previous) {
+        StringBuilder out = new StringBuilder(64 + 16 * set.size());
+        out.append("{\"amount\":").append(DenominationEngine.formatCents(amountCents)).append(",\"breakdown\":{");
+        boolean first = true;
+        for (int i = 0; i < breakdown.length; i++) {
+            if (breakdown[i] > 0) {
+                first = entry(out, first, set.key(i), breakdown[i]);
+            }
+        }
+        out.append("},\"changes\":");
+        if (previous == null) {
+            out.append("null");
+        } else {
+            // Like the breakdown, a change list keeps the denominations only the previous amount used
+            out.append('{');
+            first = true;
+            for (int i = 0; i < breakdown.length; i++) {
+                if (breakdown[i] > 0 || previous[i] > 0) {
+                    first = entry(out, first, set.key(i), breakdown[i] - previous[i]);
+                }
+            }
+            out.append('}');
+        }
+        out.append('}');
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] encodeStrings(List<String> values) {
+        StringBuilder out = new StringBuilder().append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            string(out, values.get(i));
+        }
+        return out.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean entry(StringBuilder out, boolean first, String key, long count) {
+        if (!first) {
+            out.append(',');
+        }
+        // Denomination keys are digits and a decimal point, nothing to escape
+        out.append('"').append(key).append("\":").append(count);
+        return false;
+    }
+
+    private static void string(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+
+    //Cursor over the characters of one JSON document, failing with IllegalArgumentException on malformed input
+    private static final class Reader {
+
+        private final char[] text;
+        private int position;
+
+        Reader(char[] text) {
+            this.text = text;
+        }
+
+        //Amount from a number or a string holding one, null for null
+        Long amount() {
+            skipWhitespace();
+            if (literal("null")) {
+                return null;
+            }
+            if (peek() == '"') {
+                String value = string();
+                return AmountParser.parseDecimalCents(value.toCharArray(), 0, value.length());
+            }
+            int start = position;
+            skipNumber();
+            return AmountParser.parseDecimalCents(text, start, position - start);
+        }
+
+        //Object of whole counts by denomination key, null for null
+        Map<String, Integer> counts() {
+            skipWhitespace();
+            if (literal("null")) {
+                return null;
+            }
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            expect('{');
+            if (consume('}')) {
+                return counts;
+            }
+            do {
+                String key = string();
+                expect(':');
+                counts.put(key, count(key));
+            } while (consume(','));
+            expect('}');
+            return counts;
+        }
+
+        private Integer count(String key) {
+            skipWhitespace();
+            if (literal("null")) {
+                return null;
+            }
+            int start = position;
+            skipNumber();
+            try {
+                return Integer.valueOf(new String(text, start, position - start));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Available count must be a whole number: " + key);
+            }
+        }
+
+        String stringOrNull() {
+            skipWhitespace();
+            return literal("null") ? null : string();
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\') {
+                    char escaped = next();
+                    switch (escaped) {
+                        case '"', '\\', '/' -> value.append(escaped);
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'n' -> value.append('\n');
+                        case 'r' -> value.append('\r');
+                        case 't' -> value.append('\t');
+                        case 'u' -> value.append(unicode());
+                        default -> throw new IllegalArgumentException("Invalid escape \\" + escaped);
+                    }
+                } else if (c < 0x20) {
+                    throw new IllegalArgumentException("Unescaped control character in string");
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+
+        private char unicode() {
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(next(), 16);
+                if (digit < 0) {
+                    throw new IllegalArgumentException("Invalid unicode escape");
+                }
+                code = code * 16 + digit;
+            }
+            return (char) code;
+        }
+
+        //Skip a value of a field the request does not use
+        void skipValue() {
+            skipWhitespace();
+            char c = peek();
+            if (c == '"') {
+                string();
+            } else if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                position++;
+                if (consume(close)) {
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        string();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (consume(','));
+                expect(close);
+            } else if (!literal("true") && !literal("false") && !literal("null")) {
+                int start = position;
+                skipNumber();
+                if (position == start) {
+                    throw new IllegalArgumentException("Unexpected character '" + c + "'");
+                }
+            }
+        }
+
+        //Characters that can make up a number; whether they do is left to the number parser
+        private void skipNumber() {
+            while (position < text.length && isNumberChar(text[position])) {
+                position++;
+            }
+        }
+
+        private static boolean isNumberChar(char c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+
+        private boolean literal(String word) {
+            if (position + word.length() > text.length) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (text[position + i] != word.charAt(i)) {
+                    return false;
+                }
+            }
+            position += word.length();
+            return true;
+        }
+
+        void expect(char c) {
+            skipWhitespace();
+            char found = next();
+            if (found != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' but found '" + found + "'");
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length && text[position] == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            skipWhitespace();
+            if (position != text.length) {
+                throw new IllegalArgumentException("Unexpected content after the request object");
+            }
+        }
+
+        private char peek() {
+            if (position >= text.length) {
+                throw new IllegalArgumentException("Unexpected end of input");
+            }
+            return text[position];
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length && (text[position] == ' ' || text[position] == '\t'
+                    || text[position] == '\n' || text[position] == '\r')) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.denomination.lite;
+
+//Entry point of the lite server, for sidecars that need the calculate contract without the Spring stack
+public final class LiteApplication {
+
+    private static final System.Logger logger = System.getLogger(LiteApplication.class.getName());
+
+    private LiteApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long start = System.nanoTime();
+        LiteServer server = new LiteServer(LiteSettings.fromEnvironment());
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        logger.log(System.Logger.Level.INFO, "Started in {0,number,#} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
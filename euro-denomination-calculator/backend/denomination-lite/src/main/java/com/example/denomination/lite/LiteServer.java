@@ -0,0 +1,222 @@
+package com.example.denomination.lite;
+
+import com.example.denomination.engine.BoundedChangeSolver;
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.MinimalExchangeSolver;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Serves /api/calculate, /api/denominations and /api/health on the JDK's built-in HttpServer.
+//
+//Answers like the Spring application's DenominationController for these endpoints, calculating with the same core
+//engines, but without drawers, stored state, metrics or the binary wire format. Each currency's engine is compiled
+//and its listing encoded once at startup.
+public final class LiteServer implements AutoCloseable {
+
+    private static final System.Logger logger = System.getLogger(LiteServer.class.getName());
+
+    static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String JSON = "application/json";
+    private static final String TEXT = "text/plain;charset=UTF-8";
+    private static final byte[] HEALTH = "Backend is running".getBytes(StandardCharsets.UTF_8);
+
+    //A configured currency with its engine, solvers and denominations as listed by the API
+    private record Currency(String code, DenominationEngine engine, BoundedChangeSolver solver,
+                            MinimalExchangeSolver exchangeSolver, byte[] listing) {
+    }
+
+    private final Map<String, Currency> currencies = new LinkedHashMap<>();
+    private final Currency defaultCurrency;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public LiteServer(LiteSettings settings) throws IOException {
+        for (Map.Entry<String, double[]> entry : settings.currencies().entrySet()) {
+            DenominationEngine engine = DenominationEngine.compile(DenominationSet.of(entry.getValue()),
+                    settings.engineSettings());
+            currencies.put(entry.getKey(), new Currency(entry.getKey(), engine, new BoundedChangeSolver(engine.set()),
+                    new MinimalExchangeSolver(engine, settings.engineSettings()),
+                    JsonCodec.encodeStrings(engine.set().listing(entry.getKey()))));
+        }
+        this.defaultCurrency = currencies.get(settings.defaultCurrency());
+
+        this.executor = settings.threads() > 0
+                ? Executors.newFixedThreadPool(settings.threads())
+                : Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(settings.port()), 0);
+        server.setExecutor(executor);
+        server.createContext("/api/calculate", handler(this::calculate));
+        server.createContext("/api/denominations", handler(this::denominations));
+        server.createContext("/api/health", handler(this::health));
+    }
+
+    public void start() {
+        server.start();
+        logger.log(System.Logger.Level.INFO, "Serving currencies {0}, default {1}, on port {2,number,#}",
+                currencies.keySet(), defaultCurrency.code(), port());
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface Endpoint {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    //Contexts match by path prefix, so anything below an endpoint's own path is not found
+    private static HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            try (exchange) {
+                endpoint.handle(exchange);
+            } catch (RuntimeException e) {
+                logger.log(System.Logger.Level.ERROR, "Unexpected error serving " + exchange.getRequestURI(), e);
+                send(exchange, 500, TEXT, ("Error calculating denominations: " + e.getMessage())
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    private void calculate(HttpExchange exchange) throws IOException {
+        if (!exactPath(exchange, "/api/calculate") || !method(exchange, "POST")) {
+            return;
+        }
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith(JSON)) {
+            send(exchange, 415, TEXT, text("Content-Type must be " + JSON));
+            return;
+        }
+        byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            send(exchange, 413, TEXT, text("Request body must not exceed " + MAX_BODY_BYTES + " bytes"));
+            return;
+        }
+
+        JsonCodec.Request request;
+        try {
+            request = JsonCodec.decodeRequest(body);
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, TEXT, text("Malformed request: " + e.getMessage()));
+            return;
+        }
+        Currency currency = request.currency() == null ? defaultCurrency : currencies.get(request.currency());
+        if (currency == null) {
+            send(exchange, 400, TEXT, text("Unknown currency: " + request.currency()));
+            return;
+        }
+        if (request.amountCents() <= 0) {
+            send(exchange, 400, TEXT, text("Amount must be positive"));
+            return;
+        }
+        if (request.previousAmountCents() != null && request.previousAmountCents() < 0) {
+            send(exchange, 400, TEXT, text("Previous amount must not be negative"));
+            return;
+        }
+        if (request.drawerId() != null) {
+            send(exchange, 400, TEXT, text("drawerId is not supported by the lite server"));
+            return;
+        }
+
+        DenominationEngine engine = currency.engine();
+        if (request.minimalExchange() && (request.available() != null || request.previousAmountCents() == null)) {
+            send(exchange, 400, TEXT, text(request.available() != null
+                    ? "changeMode MINIMAL_EXCHANGE cannot be combined with available"
+                    : "changeMode MINIMAL_EXCHANGE needs a previousAmount"));
+            return;
+        }
+        long[] breakdown;
+        long[] previous;
+        try {
+            // Amounts the set cannot make exactly, such as 234.23 in francs, are rejected by the engines
+            previous = request.previousAmountCents() != null ? engine.breakdown(request.previousAmountCents()) : null;
+            breakdown = request.minimalExchange()
+                    ? currency.exchangeSolver().solve(previous, request.amountCents())
+                    : request.available() == null
+                    ? engine.breakdown(request.amountCents())
+                    : currency.solver().solve(request.amountCents(), engine.set().stock(request.available()));
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, TEXT, text(e.getMessage()));
+            return;
+        }
+        if (breakdown == null) {
+            send(exchange, 422, TEXT, text("Cannot make change for "
+                    + DenominationEngine.formatCents(request.amountCents()) + " with the available stock"));
+            return;
+        }
+        send(exchange, 200, JSON, JsonCodec.encodeResult(request.amountCents(), engine.set(), breakdown, previous));
+    }
+
+    //Denominations of the default currency at /api/denominations, of any other at /api/denominations/{currency}
+    private void denominations(HttpExchange exchange) throws IOException {
+        if (!method(exchange, "GET")) {
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        Currency currency = path.equals("/api/denominations") ? defaultCurrency
+                : path.startsWith("/api/denominations/")
+                ? currencies.get(path.substring("/api/denominations/".length()))
+                : null;
+        if (currency == null) {
+            send(exchange, 404, TEXT, new byte[0]);
+            return;
+        }
+        send(exchange, 200, JSON, currency.listing());
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        if (exactPath(exchange, "/api/health") && method(exchange, "GET")) {
+            send(exchange, 200, TEXT, HEALTH);
+        }
+    }
+
+    private static boolean exactPath(HttpExchange exchange, String path) throws IOException {
+        if (exchange.getRequestURI().getPath().equals(path)) {
+            return true;
+        }
+        send(exchange, 404, TEXT, new byte[0]);
+        return false;
+    }
+
+    private static boolean method(HttpExchange exchange, String method) throws IOException {
+        if (exchange.getRequestMethod().equals(method)) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", method);
+        send(exchange, 405, TEXT, new byte[0]);
+        return false;
+    }
+
+    private static byte[] text(String message) {
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        if (body.length > 0) {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+        }
+        exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.denomination.lite;
+
+import com.example.denomination.engine.EngineSettings;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+//Settings of the lite server, read from system properties or environment variables under the names the Spring
+//application uses, for example -Ddenomination.values=... or DENOMINATION_VALUES=..., with the same defaults
+record LiteSettings(
+        int port,
+        //Fixed worker threads, 0 for a virtual thread per request
+        int threads,
+        String defaultCurrency,
+        //Denomination values by ISO code, the default currency first
+        Map<String, double[]> currencies,
+        EngineSettings engineSettings
+) {
+    static final String CURRENCIES_PREFIX = "denomination.currencies.";
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "server.port", "8080",
+            "denomination.lite.threads", "0",
+            "denomination.currency", "EUR",
+            "denomination.values", "200,100,50,20,10,5,2,1,0.5,0.2,0.1,0.05,0.02,0.01",
+            "denomination.optimal.table-limit", String.valueOf(EngineSettings.DEFAULTS.optimalTableLimitCents()),
+            "denomination.lookup.max-bytes", String.valueOf(EngineSettings.DEFAULTS.lookupTableMaxBytes()));
+    //Further currencies of the Spring application's configuration, in its order
+    private static final List<Map.Entry<String, String>> DEFAULT_CURRENCIES = List.of(
+            Map.entry("CHF", "1000,200,100,50,20,10,5,2,1,0.5,0.2,0.1,0.05"),
+            Map.entry("GBP", "50,20,10,5,2,1,0.5,0.2,0.1,0.05,0.02,0.01"));
+
+    static LiteSettings fromEnvironment() {
+        Map<String, String> properties = new LinkedHashMap<>();
+        System.getProperties().forEach((key, value) -> properties.put(key.toString(), value.toString()));
+        return load(properties, System.getenv());
+    }
+
+    //A system property wins over the environment variable of the same setting, which wins over the default
+    static LiteSettings load(Map<String, String> properties, Map<String, String> environment) {
+        Map<String, String> currencyValues = new LinkedHashMap<>();
+        DEFAULT_CURRENCIES.forEach(currency -> currencyValues.put(currency.getKey(), currency.getValue()));
+        String envPrefix = environmentName(CURRENCIES_PREFIX);
+        environment.forEach((name, value) -> {
+            if (name.startsWith(envPrefix)) {
+                currencyValues.put(name.substring(envPrefix.length()).toUpperCase(Locale.ROOT), value);
+            }
+        });
+        properties.forEach((name, value) -> {
+            if (name.startsWith(CURRENCIES_PREFIX)) {
+                currencyValues.put(name.substring(CURRENCIES_PREFIX.length()).toUpperCase(Locale.ROOT), value);
+            }
+        });
+
+        String defaultCurrency = get("denomination.currency", properties, environment);
+        Map<String, double[]> currencies = new LinkedHashMap<>();
+        currencies.put(defaultCurrency, values("denomination.values",
+                get("denomination.values", properties, environment)));
+        currencyValues.forEach((code, values) ->
+                currencies.putIfAbsent(code, values(CURRENCIES_PREFIX + code, values)));
+
+        return new LiteSettings(
+                (int) number("server.port", properties, environment),
+                (int) number("denomination.lite.threads", properties, environment),
+                defaultCurrency,
+                currencies,
+                new EngineSettings(number("denomination.optimal.table-limit", properties, environment),
+                        number("denomination.lookup.max-bytes", properties, environment)));
+    }
+
+    private static String get(String name, Map<String, String> properties, Map<String, String> environment) {
+        String value = properties.get(name);
+        if (value == null) {
+            value = environment.get(environmentName(name));
+        }
+        return value != null ? value.trim() : DEFAULTS.get(name);
+    }
+
+    private static long number(String name, Map<String, String> properties, Map<String, String> environment) {
+        String value = get(name, properties, environment);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private static double[] values(String name, String list) {
+        String[] parts = list.split(",");
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                values[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " has a value that is not a number: " + parts[i]);
+            }
+        }
+        return values;
+    }
+
+    //Environment variable of a property, as Spring's relaxed binding reads it: server.port is SERVER_PORT
+    static String environmentName(String property) {
+        return property.replace('.', '_').replace("-", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.denomination.lite;
+
+import com.example.denomination.engine.DenominationSet;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCodecTest {
+
+    private static JsonCodec.Request decode(String json) {
+        return JsonCodec.decodeRequest(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String rejection(String json) {
+        return assertThrows(IllegalArgumentException.class, () -> decode(json)).getMessage();
+    }
+
+    @Test
+    void testDecodesEveryField() {
+        JsonCodec.Request request = decode(" {\"amount\": 234.23, \"previousAmount\": \"45.32\","
+                + " \"available\": {\"2.00\": 3, \"0.50\": null}, \"drawerId\": \"till-\\u0031\\n\", \"currency\": \"CHF\","
+                + " \"changeMode\": \"MINIMAL_EXCHANGE\"} ");
+
+        Map<String, Integer> available = new LinkedHashMap<>();
+        available.put("2.00", 3);
+        available.put("0.50", null);
+        assertEquals(new JsonCodec.Request(23423, 4532L, available, "till-1\n", "CHF", true), request);
+    }
+
+    @Test
+    void testDecodesNullsAndSkipsUnknownFields() {
+        assertEquals(new JsonCodec.Request(100_000, null, null, null, null, false),
+                decode("{\"note\":{\"a\":[1,true,false,null,\"x\\\"]\",{}],\"b\":-1.5e3},\"amount\":1e3,"
+                        + "\"previousAmount\":null,\"available\":null,\"drawerId\":null,\"currency\":null,"
+                        + "\"changeMode\":\"DIFFERENCE\"}"));
+    }
+
+    @Test
+    void testRejectsMalformedRequests() {
+        assertEquals("Amount is required", rejection("{}"));
+        assertEquals("Amount is required", rejection("{\"amount\":null}"));
+        assertEquals("Amount must have at most two decimal places", rejection("{\"amount\":1.005}"));
+        assertEquals("Amount is not a number", rejection("{\"amount\":true}"));
+        assertEquals("Amount is not a number", rejection("{\"amount\":\"ten\"}"));
+        assertEquals("Unexpected end of input", rejection("{\"amount\":"));
+        assertEquals("Expected '{' but found '['", rejection("[]"));
+        assertEquals("Unexpected content after the request object", rejection("{\"amount\":1} {}"));
+        assertEquals("Available count must be a whole number: 2.00",
+                rejection("{\"amount\":1,\"available\":{\"2.00\":1.5}}"));
+        assertEquals("Invalid escape \\x", rejection("{\"amount\":1,\"currency\":\"\\x\"}"));
+        assertEquals("Unknown changeMode: minimal", rejection("{\"amount\":1,\"changeMode\":\"minimal\"}"));
+    }
+
+    @Test
+    void testEncodesResultLikeTheSpringApplication() {
+        DenominationSet set = DenominationSet.of(2, 1, 0.5);
+
+        assertEquals("{\"amount\":5.50,\"breakdown\":{\"2.00\":2,\"1.00\":1,\"0.50\":1},\"changes\":null}",
+                new String(JsonCodec.encodeResult(550, set, new long[]{2, 1, 1}, null), StandardCharsets.UTF_8));
+        assertEquals("{\"amount\":4.00,\"breakdown\":{\"2.00\":2},\"changes\":{\"2.00\":1,\"0.50\":-1}}",
+                new String(JsonCodec.encodeResult(400, set, new long[]{2, 0, 0}, new long[]{1, 0, 1}),
+                        StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testEncodesStrings() {
+        assertEquals("[\"200.00€\",\"a\\\"b\\\\\",\"\\u0001\"]",
+                new String(JsonCodec.encodeStrings(List.of("200.00€", "a\"b\\", "\u0001")), StandardCharsets.UTF_8));
+        assertEquals("[]", new String(JsonCodec.encodeStrings(List.of()), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.denomination.lite;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteServerTest {
+
+    private LiteServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Port 0 picks a free port, two worker threads cover the fixed executor
+        server = new LiteServer(LiteSettings.load(
+                Map.of("server.port", "0", "denomination.lite.threads", "2"), Map.of()));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String path, String contentType, String body) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path))
+                        .header("Content-Type", contentType)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> calculate(String body) throws Exception {
+        return post("/api/calculate", "application/json", body);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+
+    @Test
+    void testCalculate() throws Exception {
+        HttpResponse<String> response = calculate("{\"amount\":234.23,\"previousAmount\":45.32}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("{\"amount\":234.23,"
+                + "\"breakdown\":{\"200.00\":1,\"20.00\":1,\"10.00\":1,\"2.00\":2,\"0.20\":1,\"0.02\":1,\"0.01\":1},"
+                + "\"changes\":{\"200.00\":1,\"20.00\":-1,\"10.00\":1,\"5.00\":-1,\"2.00\":2,\"0.20\":0,\"0.10\":-1,"
+                + "\"0.02\":0,\"0.01\":1}}", response.body());
+    }
+
+    @Test
+    void testCalculateMinimalExchange() throws Exception {
+        HttpResponse<String> response = calculate(
+                "{\"amount\":234.23,\"previousAmount\":45.32,\"changeMode\":\"MINIMAL_EXCHANGE\"}");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"amount\":234.23,"
+                + "\"breakdown\":{\"200.00\":1,\"20.00\":1,\"5.00\":2,\"2.00\":2,\"0.20\":1,\"0.02\":1,\"0.01\":1},"
+                + "\"changes\":{\"200.00\":1,\"20.00\":-1,\"5.00\":1,\"2.00\":2,\"0.20\":0,\"0.10\":-1,\"0.02\":0,"
+                + "\"0.01\":1}}", response.body());
+
+        response = calculate("{\"amount\":1,\"changeMode\":\"MINIMAL_EXCHANGE\"}");
+        assertEquals(400, response.statusCode());
+        assertEquals("changeMode MINIMAL_EXCHANGE needs a previousAmount", response.body());
+    }
+
+    @Test
+    void testCalculateInAnotherCurrency() throws Exception {
+        assertEquals("{\"amount\":1205.00,\"breakdown\":{\"1000.00\":1,\"200.00\":1,\"5.00\":1},\"changes\":null}",
+                calculate("{\"amount\":1205,\"currency\":\"CHF\"}").body());
+        assertEquals("Unknown currency: XXX", calculate("{\"amount\":1,\"currency\":\"XXX\"}").body());
+    }
+
+    @Test
+    void testCalculateWithLimitedStock() throws Exception {
+        assertEquals("{\"amount\":3.00,\"breakdown\":{\"1.00\":3},\"changes\":null}",
+                calculate("{\"amount\":3,\"available\":{\"1.00\":5}}").body());
+
+        HttpResponse<String> response = calculate("{\"amount\":3,\"available\":{\"2.00\":1}}");
+        assertEquals(422, response.statusCode());
+        assertEquals("Cannot make change for 3.00 with the available stock", response.body());
+
+        response = calculate("{\"amount\":3,\"available\":{\"3.00\":1}}");
+        assertEquals(400, response.statusCode());
+        assertEquals("Unknown denomination: 3.00", response.body());
+    }
+
+    @Test
+    void testRejectsInvalidRequests() throws Exception {
+        HttpResponse<String> response = calculate("{\"amount\":-1}");
+        assertEquals(400, response.statusCode());
+        assertEquals("Amount must be positive", response.body());
+
+        response = calculate("{\"amount\":1,\"previousAmount\":-1}");
+        assertEquals(400, response.statusCode());
+        assertEquals("Previous amount must not be negative", response.body());
+
+        response = calculate("{\"amount\":1,\"previousAmount\":-1,\"changeMode\":\"MINIMAL_EXCHANGE\"}");
+        assertEquals(400, response.statusCode());
+
+        response = calculate("{\"amount\":234.23,\"currency\":\"CHF\"}");
+        assertEquals(400, response.statusCode());
+        assertEquals("Amount 234.23 is not a multiple of 0.05, the smallest the denominations can make", response.body());
+
+        response = calculate("{\"amount\":234.25,\"previousAmount\":45.32,\"currency\":\"CHF\","
+                + "\"changeMode\":\"MINIMAL_EXCHANGE\"}");
+        assertEquals(400, response.statusCode());
+
+        response = calculate("{\"amount\":1.005}");
+        assertEquals(400, response.statusCode());
+        assertEquals("Malformed request: Amount must have at most two decimal places", response.body());
+
+        response = calculate("{\"amount\":1,\"drawerId\":\"till-1\"}");
+        assertEquals(400, response.statusCode());
+        assertEquals("drawerId is not supported by the lite server", response.body());
+
+        assertEquals(415, post("/api/calculate", "text/plain", "{\"amount\":1}").statusCode());
+        assertEquals(413, calculate("{\"amount\":1,\"note\":\"" + "x".repeat(LiteServer.MAX_BODY_BYTES) + "\"}")
+                .statusCode());
+        assertEquals(405, get("/api/calculate").statusCode());
+    }
+
+    @Test
+    void testDenominations() throws Exception {
+        HttpResponse<String> response = get("/api/denominations");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[\"200.00€\",\"100.00€\","));
+
+        assertTrue(get("/api/denominations/CHF").body().startsWith("[\"1000.00 CHF\","));
+        assertEquals(404, get("/api/denominations/XXX").statusCode());
+    }
+
+    @Test
+    void testHealth() throws Exception {
+        HttpResponse<String> response = get("/api/health");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("Backend is running", response.body());
+        assertEquals(404, get("/api/healthz").statusCode());
+        assertEquals(404, get("/api/unknown").statusCode());
+    }
+}
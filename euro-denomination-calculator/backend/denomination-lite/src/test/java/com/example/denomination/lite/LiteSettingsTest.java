@@ -0,0 +1,70 @@
+package com.example.denomination.lite;
+
+import com.example.denomination.engine.EngineSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiteSettingsTest {
+
+    @Test
+    void testDefaultsMatchTheSpringApplication() {
+        LiteSettings settings = LiteSettings.load(Map.of(), Map.of());
+
+        assertEquals(8080, settings.port());
+        assertEquals(0, settings.threads());
+        assertEquals("EUR", settings.defaultCurrency());
+        assertEquals(List.of("EUR", "CHF", "GBP"), List.copyOf(settings.currencies().keySet()));
+        assertEquals(14, settings.currencies().get("EUR").length);
+        assertEquals(13, settings.currencies().get("CHF").length);
+        assertEquals(EngineSettings.DEFAULTS, settings.engineSettings());
+    }
+
+    @Test
+    void testReadsEnvironmentVariablesLikeSpring() {
+        LiteSettings settings = LiteSettings.load(Map.of(), Map.of(
+                "SERVER_PORT", "9090",
+                "DENOMINATION_LITE_THREADS", "4",
+                "DENOMINATION_CURRENCY", "USD",
+                "DENOMINATION_VALUES", "100, 50, 20",
+                "DENOMINATION_CURRENCIES_SEK", "500,100",
+                "DENOMINATION_LOOKUP_MAXBYTES", "1024"));
+
+        assertEquals(9090, settings.port());
+        assertEquals(4, settings.threads());
+        assertEquals("USD", settings.defaultCurrency());
+        assertEquals("USD", settings.currencies().keySet().iterator().next());
+        assertArrayEquals(new double[]{100, 50, 20}, settings.currencies().get("USD"));
+        assertArrayEquals(new double[]{500, 100}, settings.currencies().get("SEK"));
+        assertTrue(settings.currencies().containsKey("CHF"));
+        assertEquals(1024, settings.engineSettings().lookupTableMaxBytes());
+    }
+
+    @Test
+    void testSystemPropertiesWinOverTheEnvironment() {
+        LiteSettings settings = LiteSettings.load(
+                Map.of("server.port", "7070", "denomination.currencies.CHF", "10,5"),
+                Map.of("SERVER_PORT", "9090", "DENOMINATION_CURRENCIES_CHF", "20,10"));
+
+        assertEquals(7070, settings.port());
+        assertArrayEquals(new double[]{10, 5}, settings.currencies().get("CHF"));
+    }
+
+    @Test
+    void testRejectsInvalidValues() {
+        assertEquals("server.port is not a whole number: http",
+                assertThrows(IllegalArgumentException.class,
+                        () -> LiteSettings.load(Map.of("server.port", "http"), Map.of())).getMessage());
+        assertEquals("denomination.values has a value that is not a number: x",
+                assertThrows(IllegalArgumentException.class,
+                        () -> LiteSettings.load(Map.of("denomination.values", "1,x"), Map.of())).getMessage());
+    }
+
+    @Test
+    void testEnvironmentName() {
+        assertEquals("DENOMINATION_OPTIMAL_TABLELIMIT", LiteSettings.environmentName("denomination.optimal.table-limit"));
+    }
+}
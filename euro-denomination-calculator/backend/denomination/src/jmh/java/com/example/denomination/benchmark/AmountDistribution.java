@@ -0,0 +1,36 @@
+package com.example.denomination.benchmark;
+
+import java.util.SplittableRandom;
+
+//Amount mixes the benchmarks cycle through, generated from a fixed seed so runs are comparable
+public enum AmountDistribution {
+
+    //Coins only, the way change is handed out at a till
+    SMALL_CHANGE(1, 999),
+    //Everyday shopping totals
+    TYPICAL(500, 50_000),
+    //Treasury and payroll sized totals where the top note count dominates
+    VERY_LARGE(1_000_000, 1_000_000_000),
+    //Amounts whose top note count no longer fits in an int
+    TREASURY(1_000_000_000_000_000L, Long.MAX_VALUE - 1);
+
+    private static final int SAMPLES = 1024;
+
+    private final long minCents;
+    private final long maxCents;
+
+    AmountDistribution(long minCents, long maxCents) {
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+    }
+
+    //Amounts in cents, a power of two long so callers can cycle with a mask
+    public long[] sample(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] amounts = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            amounts[i] = random.nextLong(minCents, maxCents + 1);
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.denomination.benchmark;
+
+import com.example.denomination.engine.BoundedChangeSolver;
+import com.example.denomination.engine.DenominationSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+//Latency of the limited-stock solver for till-sized stock and amounts up to several thousand euros
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundedChangeSolverBenchmark {
+
+    @Param({"SMALL_CHANGE", "TYPICAL"})
+    public AmountDistribution distribution;
+
+    private BoundedChangeSolver solver;
+    private long[] amounts;
+    private int[][] stocks;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        DenominationSet set = DenominationSet.of(DenominationProfile.EURO.denominationValues());
+        solver = new BoundedChangeSolver(set);
+
+        amounts = distribution.sample(42);
+        SplittableRandom random = new SplittableRandom(7);
+        stocks = new int[amounts.length][set.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            // A drawer with a handful of each piece and some denominations run out
+            for (int d = 0; d < set.size(); d++) {
+                stocks[i][d] = random.nextInt(4) == 0 ? 0 : random.nextInt(1, 20);
+            }
+        }
+    }
+
+    @Benchmark
+    public long[] solve() {
+        index = (index + 1) & (amounts.length - 1);
+        return solver.solve(amounts[index], stocks[index]);
+    }
+}
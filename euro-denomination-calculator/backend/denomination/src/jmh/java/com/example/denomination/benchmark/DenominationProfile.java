@@ -0,0 +1,22 @@
+package com.example.denomination.benchmark;
+
+//Denomination sets the benchmarks are parameterized over
+public enum DenominationProfile {
+
+    //The configured euro notes and coins
+    EURO(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01),
+    //Euro without 1 and 2 cent coins, as used where cash totals are rounded to 5 cents
+    EURO_ROUNDED(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05),
+    //Coins only
+    EURO_COINS(2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01);
+
+    private final double[] values;
+
+    DenominationProfile(double... values) {
+        this.values = values;
+    }
+
+    public double[] denominationValues() {
+        return values.clone();
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.denomination.benchmark;
+
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+import com.example.denomination.model.DenominationResult;
+import com.example.denomination.service.DenominationService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//Throughput of the request path in DenominationService, from amount to result
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class DenominationServiceBenchmark {
+
+    @Param({"SMALL_CHANGE", "TYPICAL", "VERY_LARGE", "TREASURY"})
+    public AmountDistribution distribution;
+
+    @Param({"EURO", "EURO_ROUNDED", "EURO_COINS"})
+    public DenominationProfile denominations;
+
+    //Residue lookup table engine, or the greedy loop when the table is not allowed any memory
+    @Param({"true", "false"})
+    public boolean lookupTable;
+
+    private double[] values;
+    private DenominationService service;
+    private DenominationSet set;
+    private DenominationEngine engine;
+    private long[] amounts;
+    private long[] previousAmounts;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        values = denominations.denominationValues();
+        EngineSettings settings = lookupTable
+                ? EngineSettings.DEFAULTS
+                : new EngineSettings(EngineSettings.DEFAULTS.optimalTableLimitCents(), 0);
+        service = new DenominationService(values, settings);
+        set = DenominationSet.of(values);
+        engine = DenominationEngine.compile(set, settings);
+        amounts = distribution.sample(42);
+        previousAmounts = distribution.sample(7);
+    }
+
+    private int next() {
+        index = (index + 1) & (amounts.length - 1);
+        return index;
+    }
+
+    @Benchmark
+    public DenominationResult calculate() {
+        return service.calculateDenominations(amounts[next()], null);
+    }
+
+    @Benchmark
+    public DenominationResult calculateWithPreviousAmount() {
+        int i = next();
+        return service.calculateDenominations(amounts[i], previousAmounts[i]);
+    }
+
+    //Adjusting the previous amount's breakdown with the fewest moved pieces, the branch-and-bound solver
+    @Benchmark
+    public DenominationResult calculateMinimalExchange() {
+        int i = next();
+        return service.calculateMinimalExchange(amounts[i], previousAmounts[i]);
+    }
+
+    //The changes path as serialization sees it: diff two breakdowns and walk every entry of the view
+    @Benchmark
+    public void calculateChanges(Blackhole blackhole) {
+        int i = next();
+        Map<String, Long> changes = set.changesView(
+                engine.breakdown(amounts[i]), engine.breakdown(previousAmounts[i]));
+        for (Map.Entry<String, Long> entry : changes.entrySet()) {
+            blackhole.consume(entry.getKey());
+            blackhole.consume(entry.getValue());
+        }
+    }
+
+    //Key formatting as the request path used to do it once per denomination, kept as a baseline
+    @Benchmark
+    public void formatDenominationKeys(Blackhole blackhole) {
+        for (double value : values) {
+            blackhole.consume(DenominationSet.formatKey(value));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.denomination.benchmark;
+
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.DenominationResult;
+import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+//Jackson serialization of DenominationResult, the other half of the /api/calculate response cost, and parsing of
+//CalculationRequest with its amounts read straight into cents
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({"SMALL_CHANGE", "TYPICAL", "VERY_LARGE", "TREASURY"})
+    public AmountDistribution distribution;
+
+    @Param({"EURO", "EURO_ROUNDED", "EURO_COINS"})
+    public DenominationProfile denominations;
+
+    private final ObjectWriter writer = new ObjectMapper().writerFor(DenominationResult.class);
+    private final ObjectReader reader = new ObjectMapper().readerFor(CalculationRequest.class);
+    private DenominationResult[] results;
+    private DenominationResult[] resultsWithChanges;
+    private byte[][] requests;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        DenominationService service = new DenominationService(denominations.denominationValues());
+        long[] amounts = distribution.sample(42);
+        long[] previousAmounts = distribution.sample(7);
+
+        results = new DenominationResult[amounts.length];
+        resultsWithChanges = new DenominationResult[amounts.length];
+        requests = new byte[amounts.length][];
+        for (int i = 0; i < amounts.length; i++) {
+            results[i] = service.calculateDenominations(amounts[i], null);
+            resultsWithChanges[i] = service.calculateDenominations(amounts[i], previousAmounts[i]);
+            requests[i] = ("{\"amount\":" + DenominationEngine.formatCents(amounts[i])
+                    + ",\"previousAmount\":" + DenominationEngine.formatCents(previousAmounts[i]) + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (results.length - 1);
+        return index;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(results[next()]);
+    }
+
+    @Benchmark
+    public byte[] serializeWithChanges() throws JsonProcessingException {
+        return writer.writeValueAsBytes(resultsWithChanges[next()]);
+    }
+
+    @Benchmark
+    public CalculationRequest deserializeRequest() throws IOException {
+        return reader.readValue(requests[next()]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.denomination.loadtest;
+
+import com.example.denomination.engine.DenominationEngine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+//Amount mixes the load generator sends, drawn from weighted ranges with a fixed seed so runs are comparable
+public enum AmountMix {
+
+    //Point of sale: mostly everyday totals, coin-only change and now and then a large purchase
+    RETAIL(new Band(60, 500, 50_000), new Band(30, 1, 999), new Band(10, 50_000, 500_000)),
+    //Coins only, the way change is handed out at a till
+    SMALL_CHANGE(new Band(100, 1, 999)),
+    //Payroll and treasury sized totals
+    LARGE(new Band(80, 1_000_000, 100_000_000), new Band(20, 100_000_000, 1_000_000_000));
+
+    private static final int SAMPLES = 1024;
+
+    //Amounts from minCents to maxCents, drawn with a weight relative to the other bands of the mix
+    private record Band(int weight, long minCents, long maxCents) {
+    }
+
+    private final Band[] bands;
+    private final int totalWeight;
+
+    AmountMix(Band... bands) {
+        this.bands = bands;
+        int total = 0;
+        for (Band band : bands) {
+            total += band.weight();
+        }
+        this.totalWeight = total;
+    }
+
+    //Amounts in cents, a power of two long so clients can cycle with a mask
+    long[] sample(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] amounts = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            int pick = random.nextInt(totalWeight);
+            Band band = bands[0];
+            for (Band candidate : bands) {
+                band = candidate;
+                pick -= candidate.weight();
+                if (pick < 0) {
+                    break;
+                }
+            }
+            amounts[i] = random.nextLong(band.minCents(), band.maxCents() + 1);
+        }
+        return amounts;
+    }
+
+    //Request bodies for /api/calculate, each with a previousAmount from an independent sample when asked for
+    byte[][] requests(boolean withPreviousAmount) {
+        long[] amounts = sample(42);
+        long[] previousAmounts = sample(7);
+        byte[][] requests = new byte[amounts.length][];
+        for (int i = 0; i < amounts.length; i++) {
+            StringBuilder body = new StringBuilder("{\"amount\":").append(DenominationEngine.formatCents(amounts[i]));
+            if (withPreviousAmount) {
+                body.append(",\"previousAmount\":").append(DenominationEngine.formatCents(previousAmounts[i]));
+            }
+            requests[i] = body.append('}').toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.denomination.loadtest;
+
+import com.example.denomination.DenominationApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+//Closed-loop load test of POST /api/calculate.
+//
+//Boots the application on a random local port, or targets a running server with --url, then for each scenario and
+//client count keeps that many clients busy, each sending its next request as soon as the previous one is answered.
+//Requests sent during the warmup are not counted. Latencies go into HDR histograms; the report with throughput,
+//percentiles and errors is written as JSON and the histograms as an HDR histogram log next to it.
+//
+//A closed loop sends less while the server is slow, so latencies measured at saturation understate what an open
+//stream of clients would see; compare runs at the same client counts.
+public final class LoadGenerator {
+
+    private final LoadOptions options;
+    private final HttpClient client;
+    private final PrintStream out;
+
+    private LoadGenerator(LoadOptions options, PrintStream out) {
+        this.options = options;
+        this.out = out;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(options.timeoutSeconds()))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        ConfigurableApplicationContext application = null;
+        URI target = options.url();
+        if (target == null) {
+            application = boot(options.applicationArguments());
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            target = URI.create("http://localhost:" + port + "/");
+        }
+        try {
+            new LoadGenerator(options, System.out).run(target);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(List<String> arguments) {
+        // Devtools is on the test classpath and would restart main with only the application's arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(arguments);
+        if (args.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+            args.add("--server.port=0");
+        }
+        return SpringApplication.run(DenominationApplication.class, args.toArray(String[]::new));
+    }
+
+    private void run(URI target) throws Exception {
+        Instant startedAt = Instant.now();
+        URI calculate = target.resolve("api/calculate");
+        Path output = options.output().toAbsolutePath();
+        Files.createDirectories(output.getParent());
+        Path histogramLog = output.resolveSibling(output.getFileName().toString().replaceFirst("\\.json$", "")
+                + ".hlog");
+
+        List<LoadReport.Run> runs = new ArrayList<>();
+        try (PrintStream log = new PrintStream(Files.newOutputStream(histogramLog))) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputComment("Latencies of " + calculate + " in nanoseconds, tagged scenario/clients");
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(startedAt.toEpochMilli());
+            writer.setBaseTime(startedAt.toEpochMilli());
+            writer.outputLegend();
+
+            out.printf("%-16s %7s %10s %9s %10s %10s %10s %10s%n",
+                    "scenario", "clients", "requests", "errors", "req/s", "p50 us", "p99 us", "p99.9 us");
+            for (LoadOptions.Scenario scenario : options.scenarios()) {
+                byte[][] requests = options.mix().requests(scenario.withPreviousAmount());
+                for (int clients : options.clients()) {
+                    Histogram histogram = new Histogram(3);
+                    LoadReport.Run run = step(calculate, scenario, clients, requests, histogram);
+                    histogram.setTag(scenario.name() + "/" + clients);
+                    writer.outputIntervalHistogram(histogram);
+                    runs.add(run);
+                    out.printf("%-16s %7d %10d %9d %10.0f %10.1f %10.1f %10.1f%n", run.scenario(), run.clients(),
+                            run.requests(), run.errors(), run.throughputPerSecond(), run.latencyMicros().p50(),
+                            run.latencyMicros().p99(), run.latencyMicros().p999());
+                }
+            }
+        }
+
+        LoadReport report = new LoadReport(options.label(), target.toString(), startedAt.toString(),
+                Runtime.version().toString(), Runtime.getRuntime().availableProcessors(), options.mix().name(),
+                options.warmupSeconds(), options.durationSeconds(), options.applicationArguments(), runs);
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        out.println("Report written to " + output + ", histograms to " + histogramLog);
+    }
+
+    //One run: the clients warm up, then their requests are counted for the configured duration
+    private LoadReport.Run step(URI calculate, LoadOptions.Scenario scenario, int clients, byte[][] requests,
+                                Histogram histogram) throws Exception {
+        long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+        long startMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(options.warmupSeconds());
+
+        List<Future<ClientResult>> results = new ArrayList<>(clients);
+        // Platform threads, so blocked clients do not hold the carrier threads a booted application's requests run on
+        try (ExecutorService pool = Executors.newFixedThreadPool(clients)) {
+            for (int i = 0; i < clients; i++) {
+                int offset = i * 97;
+                results.add(pool.submit(() -> client(calculate, requests, offset, measureStart, measureEnd)));
+            }
+        }
+
+        Map<String, Long> errorsByCause = new TreeMap<>();
+        long errors = 0;
+        for (Future<ClientResult> result : results) {
+            ClientResult clientResult = result.get();
+            histogram.add(clientResult.histogram());
+            for (Map.Entry<String, Long> entry : clientResult.errorsByCause().entrySet()) {
+                errorsByCause.merge(entry.getKey(), entry.getValue(), Long::sum);
+                errors += entry.getValue();
+            }
+        }
+        histogram.setStartTimeStamp(startMillis);
+        histogram.setEndTimeStamp(startMillis + TimeUnit.SECONDS.toMillis(options.durationSeconds()));
+
+        long count = histogram.getTotalCount();
+        return new LoadReport.Run(scenario.name(), clients, count, errors, count > 0 ? (double) errors / count : 0,
+                (double) count / options.durationSeconds(), errorsByCause, LoadReport.Latency.of(histogram));
+    }
+
+    //Latencies and failures of one client's counted requests
+    private record ClientResult(Histogram histogram, Map<String, Long> errorsByCause) {
+    }
+
+    private ClientResult client(URI calculate, byte[][] requests, int offset, long measureStart, long measureEnd)
+            throws InterruptedException {
+        Histogram histogram = new Histogram(3);
+        Map<String, Long> errorsByCause = new TreeMap<>();
+        Duration timeout = Duration.ofSeconds(options.timeoutSeconds());
+        for (int i = offset; ; i++) {
+            HttpRequest request = HttpRequest.newBuilder(calculate)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(requests[i & (requests.length - 1)]))
+                    .build();
+            long sent = System.nanoTime();
+            if (sent >= measureEnd) {
+                return new ClientResult(histogram, errorsByCause);
+            }
+            String error;
+            try {
+                int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                error = status == 200 ? null : String.valueOf(status);
+            } catch (IOException e) {
+                error = e.getClass().getSimpleName();
+            }
+            if (sent >= measureStart) {
+                histogram.recordValue(System.nanoTime() - sent);
+                if (error != null) {
+                    errorsByCause.merge(error, 1L, Long::sum);
+                }
+            }
+        }
+    }
+}
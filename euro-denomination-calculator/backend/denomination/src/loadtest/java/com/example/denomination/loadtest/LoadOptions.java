@@ -0,0 +1,106 @@
+package com.example.denomination.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+//Options of a load test run, given as --name=value; any other argument is passed on to the booted application
+record LoadOptions(
+        //Label stored in the report to tell runs apart, for example a release or execution mode
+        String label,
+        //Concurrent clients of each step, stepped up to find where throughput stops growing
+        List<Integer> clients,
+        List<Scenario> scenarios,
+        AmountMix mix,
+        int warmupSeconds,
+        int durationSeconds,
+        int timeoutSeconds,
+        //Server to load instead of booting the application, for example one started in another mode or the lite server
+        URI url,
+        Path output,
+        List<String> applicationArguments
+) {
+    //What the requests of a run ask for
+    enum Scenario {
+        AMOUNT(false),
+        PREVIOUS_AMOUNT(true);
+
+        private final boolean withPreviousAmount;
+
+        Scenario(boolean withPreviousAmount) {
+            this.withPreviousAmount = withPreviousAmount;
+        }
+
+        boolean withPreviousAmount() {
+            return withPreviousAmount;
+        }
+    }
+
+    static LoadOptions parse(String... args) {
+        String label = "default";
+        List<Integer> clients = List.of(1, 4, 16, 64);
+        List<Scenario> scenarios = List.of(Scenario.values());
+        AmountMix mix = AmountMix.RETAIL;
+        int warmupSeconds = 5;
+        int durationSeconds = 15;
+        int timeoutSeconds = 10;
+        URI url = null;
+        Path output = Path.of("target", "loadtest", "result.json");
+        List<String> applicationArguments = new ArrayList<>();
+
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 0 ? arg.substring(2, equals) : "";
+            String value = equals > 0 ? arg.substring(equals + 1) : "";
+            switch (name) {
+                case "label" -> label = value;
+                case "clients" -> clients = Arrays.stream(value.split(","))
+                        .map(count -> positive(name, count))
+                        .toList();
+                case "scenarios" -> scenarios = Arrays.stream(value.split(","))
+                        .map(scenario -> Scenario.valueOf(constant(scenario)))
+                        .toList();
+                case "mix" -> mix = AmountMix.valueOf(constant(value));
+                case "warmup" -> warmupSeconds = number(name, value);
+                case "duration" -> durationSeconds = positive(name, value);
+                case "timeout" -> timeoutSeconds = positive(name, value);
+                case "url" -> url = URI.create(value.endsWith("/") ? value : value + "/");
+                case "output" -> output = Path.of(value);
+                default -> applicationArguments.add(arg);
+            }
+        }
+        if (url != null && !applicationArguments.isEmpty()) {
+            throw new IllegalArgumentException("Application arguments are not used with --url: " + applicationArguments);
+        }
+        return new LoadOptions(label, clients, scenarios, mix, warmupSeconds, durationSeconds, timeoutSeconds, url,
+                output, List.copyOf(applicationArguments));
+    }
+
+    //previous-amount and previousAmount both name PREVIOUS_AMOUNT
+    private static String constant(String name) {
+        return name.trim().replaceAll("([a-z])([A-Z])", "$1_$2").replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+
+    private static int number(String name, String value) {
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number < 0) {
+                throw new IllegalArgumentException("--" + name + " must not be negative: " + value);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " is not a whole number: " + value);
+        }
+    }
+
+    private static int positive(String name, String value) {
+        int number = number(name, value);
+        if (number == 0) {
+            throw new IllegalArgumentException("--" + name + " must be positive: " + value);
+        }
+        return number;
+    }
+}
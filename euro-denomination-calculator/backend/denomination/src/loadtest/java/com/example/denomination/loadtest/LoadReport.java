@@ -0,0 +1,52 @@
+package com.example.denomination.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.Map;
+
+//Result of a load test as written to JSON, one run per scenario and client count
+record LoadReport(
+        String label,
+        String target,
+        String startedAt,
+        String javaVersion,
+        int availableProcessors,
+        String mix,
+        int warmupSeconds,
+        int durationSeconds,
+        List<String> applicationArguments,
+        List<Run> runs
+) {
+    record Run(
+            String scenario,
+            int clients,
+            long requests,
+            long errors,
+            double errorRate,
+            double throughputPerSecond,
+            //Failed requests by HTTP status, or by exception for requests without a response
+            Map<String, Long> errorsByCause,
+            Latency latencyMicros
+    ) {
+    }
+
+    //Latency percentiles of a run's requests, successful or not
+    record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+
+        //From a histogram of nanoseconds
+        static Latency of(Histogram histogram) {
+            return new Latency(
+                    micros(histogram.getMean()),
+                    micros(histogram.getValueAtPercentile(50)),
+                    micros(histogram.getValueAtPercentile(90)),
+                    micros(histogram.getValueAtPercentile(99)),
+                    micros(histogram.getValueAtPercentile(99.9)),
+                    micros(histogram.getMaxValue()));
+        }
+
+        private static double micros(double nanos) {
+            return Math.round(nanos / 100) / 10.0;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.denomination.admission;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+//Decides whether a request is calculated now, after a short wait, or turned away.
+//
+//Each client with a configured limit has its own token bucket, chosen by the key the client sends; every other
+//request shares the default bucket, or is not rate limited when there is none, so unknown keys cannot grow any state.
+//A request within its rate then needs a permit of the concurrency limiter shared by all clients. Outcomes are counted
+//per kind, and the requests holding or waiting for a permit are exposed as gauges.
+public class AdmissionControl {
+
+    //Requests per second and the requests that may arrive at once; a burst of 0 allows one second's worth
+    public record ClientLimit(double rate, int burst) {
+
+        TokenBucket bucket(long nowNanos) {
+            return new TokenBucket(rate, burst > 0 ? burst : (int) Math.max(1, Math.ceil(rate)), nowNanos);
+        }
+    }
+
+    public enum Outcome {
+        ADMITTED,
+        //Admitted after waiting for a permit
+        QUEUED,
+        RATE_LIMITED,
+        QUEUE_FULL,
+        QUEUE_TIMEOUT;
+
+        public boolean admitted() {
+            return this == ADMITTED || this == QUEUED;
+        }
+    }
+
+    //Outcome of an admission, with the whole seconds a rejected client should wait before retrying
+    public record Decision(Outcome outcome, long retryAfterSeconds) {
+
+        public boolean admitted() {
+            return outcome.admitted();
+        }
+    }
+
+    private static final Decision ADMITTED = new Decision(Outcome.ADMITTED, 0);
+    private static final Decision QUEUED = new Decision(Outcome.QUEUED, 0);
+    //A full limiter frees up within milliseconds, so the shortest Retry-After is asked for
+    private static final Decision QUEUE_FULL = new Decision(Outcome.QUEUE_FULL, 1);
+    private static final Decision QUEUE_TIMEOUT = new Decision(Outcome.QUEUE_TIMEOUT, 1);
+
+    private final Map<String, TokenBucket> clientBuckets = new HashMap<>();
+    private final TokenBucket defaultBucket;
+    private final ConcurrencyLimiter limiter;
+    private final LongSupplier nanoClock;
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    public AdmissionControl(ConcurrencyLimiter limiter, ClientLimit defaultLimit, Map<String, ClientLimit> clientLimits,
+                            MeterRegistry registry) {
+        this(limiter, defaultLimit, clientLimits, registry, System::nanoTime);
+    }
+
+    AdmissionControl(ConcurrencyLimiter limiter, ClientLimit defaultLimit, Map<String, ClientLimit> clientLimits,
+                     MeterRegistry registry, LongSupplier nanoClock) {
+        this.limiter = limiter;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.defaultBucket = defaultLimit != null ? defaultLimit.bucket(now) : null;
+        clientLimits.forEach((client, limit) -> clientBuckets.put(client, limit.bucket(now)));
+
+        for (Outcome outcome : Outcome.values()) {
+            LongAdder count = new LongAdder();
+            outcomes.put(outcome, count);
+            FunctionCounter.builder("denomination.admission.requests", count, LongAdder::sum)
+                    .description("Requests by admission outcome")
+                    .tag("outcome", outcome.admitted() ? outcome.name().toLowerCase(Locale.ROOT) : "rejected")
+                    .tag("reason", outcome.admitted() ? "none" : outcome.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        Gauge.builder("denomination.admission.active", limiter, ConcurrencyLimiter::active)
+                .description("Admitted requests being calculated")
+                .register(registry);
+        Gauge.builder("denomination.admission.waiting", limiter, ConcurrencyLimiter::waiting)
+                .description("Requests waiting for a concurrency permit")
+                .register(registry);
+    }
+
+    //Admit a request of the client, null when it sent no key. An admitted request must be released when done.
+    public Decision admit(String client) {
+        TokenBucket bucket = client != null ? clientBuckets.getOrDefault(client, defaultBucket) : defaultBucket;
+        if (bucket != null) {
+            long waitNanos = bucket.tryAcquire(nanoClock.getAsLong());
+            if (waitNanos > 0) {
+                outcomes.get(Outcome.RATE_LIMITED).increment();
+                return new Decision(Outcome.RATE_LIMITED, Math.max(1, ceilSeconds(waitNanos)));
+            }
+        }
+        Decision decision = switch (limiter.acquire()) {
+            case ADMITTED -> ADMITTED;
+            case ADMITTED_AFTER_WAIT -> QUEUED;
+            case QUEUE_FULL -> QUEUE_FULL;
+            case TIMED_OUT -> QUEUE_TIMEOUT;
+        };
+        outcomes.get(decision.outcome()).increment();
+        return decision;
+    }
+
+    public void release() {
+        limiter.release();
+    }
+
+    //Requests with this outcome so far
+    public long count(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    private static long ceilSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.denomination.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+//Puts the calculate endpoints behind admission control before the request body is read. Rate-limited clients get
+//429 Too Many Requests, requests the server has no room for 503 Service Unavailable, both with Retry-After and
+//a short text body. CORS preflight requests are not counted.
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    //A batch streams results for as long as its client sends lines, so it would hold a permit meant for a single
+    //calculation for minutes; batches are left out like forecasts
+    private static final String BATCH_PATH = "/api/calculate/batch";
+
+    private final AdmissionControl admissionControl;
+    private final String clientHeader;
+
+    public AdmissionFilter(AdmissionControl admissionControl, String clientHeader) {
+        this.admissionControl = admissionControl;
+        this.clientHeader = clientHeader;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "OPTIONS".equals(request.getMethod())
+                || BATCH_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionControl.Decision decision = admissionControl.admit(request.getHeader(clientHeader));
+        if (!decision.admitted()) {
+            boolean rateLimited = decision.outcome() == AdmissionControl.Outcome.RATE_LIMITED;
+            response.setStatus(rateLimited ? HttpStatus.TOO_MANY_REQUESTS.value()
+                    : HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write(rateLimited ? "Rate limit exceeded" : "Server is busy, retry later");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admissionControl.release();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.denomination.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//At most a fixed number of requests at a time. A request over the limit may wait a bounded time in a bounded queue;
+//when the queue is full or the wait runs out it is turned away instead of piling up.
+//
+//A permit that is free is taken with one compare-and-set of the non-fair semaphore, so arriving requests may overtake
+//waiting ones; waiting is for short bursts, and a waiter that is overtaken for too long times out.
+public final class ConcurrencyLimiter {
+
+    //How an acquire ended
+    public enum Result {
+        ADMITTED,
+        //Admitted after waiting for another request to finish
+        ADMITTED_AFTER_WAIT,
+        QUEUE_FULL,
+        TIMED_OUT;
+
+        public boolean admitted() {
+            return this == ADMITTED || this == ADMITTED_AFTER_WAIT;
+        }
+    }
+
+    private final int limit;
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final long maxWaitNanos;
+
+    public ConcurrencyLimiter(int limit, int maxQueued, long maxWaitNanos) {
+        if (limit < 1 || maxQueued < 0 || maxWaitNanos < 0) {
+            throw new IllegalArgumentException("Limit must be positive, queue size and wait not negative");
+        }
+        this.limit = limit;
+        this.permits = new Semaphore(limit);
+        this.maxQueued = maxQueued;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    //Take a permit, which must be released once the request is done when the result is admitted
+    public Result acquire() {
+        if (permits.tryAcquire()) {
+            return Result.ADMITTED;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return Result.QUEUE_FULL;
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) ? Result.ADMITTED_AFTER_WAIT : Result.TIMED_OUT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.TIMED_OUT;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    //Requests holding a permit
+    public int active() {
+        return limit - permits.availablePermits();
+    }
+
+    //Requests waiting for a permit
+    public int waiting() {
+        return queued.get();
+    }
+}
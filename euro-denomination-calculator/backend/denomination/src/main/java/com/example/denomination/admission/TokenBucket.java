@@ -0,0 +1,40 @@
+package com.example.denomination.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Lock-free token bucket refilled at a fixed rate and holding up to burst tokens.
+//
+//The whole state is one nanoTime value: when the bucket would be full again if nothing else were taken. Taking a
+//token moves it one refill interval later, so an attempt is a read and a compare-and-set, retried only when another
+//thread took a token in between.
+public final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, Math.round(1e9 / permitsPerSecond));
+        this.capacityNanos = Math.multiplyExact(intervalNanos, (long) burst);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    //Take a token, returning 0, or the nanoseconds until one is available when the bucket is empty
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long full = fullAt.get();
+            // Compared as a difference, nanoTime may be negative or wrap
+            long next = (full - nowNanos > 0 ? full : nowNanos) + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.denomination.audit;
+
+import com.example.denomination.engine.DenominationSet;
+
+import java.io.IOException;
+
+//Compliance record of every calculation: amount, previous amount, breakdown and changes
+public interface AuditJournal {
+
+    //Previous amount stored for calculations made without one
+    long NO_PREVIOUS = Long.MIN_VALUE;
+
+    //Journal that records nothing, used when auditing is disabled
+    AuditJournal DISABLED = (amountCents, previousCents, breakdown, previousBreakdown) -> { };
+
+    //Append one calculation; previousBreakdown is null when there was no previous amount
+    void append(long amountCents, long previousCents, long[] breakdown, long[] previousBreakdown);
+
+    //Journal for the calculations of another set, such as one reloaded at runtime; this one when it records no sets
+    default AuditJournal forSet(DenominationSet set) throws IOException {
+        return this;
+    }
+}
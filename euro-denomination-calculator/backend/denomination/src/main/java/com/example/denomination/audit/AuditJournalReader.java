@@ -0,0 +1,228 @@
+package com.example.denomination.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static com.example.denomination.audit.JournalFormat.*;
+
+//Sequential replay of the audit journal segments in a directory.
+//Records are handed out through one reusable view over the mapped file, so scanning allocates nothing per record.
+public final class AuditJournalReader {
+
+    //Receives every committed record; the record is only valid during the call
+    public interface RecordVisitor {
+        void visit(AuditRecord record);
+    }
+
+    private AuditJournalReader() {
+    }
+
+    //Visit every committed record in segment order, returning how many were visited
+    public static long replay(Path directory, RecordVisitor visitor) throws IOException {
+        long records = 0;
+        for (Path segment : segments(directory)) {
+            records += replaySegment(segment, visitor);
+        }
+        return records;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> segmentSequence(file) >= 0)
+                    .sorted(Comparator.comparingLong(JournalFormat::segmentSequence))
+                    .toList();
+        }
+    }
+
+    private static long replaySegment(Path segment, RecordVisitor visitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        AuditRecord record = new AuditRecord(buffer, readHeader(buffer, segment));
+        long records = 0;
+        // Slots claimed by a writer that never committed stay empty and are skipped
+        for (int offset = HEADER_BYTES; offset + record.bytes <= buffer.capacity(); offset += record.bytes) {
+            if ((int) COMMIT.getAcquire(buffer, offset + COMMIT_OFFSET) == COMMITTED) {
+                record.offset = offset;
+                visitor.visit(record);
+                records++;
+            }
+        }
+        return records;
+    }
+
+    //Flyweight view of one journal record
+    public static final class AuditRecord {
+
+        private final MappedByteBuffer buffer;
+        private final long[] cents;
+        private final int bytes;
+        private int offset;
+
+        private AuditRecord(MappedByteBuffer buffer, long[] cents) {
+            this.buffer = buffer;
+            this.cents = cents;
+            this.bytes = recordBytes(cents.length);
+        }
+
+        public long timestampMillis() {
+            return buffer.getLong(offset + TIMESTAMP_OFFSET);
+        }
+
+        public long amountCents() {
+            return buffer.getLong(offset + AMOUNT_OFFSET);
+        }
+
+        public boolean hasPrevious() {
+            return (buffer.getInt(offset + FLAGS_OFFSET) & FLAG_PREVIOUS) != 0;
+        }
+
+        //Previous amount in cents, or AuditJournal.NO_PREVIOUS
+        public long previousCents() {
+            return buffer.getLong(offset + PREVIOUS_OFFSET);
+        }
+
+        public int denominations() {
+            return cents.length;
+        }
+
+        public long denominationCents(int index) {
+            return cents[index];
+        }
+
+        public long count(int index) {
+            return buffer.getLong(offset + COUNTS_OFFSET + index * Long.BYTES);
+        }
+
+        //Change of the count against the previous breakdown, 0 when the record keeps no previous counts
+        public long change(int index) {
+            if ((buffer.getInt(offset + FLAGS_OFFSET) & FLAG_PREVIOUS_COUNTS) == 0) {
+                return 0;
+            }
+            return count(index) - buffer.getInt(offset + previousCountsOffset(cents.length) + index * Integer.BYTES);
+        }
+    }
+
+    //Record count, amount total and pieces per denomination value of a replay. Counts are added by index within a
+    //segment, where every record lists the same denominations, and merged by value when the segment ends, since a
+    //reload switches to other denominations from the next segment on.
+    static final class Totals implements RecordVisitor {
+
+        private final long[] cents = new long[maxDenominations()];
+        private final long[] pieces = new long[maxDenominations()];
+        private final SortedMap<Long, Long> piecesByCents = new TreeMap<>(Comparator.reverseOrder());
+        private int denominations;
+        private long records;
+        private long totalCents;
+
+        @Override
+        public void visit(AuditRecord record) {
+            records++;
+            totalCents += record.amountCents();
+            denominations = record.denominations();
+            for (int i = 0; i < denominations; i++) {
+                cents[i] = record.denominationCents(i);
+                pieces[i] += record.count(i);
+            }
+        }
+
+        private void endSegment() {
+            for (int i = 0; i < denominations; i++) {
+                piecesByCents.merge(cents[i], pieces[i], Long::sum);
+            }
+            Arrays.fill(pieces, 0);
+            denominations = 0;
+        }
+
+        long records() {
+            return records;
+        }
+
+        long totalCents() {
+            return totalCents;
+        }
+
+        //Pieces handed out per denomination in cents, highest first
+        SortedMap<Long, Long> piecesByCents() {
+            return piecesByCents;
+        }
+    }
+
+    //Totals of every committed record, each of which is also handed to the visitor
+    static Totals totals(Path directory, RecordVisitor visitor) throws IOException {
+        Totals totals = new Totals();
+        RecordVisitor both = record -> {
+            totals.visit(record);
+            visitor.visit(record);
+        };
+        for (Path segment : segments(directory)) {
+            replaySegment(segment, both);
+            totals.endSegment();
+        }
+        return totals;
+    }
+
+    //Replay tool: prints a summary of the journal, or every record as CSV with --csv
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: AuditJournalReader <journal directory> [--csv]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        boolean csv = args.length > 1 && "--csv".equals(args[1]);
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        StringBuilder line = new StringBuilder(256);
+
+        long start = System.nanoTime();
+        Totals totals = totals(directory, record -> {
+            if (csv) {
+                line.setLength(0);
+                line.append(record.timestampMillis()).append(',').append(record.amountCents()).append(',');
+                if (record.hasPrevious()) {
+                    line.append(record.previousCents());
+                }
+                for (int i = 0; i < record.denominations(); i++) {
+                    line.append(',').append(record.count(i));
+                }
+                for (int i = 0; i < record.denominations(); i++) {
+                    line.append(',').append(record.change(i));
+                }
+                try {
+                    out.append(line).append('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        long nanos = System.nanoTime() - start;
+        out.flush();
+
+        if (!csv) {
+            long records = totals.records();
+            System.out.printf("records=%d totalCents=%d seconds=%.3f recordsPerSecond=%.0f%n",
+                    records, totals.totalCents(), nanos / 1e9, records / Math.max(nanos / 1e9, 1e-9));
+            totals.piecesByCents().forEach((cents, pieces) -> System.out.printf("%.2f: %d%n", cents / 100.0, pieces));
+        }
+    }
+}
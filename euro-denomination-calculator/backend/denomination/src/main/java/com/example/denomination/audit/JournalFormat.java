@@ -0,0 +1,96 @@
+package com.example.denomination.audit;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+//Layout of the journal segment files.
+//A segment starts with a header page (magic, version, record size, denomination count, denomination cents) followed
+//by fixed-width little-endian records:
+//  int commit marker, int flags, long timestamp millis, long amount cents, long previous cents,
+//  long breakdown count per denomination, int previous breakdown count per denomination, padded to 8 bytes.
+//Changes are not stored but derived from both counts. Previous counts beyond the int range, which only treasury-sized
+//previous amounts reach, are not kept; such records carry FLAG_PREVIOUS without FLAG_PREVIOUS_COUNTS.
+//The commit marker is written last with release semantics, so readers never see half-written records.
+final class JournalFormat {
+
+    static final long MAGIC = 0x44454E4F4D4A524EL;
+    static final int VERSION = 3;
+    static final int HEADER_BYTES = 4096;
+    static final int COMMITTED = 0x5245434F;
+    static final int FLAG_PREVIOUS = 1;
+    static final int FLAG_PREVIOUS_COUNTS = 2;
+
+    static final int COMMIT_OFFSET = 0;
+    static final int FLAGS_OFFSET = 4;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int AMOUNT_OFFSET = 16;
+    static final int PREVIOUS_OFFSET = 24;
+    static final int COUNTS_OFFSET = 32;
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    //Ordered access to the commit marker of a record
+    static final VarHandle COMMIT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private JournalFormat() {
+    }
+
+    static int recordBytes(int denominations) {
+        int bytes = previousCountsOffset(denominations) + Integer.BYTES * denominations;
+        return (bytes + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    static int previousCountsOffset(int denominations) {
+        return COUNTS_OFFSET + Long.BYTES * denominations;
+    }
+
+    static int maxDenominations() {
+        return (HEADER_BYTES - 24) / Long.BYTES;
+    }
+
+    static void writeHeader(ByteBuffer buffer, long[] cents) {
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, VERSION);
+        buffer.putInt(12, recordBytes(cents.length));
+        buffer.putInt(16, cents.length);
+        for (int i = 0; i < cents.length; i++) {
+            buffer.putLong(24 + i * Long.BYTES, cents[i]);
+        }
+    }
+
+    //Denomination cents from a segment header
+    static long[] readHeader(ByteBuffer buffer, Path segment) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+            throw new IllegalStateException("Not an audit journal segment: " + segment);
+        }
+        long[] cents = new long[buffer.getInt(16)];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = buffer.getLong(24 + i * Long.BYTES);
+        }
+        if (buffer.getInt(12) != recordBytes(cents.length)) {
+            throw new IllegalStateException("Unexpected record size in " + segment);
+        }
+        return cents;
+    }
+
+    static String segmentName(long sequence) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+    }
+
+    //Sequence number of a segment file name, or -1 for other files
+    static long segmentSequence(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.denomination.audit;
+
+import com.example.denomination.engine.DenominationSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static com.example.denomination.audit.JournalFormat.*;
+
+//Append-only audit journal of fixed-width records in memory-mapped segment files.
+//Writers claim a record slot with a single atomic increment and write it directly into the mapping, so appends take
+//no lock. The next segment is mapped ahead of time and full ones are flushed to disk afterwards, both on a background
+//thread, so the writer that finds a segment full only swaps in the spare; the others wait for it to be published.
+//
+//The journal records calculations, it does not gate them: when no segment can be mapped, for example on a full disk,
+//the record is dropped and counted, the failure is logged, and the calculation is answered as usual. Mapping is tried
+//again for the next record.
+public class MappedAuditJournal implements AuditJournal, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedAuditJournal.class);
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long[] cents;
+    private final int recordBytes;
+    private final int recordsPerSegment;
+    private final AtomicReference<Segment> current = new AtomicReference<>();
+    private final AtomicLong sequences;
+    private final Map<List<Long>, MappedAuditJournal> journals;
+    private final ExecutorService background;
+    private final LongAdder dropped = new LongAdder();
+    //Next segment, mapped in the background; replaced under the journal's lock
+    private CompletableFuture<Segment> spare;
+    private boolean failing;
+
+    public MappedAuditJournal(Path directory, DenominationSet set, long segmentBytes) throws IOException {
+        this(directory, set, segmentBytes, new AtomicLong(firstSequence(directory) - 1), new ConcurrentHashMap<>(),
+                Executors.newSingleThreadExecutor(Thread.ofPlatform().name("audit-journal").daemon().factory()));
+    }
+
+    //Journals of different sets in one directory share the segment numbering, the background thread and are closed
+    //together, one per set
+    private MappedAuditJournal(Path directory, DenominationSet set, long segmentBytes, AtomicLong sequences,
+                               Map<List<Long>, MappedAuditJournal> journals, ExecutorService background)
+            throws IOException {
+        if (set.size() > maxDenominations()) {
+            throw new IllegalArgumentException("At most " + maxDenominations() + " denominations can be journaled");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.cents = new long[set.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = set.cents(i);
+        }
+        this.recordBytes = recordBytes(cents.length);
+        this.recordsPerSegment = (int) Math.min((segmentBytes - HEADER_BYTES) / recordBytes,
+                (Integer.MAX_VALUE - HEADER_BYTES) / recordBytes);
+        if (recordsPerSegment < 1) {
+            throw new IllegalArgumentException("Segment size is too small for a single record: " + segmentBytes);
+        }
+        this.sequences = sequences;
+        this.journals = journals;
+        this.background = background;
+
+        current.set(map(sequences.incrementAndGet()));
+        synchronized (this) {
+            spare = prepare();
+        }
+        journals.put(key(set), this);
+        logger.info("Audit journal writing to {} in segments of {} records", directory, recordsPerSegment);
+    }
+
+    //Records of another set go to segments of their own in the same directory, from the next segment number on.
+    //Calculations still running on this set keep appending to this journal. A set journaled before continues in its
+    //own journal, so reloading back and forth keeps one journal and one mapped segment per distinct set; its records
+    //then interleave with those of the other sets by segment, and their timestamps give the order across them.
+    @Override
+    public AuditJournal forSet(DenominationSet set) throws IOException {
+        MappedAuditJournal journal = journals.get(key(set));
+        return journal != null
+                ? journal
+                : new MappedAuditJournal(directory, set, segmentBytes, sequences, journals, background);
+    }
+
+    private static List<Long> key(DenominationSet set) {
+        Long[] cents = new Long[set.size()];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = set.cents(i);
+        }
+        return List.of(cents);
+    }
+
+    @Override
+    public void append(long amountCents, long previousCents, long[] breakdown, long[] previousBreakdown) {
+        Segment segment = current.get();
+        int slot;
+        while ((slot = segment.claim()) < 0) {
+            segment = rollOver(segment);
+            if (segment == null) {
+                dropped.increment();
+                return;
+            }
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = HEADER_BYTES + slot * recordBytes;
+        int flags = 0;
+        int countOffset = offset + COUNTS_OFFSET;
+        int previousOffset = offset + previousCountsOffset(cents.length);
+        for (int i = 0; i < cents.length; i++) {
+            buffer.putLong(countOffset + i * Long.BYTES, breakdown[i]);
+        }
+        if (previousBreakdown != null) {
+            flags = FLAG_PREVIOUS;
+            if (fitsInts(previousBreakdown)) {
+                flags |= FLAG_PREVIOUS_COUNTS;
+                for (int i = 0; i < cents.length; i++) {
+                    buffer.putInt(previousOffset + i * Integer.BYTES, (int) previousBreakdown[i]);
+                }
+            }
+        }
+        buffer.putInt(offset + FLAGS_OFFSET, flags);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, System.currentTimeMillis());
+        buffer.putLong(offset + AMOUNT_OFFSET, amountCents);
+        buffer.putLong(offset + PREVIOUS_OFFSET, previousCents);
+        COMMIT.setRelease(buffer, offset + COMMIT_OFFSET, COMMITTED);
+    }
+
+    private static boolean fitsInts(long[] counts) {
+        for (long count : counts) {
+            if (count > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Publish the spare segment once, whichever writer found the full one first, and start mapping the one after it.
+    //Returns null when the spare could not be mapped; the full segment stays current, so the next writer tries again
+    //with a new spare.
+    private synchronized Segment rollOver(Segment full) {
+        Segment segment = current.get();
+        if (segment != full) {
+            return segment;
+        }
+        CompletableFuture<Segment> next = spare;
+        spare = prepare();
+        try {
+            segment = next.join();
+        } catch (CompletionException e) {
+            if (!failing) {
+                failing = true;
+                logger.error("Could not map an audit journal segment in {}; dropping records until one can be mapped",
+                        directory, e.getCause());
+            }
+            return null;
+        }
+        if (failing) {
+            failing = false;
+            logger.warn("Audit journal in {} is writing again; {} records were dropped", directory, dropped.sum());
+        }
+        current.set(segment);
+        try {
+            background.execute(() -> force(full));
+        } catch (RejectedExecutionException e) {
+            force(full);
+        }
+        return segment;
+    }
+
+    private CompletableFuture<Segment> prepare() {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return map(sequences.incrementAndGet());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, background);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IOException("Audit journal is closed", e));
+        }
+    }
+
+    private Segment map(long sequence) throws IOException {
+        Path file = directory.resolve(segmentName(sequence));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) recordsPerSegment * recordBytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            writeHeader(buffer, cents);
+            return new Segment(file, buffer, recordsPerSegment);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private void force(Segment segment) {
+        try {
+            segment.buffer.force();
+        } catch (UncheckedIOException e) {
+            logger.error("Could not flush audit journal segment {}", segment.file, e);
+        }
+    }
+
+    //Segments are never reopened for writing, so a restart continues after the highest existing one
+    private static long firstSequence(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(JournalFormat::segmentSequence).max().orElse(0) + 1;
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    //Records dropped because no segment could be mapped for them
+    public long droppedRecords() {
+        return dropped.sum();
+    }
+
+    //Flushes the journals of every set written to the directory, after the segments retired before, and removes the
+    //spare segments that were never written
+    @Override
+    public void close() {
+        background.shutdown();
+        try {
+            if (!background.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Audit journal in {} is still flushing segments", directory);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (MappedAuditJournal journal : journals.values()) {
+            force(journal.current.get());
+            Segment unused;
+            synchronized (journal) {
+                unused = journal.spare.isDone() && !journal.spare.isCompletedExceptionally()
+                        ? journal.spare.join()
+                        : null;
+                journal.spare = CompletableFuture.failedFuture(new IOException("Audit journal is closed"));
+            }
+            if (unused != null) {
+                try {
+                    Files.deleteIfExists(unused.file);
+                } catch (IOException e) {
+                    logger.warn("Could not remove unused audit journal segment {}", unused.file, e);
+                }
+            }
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final AtomicLong next = new AtomicLong();
+
+        private Segment(Path file, MappedByteBuffer buffer, int capacity) {
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = capacity;
+        }
+
+        //Record slot for one append, or -1 once the segment is full
+        private int claim() {
+            long slot = next.getAndIncrement();
+            return slot < capacity ? (int) slot : -1;
+        }
+    }
+}
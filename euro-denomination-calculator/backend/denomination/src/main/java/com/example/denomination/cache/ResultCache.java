@@ -0,0 +1,100 @@
+package com.example.denomination.cache;
+
+import com.example.denomination.model.ChangeMode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//Serialized responses of plain calculations, keyed by denomination set id, amount, previous amount and change mode.
+//
+//The cache is a fixed array of two-way buckets, so it never holds more than its capacity and a lookup is two slot
+//reads with no locks and no allocation. A new entry goes to the front slot of its bucket and pushes the entry there
+//to the back slot, evicting the one that was in the back; a hit in the back slot moves it to the front. Concurrent
+//updates of one bucket may lose an entry, which only costs a recalculation. Entries of a set that is no longer used
+//are never hit again and age out the same way.
+public class ResultCache {
+
+    //Previous amount of a key without one; previous amounts are not negative
+    public static final long NO_PREVIOUS = -1;
+
+    private record Entry(int setId, long amountCents, long previousCents, ChangeMode changeMode, byte[] body) {
+
+        boolean matches(int setId, long amountCents, long previousCents, ChangeMode changeMode) {
+            return this.amountCents == amountCents && this.previousCents == previousCents
+                    && this.setId == setId && this.changeMode == changeMode;
+        }
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int bucketMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    //Holds at least maxEntries responses, rounded up to a power of two
+    public ResultCache(int maxEntries, MeterRegistry registry) {
+        if (maxEntries < 2) {
+            throw new IllegalArgumentException("Result cache needs room for at least 2 entries");
+        }
+        int capacity = Integer.highestOneBit(maxEntries - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.bucketMask = capacity / 2 - 1;
+
+        FunctionCounter.builder("denomination.cache.requests", hits, LongAdder::sum)
+                .description("Lookups of the result cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("denomination.cache.requests", misses, LongAdder::sum)
+                .description("Lookups of the result cache")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("denomination.cache.evictions", evictions, LongAdder::sum)
+                .description("Responses evicted from the result cache to make room")
+                .register(registry);
+    }
+
+    //First slot of the key's bucket
+    private int bucket(int setId, long amountCents, long previousCents, ChangeMode changeMode) {
+        long hash = amountCents * 0x9E3779B97F4A7C15L ^ previousCents * 0xC2B2AE3D27D4EB4FL
+                ^ (long) setId << 32 ^ changeMode.ordinal();
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 32;
+        return ((int) hash & bucketMask) << 1;
+    }
+
+    //Cached response body, or null when the key is not cached. The array is shared and must not be modified.
+    public byte[] get(int setId, long amountCents, long previousCents, ChangeMode changeMode) {
+        int front = bucket(setId, amountCents, previousCents, changeMode);
+        Entry entry = slots.get(front);
+        if (entry != null && entry.matches(setId, amountCents, previousCents, changeMode)) {
+            hits.increment();
+            return entry.body();
+        }
+        Entry back = slots.get(front + 1);
+        if (back != null && back.matches(setId, amountCents, previousCents, changeMode)) {
+            hits.increment();
+            slots.set(front, back);
+            slots.set(front + 1, entry);
+            return back.body();
+        }
+        misses.increment();
+        return null;
+    }
+
+    //Cache a response body, which must not be modified afterwards
+    public void put(int setId, long amountCents, long previousCents, ChangeMode changeMode, byte[] body) {
+        int front = bucket(setId, amountCents, previousCents, changeMode);
+        Entry previousFront = slots.getAndSet(front, new Entry(setId, amountCents, previousCents, changeMode, body));
+        if (previousFront != null && slots.getAndSet(front + 1, previousFront) != null) {
+            evictions.increment();
+        }
+    }
+
+    //Number of responses the cache can hold
+    public int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.denomination.config;
+
+import com.example.denomination.admission.AdmissionControl;
+import com.example.denomination.admission.AdmissionFilter;
+import com.example.denomination.admission.ConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Configuration
+public class AdmissionConfig {
+
+    //Concurrency limit with a bounded queue, and a token bucket per client listed under
+    //denomination.admission.clients.<key> plus a shared one when denomination.admission.rate is set
+    @Bean
+    public AdmissionControl admissionControl(
+            Environment environment, MeterRegistry registry,
+            @Value("${denomination.admission.max-concurrent:64}") int maxConcurrent,
+            @Value("${denomination.admission.max-queued:256}") int maxQueued,
+            @Value("${denomination.admission.max-wait:PT0.05S}") Duration maxWait,
+            @Value("${denomination.admission.rate:0}") double rate,
+            @Value("${denomination.admission.burst:0}") int burst) {
+        Map<String, AdmissionControl.ClientLimit> clients = Binder.get(environment)
+                .bind("denomination.admission.clients", Bindable.mapOf(String.class, AdmissionControl.ClientLimit.class))
+                .orElse(Map.of());
+        return new AdmissionControl(new ConcurrencyLimiter(maxConcurrent, maxQueued, maxWait.toNanos()),
+                rate > 0 ? new AdmissionControl.ClientLimit(rate, burst) : null, clients, registry);
+    }
+
+    //POST /api/calculate and GET /api/calculate/{cents} are admitted; batches (excluded by the filter) and forecasts
+    //are long-running uploads of their own
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(
+            AdmissionControl admissionControl,
+            @Value("${denomination.admission.enabled:true}") boolean enabled,
+            @Value("${denomination.admission.client-header:X-API-Key}") String clientHeader) {
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(admissionControl, clientHeader));
+        registration.addUrlPatterns("/api/calculate", "/api/calculate/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
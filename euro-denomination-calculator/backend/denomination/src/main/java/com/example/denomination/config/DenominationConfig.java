@@ -0,0 +1,111 @@
+package com.example.denomination.config;
+
+import com.example.denomination.audit.AuditJournal;
+import com.example.denomination.cache.ResultCache;
+import com.example.denomination.audit.MappedAuditJournal;
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.drawer.DrawerStore;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.service.DenominationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Configuration
+@EnableScheduling
+public class DenominationConfig {
+
+    @Value("${denomination.audit.enabled:false}")
+    private boolean auditEnabled;
+
+    @Value("${denomination.audit.directory:audit}")
+    private Path auditDirectory;
+
+    @Value("${denomination.audit.segment-bytes:67108864}")
+    private long auditSegmentBytes;
+
+    //Limits for compiling denomination.values into an engine
+    @Bean
+    public EngineSettings engineSettings(
+            @Value("${denomination.optimal.table-limit:2000000}") long optimalTableLimit,
+            @Value("${denomination.lookup.max-bytes:16777216}") long lookupTableMaxBytes) {
+        return new EngineSettings(optimalTableLimit, lookupTableMaxBytes);
+    }
+
+    //Audit journal of the default currency
+    @Bean
+    public AuditJournal auditJournal(
+            @Value("${denomination.currency:EUR}") String currency,
+            @Value("${denomination.values}") double[] denominations) throws IOException {
+        return openAuditJournal(currency, DenominationSet.of(denominations));
+    }
+
+    //Memory-mapped audit journal per currency when auditing is enabled, a journal that records nothing otherwise
+    private AuditJournal openAuditJournal(String currency, DenominationSet set) throws IOException {
+        if (!auditEnabled) {
+            return AuditJournal.DISABLED;
+        }
+        return new MappedAuditJournal(auditDirectory.resolve(currency), set, auditSegmentBytes);
+    }
+
+    //Last breakdown per drawer id, so drawer requests are diffed without recalculating the previous amount
+    @Bean
+    public DrawerStore drawerStore(
+            @Value("${denomination.drawers.max:100000}") int maxDrawers,
+            @Value("${denomination.drawers.idle-timeout:PT12H}") Duration idleTimeout) {
+        return new DrawerStore(maxDrawers, idleTimeout.toMillis());
+    }
+
+    //Serialized responses of GET /api/calculate/{cents}, bounded in count
+    @Bean
+    public ResultCache resultCache(@Value("${denomination.cache.max-entries:65536}") int maxEntries,
+                                   MeterRegistry meterRegistry) {
+        return new ResultCache(maxEntries, meterRegistry);
+    }
+
+    //The default currency from denomination.values followed by every denomination.currencies.<ISO code> entry,
+    //each compiled into its own service
+    @Bean
+    public CurrencyRegistry currencyRegistry(Environment environment, DenominationService denominationService,
+                                             @Value("${denomination.currency:EUR}") String defaultCurrency,
+                                             EngineSettings settings, MeterRegistry meterRegistry,
+                                             DrawerStore drawerStore) throws IOException {
+        Map<String, double[]> configured = Binder.get(environment)
+                .bind("denomination.currencies", Bindable.mapOf(String.class, double[].class))
+                .orElse(Map.of());
+
+        Map<String, DenominationService> services = new LinkedHashMap<>();
+        List<AutoCloseable> journals = new ArrayList<>();
+        services.put(defaultCurrency, denominationService);
+        for (Map.Entry<String, double[]> entry : new TreeMap<>(configured).entrySet()) {
+            String currency = entry.getKey();
+            if (services.containsKey(currency)) {
+                throw new IllegalArgumentException("Currency configured twice: " + currency);
+            }
+            DenominationSet set = DenominationSet.of(entry.getValue());
+            AuditJournal journal = openAuditJournal(currency, set);
+            if (journal instanceof AutoCloseable closeable) {
+                journals.add(closeable);
+            }
+            services.put(currency, new DenominationService(entry.getValue(), settings,
+                    new CalculationMetrics(meterRegistry, set, currency), journal, drawerStore));
+        }
+        return new CurrencyRegistry(defaultCurrency, services, journals);
+    }
+}
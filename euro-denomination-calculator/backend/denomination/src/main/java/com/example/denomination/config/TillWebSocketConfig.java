@@ -0,0 +1,26 @@
+package com.example.denomination.config;
+
+import com.example.denomination.till.TillWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class TillWebSocketConfig implements WebSocketConfigurer {
+
+    private final TillWebSocketHandler tillWebSocketHandler;
+
+    @Value("${spring.web.cors.allowed-origins}")
+    private String[] allowedOrigins;
+
+    //Plain WebSocket without SockJS or STOMP, a till sends one amount per text message
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(tillWebSocketHandler, "/api/till").setAllowedOrigins(allowedOrigins);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.denomination.config;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.wire.CalculationRequestConverter;
+import com.example.denomination.wire.DenominationResultConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    private final CurrencyRegistry currencyRegistry;
+
+    //Added after Jackson, so JSON stays the default and the binary format is only used when asked for by Accept
+    //or Content-Type
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CalculationRequestConverter(currencyRegistry));
+        converters.add(new DenominationResultConverter(currencyRegistry));
+    }
+}
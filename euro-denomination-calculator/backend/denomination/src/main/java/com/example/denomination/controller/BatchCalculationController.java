@@ -0,0 +1,33 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.service.BatchCalculationService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "${spring.web.cors.allowed-origins}")
+public class BatchCalculationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCalculationController.class);
+    private final BatchCalculationService batchCalculationService;
+
+    //Calculate newline-delimited requests, streaming one result or error line back per request line
+    @PostMapping(value = "/calculate/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void calculateBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        var summary = batchCalculationService.process(request.getInputStream(), response.getOutputStream());
+        logger.info("Completed batch calculation: lines={}, failed={}", summary.lines(), summary.failed());
+    }
+}
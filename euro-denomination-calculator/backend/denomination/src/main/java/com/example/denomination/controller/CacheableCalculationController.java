@@ -0,0 +1,142 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.cache.ResultCache;
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
+import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+//GET form of the calculation for amounts in cents, such as /api/calculate/23423?previous=4532. Without stock or a
+//drawer the result only depends on the amounts, the change mode and the currency's denominations, so it is sent with
+//a strong ETag built from them and may be kept by browsers and proxies for max-age. The serialized body is kept in
+//the result cache, so hot amounts are answered without calculating or serializing them again; a request whose
+//If-None-Match holds the ETag is answered with 304 before the cache is looked at. A request whose calculation runs on
+//a set reloaded after the ETag was built starts over on the new set, so a body is never sent or cached under the ETag
+//of another set.
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "${spring.web.cors.allowed-origins}")
+public class CacheableCalculationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheableCalculationController.class);
+    private final CurrencyRegistry currencyRegistry;
+    private final ResultCache resultCache;
+    private final ObjectWriter writer;
+    private final CalculationMetrics metrics;
+    private final CacheControl cacheControl;
+
+    public CacheableCalculationController(CurrencyRegistry currencyRegistry, ResultCache resultCache,
+                                          ObjectMapper objectMapper, CalculationMetrics metrics,
+                                          @Value("${denomination.cache.max-age:P1D}") Duration maxAge) {
+        this.currencyRegistry = currencyRegistry;
+        this.resultCache = resultCache;
+        this.writer = objectMapper.writer();
+        this.metrics = metrics;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    //Calculate denominations for an amount in cents and optionally compare with a previous amount in cents
+    @GetMapping("/calculate/{cents}")
+    public ResponseEntity<?> calculate(@PathVariable long cents,
+                                       @RequestParam(required = false) Long previous,
+                                       @RequestParam(required = false) String currency,
+                                       @RequestParam(defaultValue = "DIFFERENCE") ChangeMode changeMode,
+                                       WebRequest webRequest) {
+        String invalid = CalculationRequest.validate(cents, previous, null);
+        if (invalid != null) {
+            metrics.rejected(Rejection.of(invalid));
+            return ResponseEntity.badRequest().body(invalid);
+        }
+
+        try {
+            DenominationService denominationService = currencyRegistry.service(currency);
+            for (boolean retry = false; ; retry = true) {
+                DenominationEngine engine = denominationService.engine();
+                int setId = engine.set().id();
+                // With cash rounding the result is that of the rounded amounts, so they key the response; the set's
+                // result for an amount it can make is the same with or without rounding
+                long amountCents = engine.round(cents);
+                long previousCents = previous != null ? engine.round(previous) : ResultCache.NO_PREVIOUS;
+
+                String etag = etag(setId, amountCents, previousCents, changeMode);
+                // The check already puts the ETag on the response, unless a previous try has put one there
+                if (retry) {
+                    replaceETag(webRequest, etag);
+                }
+                if (webRequest.checkNotModified(etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(cacheControl).build();
+                }
+
+                byte[] body = resultCache.get(setId, amountCents, previousCents, changeMode);
+                if (body == null) {
+                    var result = denominationService.calculate(new CalculationRequest(amountCents,
+                            previous != null ? previousCents : null, null, null, currency, changeMode));
+                    // A reload after the engine was read calculates with the new set, whose result must not be
+                    // sent or cached under this set's ETag; start over on the new set
+                    DenominationSet produced = DenominationSet.ofView(result.breakdown());
+                    if (produced != null && produced.id() != setId) {
+                        continue;
+                    }
+                    body = writer.writeValueAsBytes(result);
+                    resultCache.put(setId, amountCents, previousCents, changeMode, body);
+                }
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag(etag)
+                        .cacheControl(cacheControl)
+                        .body(body);
+            }
+
+        } catch (IllegalArgumentException e) {
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            logger.debug("Invalid request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            metrics.failed();
+            logger.error("Unexpected error calculating denominations for {} cents", cents, e);
+            return ResponseEntity.internalServerError()
+                    .body("Error calculating denominations: " + e.getMessage());
+        }
+    }
+
+    private static void replaceETag(WebRequest webRequest, String etag) {
+        if (webRequest instanceof NativeWebRequest nativeRequest) {
+            HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+            if (response != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+            }
+        }
+    }
+
+    //Strong validator of a response: the bytes only change with the set or the request
+    static String etag(int setId, long cents, long previousCents, ChangeMode changeMode) {
+        StringBuilder etag = new StringBuilder(40).append('"').append(Integer.toHexString(setId)).append('-').append(cents);
+        if (previousCents != ResultCache.NO_PREVIOUS) {
+            etag.append('-').append(previousCents);
+        }
+        if (changeMode == ChangeMode.MINIMAL_EXCHANGE) {
+            etag.append("-x");
+        }
+        return etag.append('"').toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+//Replaces the denominations of a currency without a restart, for example to withdraw the 1- and 2-cent coins.
+//Disabled unless denomination.admin.token is set, and then only for requests sending it in X-Admin-Token.
+@RestController
+@RequestMapping("/api/admin")
+public class DenominationAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DenominationAdminController.class);
+    private final CurrencyRegistry currencyRegistry;
+    private final byte[] token;
+
+    public DenominationAdminController(CurrencyRegistry currencyRegistry,
+                                       @Value("${denomination.admin.token:}") String token) {
+        this.currencyRegistry = currencyRegistry;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    //Compile the denominations, such as [200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05], and switch the
+    //currency to them; returns the denominations now listed for it. With cashRounding=true amounts are rounded to
+    //the nearest multiple of the smallest denomination, otherwise amounts it cannot make are rejected.
+    @PutMapping("/denominations/{currency}")
+    public ResponseEntity<?> reloadDenominations(@PathVariable String currency,
+                                                 @RequestHeader(value = "X-Admin-Token", required = false) String token,
+                                                 @RequestParam(defaultValue = "false") boolean cashRounding,
+                                                 @RequestBody double[] denominations) {
+        if (!authorized(token)) {
+            logger.warn("Rejected reload of {} denominations without a valid admin token", currency);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Reloading denominations is not allowed");
+        }
+        try {
+            currencyRegistry.currency(currency);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            List<String> listed = currencyRegistry.reload(currency, denominations, cashRounding).denominations();
+            logger.info("Reloaded {} denominations: {}{}", currency, listed, cashRounding ? " with cash rounding" : "");
+            return ResponseEntity.ok(listed);
+        } catch (IllegalArgumentException e) {
+            logger.debug("Invalid denominations for {}: {}", currency, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Unexpected error reloading {} denominations", currency, e);
+            return ResponseEntity.internalServerError().body("Error reloading denominations: " + e.getMessage());
+        }
+    }
+
+    private boolean authorized(String token) {
+        return this.token.length > 0 && token != null
+                && MessageDigest.isEqual(this.token, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
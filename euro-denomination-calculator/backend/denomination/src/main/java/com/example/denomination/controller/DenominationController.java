@@ -1,16 +1,21 @@
 package com.example.denomination.controller;
 
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
 import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.service.ChangeNotPossibleException;
 import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.beans.factory.annotation.Value;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -19,44 +24,68 @@ import java.util.stream.Collectors;
 public class DenominationController {
 
     private static final Logger logger = LoggerFactory.getLogger(DenominationController.class);
-    private final DenominationService denominationService;
-
-    @Value("${denomination.values}")
-    private List<Double> availableDenominations;
+    private final CurrencyRegistry currencyRegistry;
+    private final CalculationMetrics metrics;
 
     //Calculate denominations for a given amount and optionally compare with previous amount
     @PostMapping("/calculate")
     public ResponseEntity<?> calculate(@RequestBody CalculationRequest request) {
-        logger.info("Received calculation request: amount={}, previousAmount={}",
-                request.amount(), request.previousAmount());
+        // Per-request logging is debug only, the calculation metrics cover normal traffic
+        if (logger.isDebugEnabled()) {
+            logger.debug("Received calculation request: amountCents={}, previousAmountCents={}",
+                    request.amountCents(), request.previousAmountCents());
+        }
 
         try {
-            // Validating the input amount given by user
-            if (request.amount() <= 0) {
-                logger.warn("Invalid amount provided: {}", request.amount());
-                return ResponseEntity.badRequest().body("Amount must be positive");
+            // Selecting the currency's service, the default one when the request names none
+            DenominationService denominationService = currencyRegistry.service(request.currency());
+
+            // Validating the amounts and drawer given by user
+            String invalid = request.validate();
+            if (invalid != null) {
+                metrics.rejected(Rejection.of(invalid));
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Invalid request for {} cents: {}", request.amountCents(), invalid);
+                }
+                return ResponseEntity.badRequest().body(invalid);
             }
 
-            // Calculating the denominations using the service layers
-            var result = denominationService.calculateDenominations(
-                    request.amount(),
-                    request.previousAmount()
-            );
+            // Calculating the denominations using the service layers, limited to the drawer stock when given
+            var result = denominationService.calculate(request);
 
-            logger.info("Successfully calculated denominations for amount: {}", request.amount());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Successfully calculated denominations for {} cents", request.amountCents());
+            }
             return ResponseEntity.ok(result);
 
+        } catch (ChangeNotPossibleException e) {
+            metrics.rejected(Rejection.CHANGE_NOT_POSSIBLE);
+            logger.debug("Change not possible: {}", e.getMessage());
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.warn("Invalid request: {}", e.getMessage());
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            logger.debug("Invalid request: {}", e.getMessage());
             return ResponseEntity.badRequest().body(e.getMessage());
         } catch (Exception e) {
-            logger.error("Unexpected error calculating denominations for amount: {}",
-                    request.amount(), e);
+            metrics.failed();
+            logger.error("Unexpected error calculating denominations for {} cents",
+                    request.amountCents(), e);
             return ResponseEntity.internalServerError()
                     .body("Error calculating denominations: " + e.getMessage());
         }
     }
 
+    //Malformed JSON, including amounts with more than two decimal places, is a bad request like any invalid input
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<String> malformedRequest(HttpMessageNotReadableException e) {
+        metrics.rejected(Rejection.INVALID_REQUEST);
+        String message = e.getCause() instanceof JsonProcessingException cause
+                ? cause.getOriginalMessage()
+                : e.getMessage();
+        logger.debug("Malformed request: {}", message);
+        return ResponseEntity.badRequest().body("Malformed request: " + message);
+    }
+
     //Health check to verify that endpoint service is running properly
     @GetMapping("/health")
     public ResponseEntity<String> healthCheck() {
@@ -64,15 +93,31 @@ public class DenominationController {
         logger.debug("Health check endpoint called");
         return ResponseEntity.ok("Backend is running");
     }
-    //Return supported denominations
+    //Return supported denominations of the default currency
     @GetMapping("/denominations")
     public ResponseEntity<List<String>> getAvailableDenominations() {
         logger.debug("Return supported denominations");
 
-        List<String> formattedDenominations = availableDenominations.stream()
-                .map(amount -> String.format("%.2f€", amount))
-                .collect(Collectors.toList());
+        return ResponseEntity.ok(currencyRegistry.defaultCurrency().denominations());
+    }
+
+    //Return supported denominations of a currency by ISO code
+    @GetMapping("/denominations/{currency}")
+    public ResponseEntity<List<String>> getAvailableDenominations(@PathVariable String currency) {
+        logger.debug("Return supported denominations of {}", currency);
+
+        try {
+            return ResponseEntity.ok(currencyRegistry.currency(currency).denominations());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    //Return supported denominations of every configured currency
+    @GetMapping("/currencies")
+    public ResponseEntity<Map<String, List<String>>> getCurrencies() {
+        logger.debug("Return configured currencies");
 
-        return ResponseEntity.ok(formattedDenominations);
+        return ResponseEntity.ok(currencyRegistry.denominationsByCode());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
+import com.example.denomination.service.ForecastService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "${spring.web.cors.allowed-origins}")
+public class ForecastController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForecastController.class);
+    private final ForecastService forecastService;
+    private final CalculationMetrics metrics;
+
+    //Total pieces per denomination for a stream of amounts, one per line
+    @PostMapping(value = "/forecast", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> forecast(@RequestParam(required = false) String currency, HttpServletRequest request)
+            throws IOException {
+        return forecast(request.getInputStream(), currency);
+    }
+
+    //Total pieces per denomination for an uploaded file of amounts, one per line
+    @PostMapping(value = "/forecast", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> forecastUpload(@RequestParam(required = false) String currency,
+                                            @RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream input = file.getInputStream()) {
+            return forecast(input, currency);
+        }
+    }
+
+    private ResponseEntity<?> forecast(InputStream input, String currency) throws IOException {
+        try {
+            return ResponseEntity.ok(forecastService.forecast(input, currency));
+        } catch (IllegalArgumentException e) {
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            logger.debug("Invalid forecast: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (ArithmeticException e) {
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            return ResponseEntity.badRequest().body("Total is too large");
+        }
+    }
+}
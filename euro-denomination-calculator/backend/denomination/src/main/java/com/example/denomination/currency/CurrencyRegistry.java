@@ -0,0 +1,127 @@
+package com.example.denomination.currency;
+
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.service.DenominationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Denomination sets by ISO currency code, each compiled once at startup into its own service.
+//Selecting a currency is a single map lookup and the listed denominations are formatted up front. Reloading a
+//currency rebuilds the lookups and publishes them with a single write, so readers never lock; until then binary
+//requests for the reloaded set are not recognised yet.
+public class CurrencyRegistry implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyRegistry.class);
+
+    //A configured currency with its service and its denominations formatted for display, highest first
+    public record Currency(String code, DenominationService service, List<String> denominations) {
+    }
+
+    //Lookups built from the sets the services hold, replaced as a whole on reload
+    private record Lookups(Currency defaultCurrency, Map<String, Currency> byCode, Map<Integer, Currency> bySetId,
+                           Map<String, List<String>> denominationsByCode) {
+    }
+
+    private final String defaultCode;
+    private final Map<String, DenominationService> services;
+    private final List<AutoCloseable> resources;
+    private volatile Lookups lookups;
+
+    //Services by ISO code in listing order; resources, such as audit journals of the services, are closed with the
+    //registry
+    public CurrencyRegistry(String defaultCode, Map<String, DenominationService> services,
+                            List<? extends AutoCloseable> resources) {
+        if (!services.containsKey(defaultCode)) {
+            throw new IllegalArgumentException("No denominations configured for default currency " + defaultCode);
+        }
+        this.defaultCode = defaultCode;
+        this.services = new LinkedHashMap<>(services);
+        this.resources = new ArrayList<>(resources);
+        this.lookups = index();
+        logger.info("Registered currencies {}, default {}", this.services.keySet(), defaultCode);
+    }
+
+    private Lookups index() {
+        Map<String, Currency> byCode = new HashMap<>();
+        Map<Integer, Currency> bySetId = new HashMap<>();
+        Map<String, List<String>> listing = new LinkedHashMap<>();
+        for (Map.Entry<String, DenominationService> entry : services.entrySet()) {
+            String code = entry.getKey();
+            DenominationSet set = entry.getValue().denominationSet();
+            Currency currency = new Currency(code, entry.getValue(), set.listing(code));
+            byCode.put(code, currency);
+            Currency sameSet = bySetId.putIfAbsent(set.id(), currency);
+            if (sameSet != null) {
+                logger.warn("{} uses the same denominations as {}, binary requests for them are calculated as {}",
+                        code, sameSet.code(), sameSet.code());
+            }
+            listing.put(code, currency.denominations());
+        }
+        return new Lookups(byCode.get(defaultCode), byCode, bySetId, Collections.unmodifiableMap(listing));
+    }
+
+    //Replace the denominations of a currency, compiling the new set before anything sees it; with cashRounding its
+    //amounts are rounded to the new set's unit instead of rejected when the set cannot make them
+    public synchronized Currency reload(String code, double[] denominations, boolean cashRounding) throws IOException {
+        Currency currency = currency(code);
+        currency.service().reload(denominations, cashRounding);
+        lookups = index();
+        return lookups.byCode().get(currency.code());
+    }
+
+    public Currency defaultCurrency() {
+        return lookups.defaultCurrency();
+    }
+
+    //Currency by ISO code, the default one when no code is given
+    public Currency currency(String code) {
+        Lookups lookups = this.lookups;
+        if (code == null) {
+            return lookups.defaultCurrency();
+        }
+        Currency currency = lookups.byCode().get(code);
+        if (currency == null) {
+            throw new IllegalArgumentException("Unknown currency: " + code);
+        }
+        return currency;
+    }
+
+    //Service of the currency, the default one when no code is given
+    public DenominationService service(String code) {
+        return currency(code).service();
+    }
+
+    //Currency whose denomination set has the given id, or null when none has
+    public Currency bySetId(int setId) {
+        Currency currency = lookups.bySetId().get(setId);
+        // A currency being reloaded may already have left the set
+        return currency != null && currency.service().denominationSet().id() == setId ? currency : null;
+    }
+
+    //Set with the given id, or null when no currency uses it
+    public DenominationSet setById(int setId) {
+        Currency currency = lookups.bySetId().get(setId);
+        DenominationSet set = currency != null ? currency.service().denominationSet() : null;
+        return set != null && set.id() == setId ? set : null;
+    }
+
+    //Formatted denominations of every currency, in configuration order
+    public Map<String, List<String>> denominationsByCode() {
+        return lookups.denominationsByCode();
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+}
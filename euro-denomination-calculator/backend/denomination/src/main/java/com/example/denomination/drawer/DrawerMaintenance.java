@@ -0,0 +1,72 @@
+package com.example.denomination.drawer;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+//Restores the drawer store at startup, evicts idle drawers and snapshots the store to local disk
+@Component
+public class DrawerMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrawerMaintenance.class);
+
+    private final DrawerStore drawerStore;
+    private final CurrencyRegistry currencyRegistry;
+    private final Path snapshotFile;
+
+    public DrawerMaintenance(DrawerStore drawerStore, CurrencyRegistry currencyRegistry, MeterRegistry registry,
+                             @Value("${denomination.drawers.snapshot.file:}") String snapshotFile) {
+        this.drawerStore = drawerStore;
+        this.currencyRegistry = currencyRegistry;
+        this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+        Gauge.builder("denomination.drawers.active", drawerStore, DrawerStore::size)
+                .description("Drawers whose last breakdown is kept")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void restore() throws IOException {
+        if (snapshotFile != null) {
+            int restored = drawerStore.restore(snapshotFile, currencyRegistry::setById);
+            logger.info("Restored {} drawers from {}", restored, snapshotFile);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${denomination.drawers.eviction-interval:PT1M}")
+    public void evictIdle() {
+        int evicted = drawerStore.evictIdle();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle drawers", evicted);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${denomination.drawers.snapshot.interval:PT1M}",
+            initialDelayString = "${denomination.drawers.snapshot.interval:PT1M}")
+    public void snapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        try {
+            int written = drawerStore.snapshot(snapshotFile);
+            logger.debug("Saved {} drawers to {}", written, snapshotFile);
+        } catch (IOException e) {
+            logger.error("Failed to save drawer snapshot {}", snapshotFile, e);
+        }
+    }
+
+    //Final snapshot on shutdown so no update since the last scheduled one is lost
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.denomination.drawer;
+
+import com.example.denomination.engine.DenominationSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+//Last breakdown of every active drawer, kept as the count array the engine produced together with its set.
+//
+//Drawers are spread over a fixed number of stripes, each a ConcurrentHashMap, so lookups never lock and the size
+//bound is enforced per stripe: a stripe that grows past its share evicts its least recently used drawer, which only
+//scans that stripe. Drawers idle for longer than the timeout are removed by evictIdle.
+public class DrawerStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DrawerStore.class);
+
+    private static final int STRIPES = 16;
+    private static final int SNAPSHOT_MAGIC = 0x44525752;
+    private static final int SNAPSHOT_VERSION = 3;
+
+    //Longest drawer id; snapshots write ids with writeUTF, which takes at most 65535 bytes, three per char at worst
+    public static final int MAX_ID_LENGTH = 256;
+
+    private final ConcurrentHashMap<String, Drawer>[] stripes;
+    private final int maxPerStripe;
+    private final long idleMillis;
+    private final LongSupplier clock;
+
+    public DrawerStore(int maxDrawers, long idleMillis) {
+        this(maxDrawers, idleMillis, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    DrawerStore(int maxDrawers, long idleMillis, LongSupplier clock) {
+        if (maxDrawers < 1 || idleMillis < 1) {
+            throw new IllegalArgumentException("Drawer limit and idle timeout must be positive");
+        }
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+        this.maxPerStripe = Math.max(1, (maxDrawers + STRIPES - 1) / STRIPES);
+        this.idleMillis = idleMillis;
+        this.clock = clock;
+    }
+
+    //Counts and the set they were calculated with, swapped together
+    private record Breakdown(DenominationSet set, long[] counts) {
+    }
+
+    private static final class Drawer {
+
+        private final AtomicReference<Breakdown> breakdown;
+        private volatile long lastAccessMillis;
+
+        private Drawer(Breakdown breakdown, long lastAccessMillis) {
+            this.breakdown = new AtomicReference<>(breakdown);
+            this.lastAccessMillis = lastAccessMillis;
+        }
+    }
+
+    private static void requireId(String drawerId) {
+        if (drawerId.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("drawerId must not be longer than " + MAX_ID_LENGTH + " characters");
+        }
+    }
+
+    private ConcurrentHashMap<String, Drawer> stripe(String drawerId) {
+        int hash = drawerId.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    //Store the drawer's new breakdown and return the one it replaces, or null for a drawer not seen before or last
+    //calculated with another set. The arrays are shared, neither the caller nor the store may modify them afterwards.
+    public long[] exchange(String drawerId, DenominationSet set, long[] counts) {
+        requireId(drawerId);
+        long now = clock.getAsLong();
+        Breakdown breakdown = new Breakdown(set, counts);
+        ConcurrentHashMap<String, Drawer> stripe = stripe(drawerId);
+        Drawer drawer = stripe.get(drawerId);
+        if (drawer == null) {
+            Drawer added = new Drawer(breakdown, now);
+            drawer = stripe.putIfAbsent(drawerId, added);
+            if (drawer == null) {
+                evictOverflow(stripe, drawerId);
+                return null;
+            }
+        }
+        drawer.lastAccessMillis = now;
+        Breakdown previous = drawer.breakdown.getAndSet(breakdown);
+        return previous.set().id() == set.id() ? previous.counts() : null;
+    }
+
+    //Breakdown a drawer was changed from and the one it now holds
+    public record Update(long[] previous, long[] counts) {
+    }
+
+    //Store a breakdown calculated from the one it replaces, which is null for a drawer not seen before or last
+    //calculated with another set. The calculation runs again if the drawer changes concurrently, so it must have no
+    //side effects; like exchange, the arrays are shared afterwards.
+    public Update update(String drawerId, DenominationSet set, UnaryOperator<long[]> calculation) {
+        requireId(drawerId);
+        long now = clock.getAsLong();
+        ConcurrentHashMap<String, Drawer> stripe = stripe(drawerId);
+        Drawer drawer = stripe.get(drawerId);
+        if (drawer == null) {
+            long[] counts = calculation.apply(null);
+            drawer = stripe.putIfAbsent(drawerId, new Drawer(new Breakdown(set, counts), now));
+            if (drawer == null) {
+                evictOverflow(stripe, drawerId);
+                return new Update(null, counts);
+            }
+        }
+        drawer.lastAccessMillis = now;
+        while (true) {
+            Breakdown current = drawer.breakdown.get();
+            long[] previous = current.set().id() == set.id() ? current.counts() : null;
+            long[] counts = calculation.apply(previous);
+            if (drawer.breakdown.compareAndSet(current, new Breakdown(set, counts))) {
+                return new Update(previous, counts);
+            }
+        }
+    }
+
+    //Last breakdown of the drawer, or null when it is not known or was calculated with another set
+    public long[] get(String drawerId, DenominationSet set) {
+        Drawer drawer = stripe(drawerId).get(drawerId);
+        Breakdown breakdown = drawer != null ? drawer.breakdown.get() : null;
+        return breakdown != null && breakdown.set().id() == set.id() ? breakdown.counts() : null;
+    }
+
+    public boolean remove(String drawerId) {
+        return stripe(drawerId).remove(drawerId) != null;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, Drawer> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private void evictOverflow(ConcurrentHashMap<String, Drawer> stripe, String keep) {
+        while (stripe.size() > maxPerStripe) {
+            String oldest = null;
+            long oldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<String, Drawer> entry : stripe.entrySet()) {
+                if (entry.getValue().lastAccessMillis < oldestAccess && !entry.getKey().equals(keep)) {
+                    oldest = entry.getKey();
+                    oldestAccess = entry.getValue().lastAccessMillis;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            stripe.remove(oldest);
+        }
+    }
+
+    //Remove drawers that have not been used within the idle timeout, returning how many were removed
+    public int evictIdle() {
+        long cutoff = clock.getAsLong() - idleMillis;
+        int evicted = 0;
+        for (ConcurrentHashMap<String, Drawer> stripe : stripes) {
+            for (Map.Entry<String, Drawer> entry : stripe.entrySet()) {
+                if (entry.getValue().lastAccessMillis < cutoff && stripe.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    //Write every drawer to the file, replacing it only once the new snapshot is complete. Drawers updated while
+    //the snapshot is written are saved with either their old or new breakdown.
+    public int snapshot(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        int written = 0;
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                for (ConcurrentHashMap<String, Drawer> stripe : stripes) {
+                    for (Map.Entry<String, Drawer> entry : stripe.entrySet()) {
+                        Breakdown breakdown = entry.getValue().breakdown.get();
+                        out.writeBoolean(true);
+                        out.writeUTF(entry.getKey());
+                        out.writeLong(entry.getValue().lastAccessMillis);
+                        out.writeInt(breakdown.set().id());
+                        out.writeInt(breakdown.counts().length);
+                        for (long count : breakdown.counts()) {
+                            out.writeLong(count);
+                        }
+                        written++;
+                    }
+                }
+                out.writeBoolean(false);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return written;
+    }
+
+    //Load drawers from a snapshot, keeping drawers already in the store. Sets are looked up by id; drawers of a set
+    //that is no longer configured are skipped. A missing file restores nothing.
+    public int restore(Path file, IntFunction<DenominationSet> setsById) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a drawer snapshot: " + file);
+            }
+            int restored = 0;
+            int skipped = 0;
+            while (in.readBoolean()) {
+                String drawerId = in.readUTF();
+                long lastAccessMillis = in.readLong();
+                DenominationSet set = setsById.apply(in.readInt());
+                long[] counts = new long[in.readInt()];
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = in.readLong();
+                }
+                if (set == null || set.size() != counts.length) {
+                    skipped++;
+                    continue;
+                }
+                ConcurrentHashMap<String, Drawer> stripe = stripe(drawerId);
+                if (stripe.putIfAbsent(drawerId, new Drawer(new Breakdown(set, counts), lastAccessMillis)) == null) {
+                    evictOverflow(stripe, drawerId);
+                    restored++;
+                }
+            }
+            if (skipped > 0) {
+                logger.warn("Skipped {} drawers of denomination sets that are no longer configured", skipped);
+            }
+            return restored;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.denomination.metrics;
+
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.CalculationRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+//Micrometer meters for calculation latency, rejected and failed requests and pieces handed out per denomination.
+//Every meter is registered up front, so recording is a timer update or counter increment with no lookups.
+//Latency and pieces are tagged with the currency; each currency has its own instance sharing the request counters.
+//A set loaded later registers counters only for the denominations not counted before.
+@Component
+public class CalculationMetrics {
+
+    //Why a request was answered with a client error
+    public enum Rejection {
+        INVALID_AMOUNT,
+        INVALID_REQUEST,
+        CHANGE_NOT_POSSIBLE;
+
+        //Rejection of a request failing CalculationRequest.validate with the given message
+        public static Rejection of(String invalid) {
+            return CalculationRequest.AMOUNT_NOT_POSITIVE.equals(invalid) ? INVALID_AMOUNT : INVALID_REQUEST;
+        }
+    }
+
+    private final Timer[] calculationTimers = new Timer[4];
+    private final Map<Rejection, Counter> rejections = new EnumMap<>(Rejection.class);
+    private final Counter failures;
+    private final MeterRegistry registry;
+    private final String currency;
+    private final Map<String, LongAdder> piecesByKey = new ConcurrentHashMap<>();
+
+    //Pieces counters of one set, in set order
+    public static final class Pieces {
+
+        private final LongAdder[] counters;
+
+        private Pieces(LongAdder[] counters) {
+            this.counters = counters;
+        }
+
+        //Count the pieces of a breakdown calculated with the set
+        public void record(long[] counts) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    counters[i].add(counts[i]);
+                }
+            }
+        }
+    }
+
+    @Autowired
+    public CalculationMetrics(MeterRegistry registry, @Value("${denomination.values}") double[] denominations,
+                              @Value("${denomination.currency:EUR}") String currency) {
+        this(registry, DenominationSet.of(denominations), currency);
+    }
+
+    public CalculationMetrics(MeterRegistry registry, DenominationSet set, String currency) {
+        for (int stock = 0; stock < 2; stock++) {
+            for (int previous = 0; previous < 2; previous++) {
+                calculationTimers[stock * 2 + previous] = Timer.builder("denomination.calculation")
+                        .description("Time spent calculating a breakdown and its changes")
+                        .tag("previous_amount", previous == 1 ? "with" : "without")
+                        .tag("stock", stock == 1 ? "limited" : "unlimited")
+                        .tag("currency", currency)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofNanos(100))
+                        .maximumExpectedValue(Duration.ofMillis(10))
+                        .register(registry);
+            }
+        }
+        for (Rejection rejection : Rejection.values()) {
+            rejections.put(rejection, Counter.builder("denomination.requests.rejected")
+                    .description("Requests answered with a client error")
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(registry));
+        }
+        failures = Counter.builder("denomination.requests.failed")
+                .description("Requests answered with an internal server error")
+                .register(registry);
+
+        this.registry = registry;
+        this.currency = currency;
+        // The configured set's counters are registered up front, so they are reported before the first breakdown
+        pieces(set);
+    }
+
+    //Pieces counters of a set, registering those of denominations not counted before
+    public Pieces pieces(DenominationSet set) {
+        LongAdder[] counters = new LongAdder[set.size()];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = piecesByKey.computeIfAbsent(set.key(i), key -> {
+                LongAdder counter = new LongAdder();
+                FunctionCounter.builder("denomination.pieces", counter, LongAdder::sum)
+                        .description("Notes and coins handed out in calculated breakdowns")
+                        .tag("denomination", key)
+                        .tag("currency", currency)
+                        .register(registry);
+                return counter;
+            });
+        }
+        return new Pieces(counters);
+    }
+
+    //Meters that record nothing, for services built outside the Spring context
+    public static CalculationMetrics disabled(DenominationSet set) {
+        return new CalculationMetrics(new CompositeMeterRegistry(), set, "none");
+    }
+
+    public void recordCalculation(boolean previousAmount, boolean limitedStock, long nanos) {
+        calculationTimers[(limitedStock ? 2 : 0) + (previousAmount ? 1 : 0)].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rejected(Rejection rejection) {
+        rejections.get(rejection).increment();
+    }
+
+    public void failed() {
+        failures.increment();
+    }
+}
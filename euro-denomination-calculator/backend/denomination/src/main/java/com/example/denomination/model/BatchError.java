@@ -0,0 +1,7 @@
+package com.example.denomination.model;
+
+//Error reported in place of a result for a single line of a batch
+public record BatchError(
+        long line,
+        String error
+) {}
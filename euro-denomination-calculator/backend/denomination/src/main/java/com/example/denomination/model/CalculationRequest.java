@@ -1,6 +1,69 @@
 package com.example.denomination.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Map;
+
+//Amounts are exact cents; in JSON they are written as amount and previousAmount with at most two decimal places
 public record CalculationRequest(
-        double amount,
-        Double previousAmount
-) {}
\ No newline at end of file
+        @JsonProperty("amount")
+        @JsonDeserialize(using = CentAmountDeserializer.class)
+        @JsonSerialize(using = CentAmountSerializer.class)
+        long amountCents,
+        @JsonProperty("previousAmount")
+        @JsonDeserialize(using = CentAmountDeserializer.class)
+        @JsonSerialize(using = CentAmountSerializer.class)
+        Long previousAmountCents,
+        Map<String, Integer> available,
+        String drawerId,
+        String currency,
+        //DIFFERENCE when not given
+        ChangeMode changeMode
+) {
+    //Message of the one amount rule, rejected as an invalid amount rather than an invalid request
+    public static final String AMOUNT_NOT_POSITIVE = "Amount must be positive";
+
+    //Request against an unlimited supply of every denomination
+    public CalculationRequest(long amountCents, Long previousAmountCents) {
+        this(amountCents, previousAmountCents, null, null, null, null);
+    }
+
+    //Request without a drawer, changes are only calculated against the given previous amount
+    public CalculationRequest(long amountCents, Long previousAmountCents, Map<String, Integer> available) {
+        this(amountCents, previousAmountCents, available, null, null);
+    }
+
+    //Request in the default currency
+    public CalculationRequest(long amountCents, Long previousAmountCents, Map<String, Integer> available,
+                              String drawerId) {
+        this(amountCents, previousAmountCents, available, drawerId, null);
+    }
+
+    //Request with changes as a plain difference
+    public CalculationRequest(long amountCents, Long previousAmountCents, Map<String, Integer> available,
+                              String drawerId, String currency) {
+        this(amountCents, previousAmountCents, available, drawerId, currency, null);
+    }
+
+    //Why the request cannot be calculated, or null when it can
+    public String validate() {
+        return validate(amountCents, previousAmountCents, drawerId);
+    }
+
+    //Rules shared by every entry point; a drawer's changes are taken against its own last breakdown, so it cannot
+    //also send a previous amount
+    public static String validate(long amountCents, Long previousAmountCents, String drawerId) {
+        if (amountCents <= 0) {
+            return AMOUNT_NOT_POSITIVE;
+        }
+        if (previousAmountCents != null && previousAmountCents < 0) {
+            return "Previous amount must not be negative";
+        }
+        if (drawerId != null && (drawerId.isBlank() || previousAmountCents != null)) {
+            return "drawerId must not be blank or combined with previousAmount";
+        }
+        return null;
+    }
+}
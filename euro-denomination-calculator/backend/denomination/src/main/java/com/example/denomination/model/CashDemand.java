@@ -0,0 +1,26 @@
+package com.example.denomination.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+//Pieces of every denomination needed to pay out a set of amounts, highest denomination first
+public record CashDemand(
+        String currency,
+        long amounts,
+        @JsonProperty("totalAmount")
+        @JsonSerialize(using = CentAmountSerializer.class)
+        long totalCents,
+        long pieces,
+        List<Demand> denominations
+) {
+    //Pieces of one denomination and the value they add up to
+    public record Demand(
+            String denomination,
+            long pieces,
+            @JsonProperty("value")
+            @JsonSerialize(using = CentAmountSerializer.class)
+            long valueCents
+    ) {}
+}
@@ -0,0 +1,39 @@
+package com.example.denomination.model;
+
+import com.example.denomination.engine.AmountParser;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+//Reads a JSON amount such as 234.23, 1e3 or "234.23" straight into exact cents.
+//
+//The digits are taken from the parser's own character buffer and accumulated in a long, so no double or BigDecimal
+//is created and amounts up to Long.MAX_VALUE cents stay exact. Digits past the second decimal place must be zeros.
+public class CentAmountDeserializer extends StdDeserializer<Long> {
+
+    public CentAmountDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                && token != JsonToken.VALUE_STRING) {
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+        try {
+            return AmountParser.parseDecimalCents(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+        } catch (IllegalArgumentException e) {
+            throw invalid(p, e.getMessage());
+        }
+    }
+
+    private static InvalidFormatException invalid(JsonParser p, String message) throws IOException {
+        return InvalidFormatException.from(p, message, p.getText(), Long.class);
+    }
+}
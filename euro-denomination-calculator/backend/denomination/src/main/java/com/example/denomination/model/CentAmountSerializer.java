@@ -0,0 +1,21 @@
+package com.example.denomination.model;
+
+import com.example.denomination.engine.DenominationEngine;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+//Writes cents as a JSON number with two decimal places, such as 234.23, the counterpart of CentAmountDeserializer
+public class CentAmountSerializer extends StdSerializer<Long> {
+
+    public CentAmountSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long cents, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(DenominationEngine.formatCents(cents));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.denomination.model;
+
+//How the changes of a calculation against a previous amount or drawer are worked out
+public enum ChangeMode {
+    //The new fewest-pieces breakdown minus the previous one
+    DIFFERENCE,
+    //The adjustment of the previous pieces that moves the fewest of them, its result being the breakdown
+    MINIMAL_EXCHANGE
+}
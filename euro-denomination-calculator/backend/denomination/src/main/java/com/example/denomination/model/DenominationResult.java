@@ -1,9 +1,16 @@
     package com.example.denomination.model;
 
+    import com.fasterxml.jackson.annotation.JsonProperty;
+    import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+    import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
     import java.util.Map;
 
     public record DenominationResult(
-            double amount,
-            Map<String, Integer> breakdown,
-            Map<String, Integer> changes
-    ) {}
\ No newline at end of file
+            @JsonProperty("amount")
+            @JsonDeserialize(using = CentAmountDeserializer.class)
+            @JsonSerialize(using = CentAmountSerializer.class)
+            long amountCents,
+            Map<String, Long> breakdown,
+            Map<String, Long> changes
+    ) {}
@@ -0,0 +1,15 @@
+package com.example.denomination.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Map;
+
+//Pushed to a till connection for a calculated amount: the new counts of only the denominations that changed since
+//the previous update, 0 for one no longer in the breakdown
+public record TillUpdate(
+        @JsonProperty("amount")
+        @JsonSerialize(using = CentAmountSerializer.class)
+        long amountCents,
+        Map<String, Long> counts
+) {}
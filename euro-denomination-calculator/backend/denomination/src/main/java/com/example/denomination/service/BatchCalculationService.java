@@ -0,0 +1,111 @@
+package com.example.denomination.service;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
+import com.example.denomination.model.BatchError;
+import com.example.denomination.model.CalculationRequest;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+@Service
+public class BatchCalculationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchCalculationService.class);
+
+    private final CurrencyRegistry currencyRegistry;
+    private final CalculationMetrics metrics;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+
+    public BatchCalculationService(CurrencyRegistry currencyRegistry, CalculationMetrics metrics,
+                                   ObjectMapper objectMapper) {
+        this.currencyRegistry = currencyRegistry;
+        this.metrics = metrics;
+        this.requestReader = objectMapper.readerFor(CalculationRequest.class);
+        // The shared writer stays open across lines and is flushed by the batch loop, not per value
+        this.resultWriter = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    //Calculate one result line per newline-delimited request while the input is still being read
+    public BatchSummary process(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+
+        long lineNumber = 0;
+        long failed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            Object result = calculateLine(lineNumber, line);
+            if (result instanceof BatchError) {
+                failed++;
+            }
+            resultWriter.writeValue(writer, result);
+            writer.write('\n');
+
+            // Pushing results out whenever the next request line has not arrived yet
+            if (!reader.ready()) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+
+        logger.debug("Processed batch of {} lines, {} failed", lineNumber, failed);
+        return new BatchSummary(lineNumber, failed);
+    }
+
+    //Calculate a single line, turning any problem into an error for that line only
+    private Object calculateLine(long lineNumber, String line) {
+        try {
+            CalculationRequest request = requestReader.readValue(line);
+            DenominationService denominationService = currencyRegistry.service(request.currency());
+            String invalid = request.validate();
+            if (invalid != null) {
+                metrics.rejected(Rejection.of(invalid));
+                return new BatchError(lineNumber, invalid);
+            }
+            // Lines of one drawer are calculated in order, each diffed against the drawer's previous line
+            return denominationService.calculate(request);
+        } catch (JsonProcessingException e) {
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            return new BatchError(lineNumber, "Malformed request: " + e.getOriginalMessage());
+        } catch (ChangeNotPossibleException e) {
+            metrics.rejected(Rejection.CHANGE_NOT_POSSIBLE);
+            return new BatchError(lineNumber, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            metrics.rejected(Rejection.INVALID_REQUEST);
+            return new BatchError(lineNumber, e.getMessage());
+        } catch (Exception e) {
+            metrics.failed();
+            logger.error("Unexpected error calculating batch line {}", lineNumber, e);
+            return new BatchError(lineNumber, "Error calculating denominations: " + e.getMessage());
+        }
+    }
+
+    //Number of lines read and how many of them were answered with an error
+    public record BatchSummary(long lines, long failed) {}
+}
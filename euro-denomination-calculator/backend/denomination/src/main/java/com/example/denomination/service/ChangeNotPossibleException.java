@@ -0,0 +1,9 @@
+package com.example.denomination.service;
+
+//Thrown when the available stock cannot make up the requested amount
+public class ChangeNotPossibleException extends RuntimeException {
+
+    public ChangeNotPossibleException(String message) {
+        super(message);
+    }
+}
@@ -1,85 +1,313 @@
 package com.example.denomination.service;
 
+import com.example.denomination.audit.AuditJournal;
+import com.example.denomination.drawer.DrawerStore;
+import com.example.denomination.engine.BoundedChangeSolver;
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+import com.example.denomination.engine.MinimalExchangeSolver;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
 import com.example.denomination.model.DenominationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.io.IOException;
 import java.util.Map;
 
 @Service
 public class DenominationService {
 
     private static final Logger logger = LoggerFactory.getLogger(DenominationService.class);
-    private final double[] denominations;
 
-    public DenominationService(@Value("${denomination.values}") double[] denominations) {
-        this.denominations = denominations;
-        logger.info("Loaded denominations: {}", Arrays.toString(this.denominations));
+    private final EngineSettings settings;
+    private final CalculationMetrics metrics;
+    private final DrawerStore drawerStore;
+    //Replaced as a whole by reload; every calculation reads it once and finishes on the set it found
+    private volatile Compiled compiled;
+
+    //Everything that depends on one set: the engine with its tables, the solvers, and where the pieces and audit
+    //records of its breakdowns go
+    private record Compiled(DenominationEngine engine, BoundedChangeSolver boundedChangeSolver,
+                            MinimalExchangeSolver minimalExchangeSolver, CalculationMetrics.Pieces pieces,
+                            AuditJournal auditJournal) {
+
+        DenominationSet set() {
+            return engine.set();
+        }
     }
 
-    //Calculate denominations for the given amount and optionally compare with previous amount
-    public DenominationResult calculateDenominations(double amount, Double previousAmount) {
-        logger.debug("Calculating denominations for amount: {}, previous: {}", amount, previousAmount);
+    //Counts calculated with a set for an amount, after any cash rounding, for a caller that keeps them between
+    //calculations
+    public record Counts(DenominationSet set, long amountCents, long[] counts) {
+    }
 
-        Map<String, Integer> breakdown = calculateDenominations(amount);
-        Map<String, Integer> changes = previousAmount != null
-                ? calculateChanges(breakdown, calculateDenominations(previousAmount))
-                : null;
+    public DenominationService(double[] denominations) {
+        this(denominations, EngineSettings.DEFAULTS);
+    }
 
-        return new DenominationResult(amount, breakdown, changes);
+    public DenominationService(double[] denominations, EngineSettings settings) {
+        this(denominations, settings, CalculationMetrics.disabled(DenominationSet.of(denominations)),
+                AuditJournal.DISABLED, new DrawerStore(100_000, 12 * 60 * 60 * 1000L));
     }
 
-    //Calculate the denomination breakdown for a given amount
-    private Map<String, Integer> calculateDenominations(double amount) {
+    @Autowired
+    public DenominationService(@Value("${denomination.values}") double[] denominations, EngineSettings settings,
+                               CalculationMetrics metrics, AuditJournal auditJournal, DrawerStore drawerStore) {
+        this.settings = settings;
+        this.metrics = metrics;
+        this.drawerStore = drawerStore;
+        this.compiled = compile(DenominationSet.of(denominations), false, auditJournal);
+    }
 
-        //Converting Eurros to cents to avoid floating point errors
-        long remaining = Math.round(amount * 100);
-        Map<String, Integer> result = new LinkedHashMap<>();
+    private Compiled compile(DenominationSet set, boolean cashRounding, AuditJournal auditJournal) {
+        DenominationEngine compiled = DenominationEngine.compile(set, settings);
+        DenominationEngine engine = cashRounding ? DenominationEngine.cashRounding(compiled) : compiled;
+        MinimalExchangeSolver minimalExchangeSolver = new MinimalExchangeSolver(engine, settings);
+        logger.info("Loaded denominations: {} using {}, {} bytes of tables, {} bytes of minimal exchange tables",
+                set, engine, engine.memoryBytes(), minimalExchangeSolver.memoryBytes());
+        return new Compiled(engine, new BoundedChangeSolver(set), minimalExchangeSolver, metrics.pieces(set),
+                auditJournal);
+    }
 
-        logger.trace("Starting denomination calculation for amount: {} cents", remaining);
+    //Replace the denominations at runtime. The new set and all its tables are compiled on the calling thread and
+    //then published with a single write, so calculations never wait for a reload; those already running finish on
+    //the previous set. Drawers last calculated with the previous set start over without changes.
+    public DenominationSet reload(double[] denominations) throws IOException {
+        return reload(denominations, false);
+    }
+
+    //Replace the denominations as above; with cashRounding every amount, previous ones included, is rounded to the
+    //nearest multiple of the new set's unit and results report the rounded amount. Without it amounts the set
+    //cannot make are rejected.
+    public synchronized DenominationSet reload(double[] denominations, boolean cashRounding) throws IOException {
+        DenominationSet set = DenominationSet.of(denominations);
+        Compiled previous = compiled;
+        compiled = compile(set, cashRounding, previous.auditJournal().forSet(set));
+        logger.info("Reloaded denominations: {} replaced {}", set, previous.set());
+        return set;
+    }
+
+    //Denominations the service calculates with, highest first
+    public DenominationSet denominationSet() {
+        return compiled.set();
+    }
+
+    //Engine behind the service, for bulk work that needs breakdowns without results, metrics or auditing
+    public DenominationEngine engine() {
+        return compiled.engine();
+    }
 
-        // Processing each denomination from highest to lowest value
-        for (double denomination : denominations) {
-            long value = Math.round(denomination * 100);
-            if (remaining >= value) {
-                int count = (int) (remaining / value);
-                result.put(formatDenominationKey(denomination), count);
-                remaining -= count * value;
+    //Calculate a request the way its fields ask for: against a drawer, a previous amount or neither, limited to the
+    //available stock when given, and with changes as a plain difference or a minimal exchange
+    public DenominationResult calculate(CalculationRequest request) {
+        if (request.changeMode() == ChangeMode.MINIMAL_EXCHANGE) {
+            if (request.available() != null) {
+                throw new IllegalArgumentException("changeMode MINIMAL_EXCHANGE cannot be combined with available");
             }
+            if (request.drawerId() != null) {
+                return calculateMinimalExchangeForDrawer(request.drawerId(), request.amountCents());
+            }
+            if (request.previousAmountCents() == null) {
+                throw new IllegalArgumentException("changeMode MINIMAL_EXCHANGE needs a previousAmount or drawerId");
+            }
+            return calculateMinimalExchange(request.amountCents(), request.previousAmountCents());
         }
+        if (request.drawerId() != null) {
+            return calculateForDrawer(request.drawerId(), request.amountCents(), request.available());
+        }
+        return request.available() == null
+                ? calculateDenominations(request.amountCents(), request.previousAmountCents())
+                : calculateDenominations(request.amountCents(), request.previousAmountCents(), request.available());
+    }
 
-        logger.debug("Final denomination breakdown: {}", result);
+    //Calculate denominations for the given amount in cents and optionally compare with previous amount
+    public DenominationResult calculateDenominations(long amountCents, Long previousAmountCents) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculating denominations for amount: {}, previous: {}",
+                    DenominationEngine.formatCents(amountCents), formatOrNull(previousAmountCents));
+        }
+
+        Compiled compiled = this.compiled;
+        // A set reloaded with cash rounding calculates and reports the rounded amounts, any other leaves them as is
+        amountCents = compiled.engine().round(amountCents);
+        previousAmountCents = previousAmountCents != null ? compiled.engine().round(previousAmountCents) : null;
+        long start = System.nanoTime();
+        long[] breakdown = compiled.engine().breakdown(amountCents);
+        long[] previousBreakdown = previousAmountCents != null
+                ? compiled.engine().breakdown(previousAmountCents)
+                : null;
+        Map<String, Long> changes = previousBreakdown != null
+                ? calculateChanges(compiled.set(), breakdown, previousBreakdown)
+                : null;
+        metrics.recordCalculation(previousAmountCents != null, false, System.nanoTime() - start);
+        compiled.pieces().record(breakdown);
+        audit(compiled, amountCents, previousAmountCents, breakdown, previousBreakdown);
 
-        return result;
+        return new DenominationResult(amountCents, compiled.set().breakdownView(breakdown), changes);
     }
 
-    //Calculate the difference between current and previous denomination counts
-    private Map<String, Integer> calculateChanges(Map<String, Integer> current, Map<String, Integer> previous) {
-        Map<String, Integer> changes = new LinkedHashMap<>();
-        logger.trace("Calculating changes between current {} and previous {}", current, previous);
-
-        for (double denomination : denominations) {
-            String key = formatDenominationKey(denomination);
-            int currentCount = current.getOrDefault(key, 0);
-            int previousCount = previous.getOrDefault(key, 0);
-
-            // Only include denominations that have non zero values in either new amount or previous given amount
-            if (currentCount > 0 || previousCount > 0) {
-                changes.put(key, currentCount - previousCount);
-            }
+    //Calculate the fewest-pieces breakdown that the available stock per denomination allows.
+    //The previous amount, when given, is still broken down against an unlimited supply.
+    public DenominationResult calculateDenominations(long amountCents, Long previousAmountCents,
+                                                     Map<String, Integer> available) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculating denominations for amount: {}, previous: {}, available: {}",
+                    DenominationEngine.formatCents(amountCents), formatOrNull(previousAmountCents), available);
         }
 
-        logger.debug("Calculated changes: {}", changes);
+        Compiled compiled = this.compiled;
+        amountCents = compiled.engine().round(amountCents);
+        previousAmountCents = previousAmountCents != null ? compiled.engine().round(previousAmountCents) : null;
+        long start = System.nanoTime();
+        long[] breakdown = calculateWithStock(compiled, amountCents, available);
+        long[] previousBreakdown = previousAmountCents != null
+                ? compiled.engine().breakdown(previousAmountCents)
+                : null;
+        Map<String, Long> changes = previousBreakdown != null
+                ? calculateChanges(compiled.set(), breakdown, previousBreakdown)
+                : null;
+        metrics.recordCalculation(previousAmountCents != null, true, System.nanoTime() - start);
+        compiled.pieces().record(breakdown);
+        audit(compiled, amountCents, previousAmountCents, breakdown, previousBreakdown);
 
-        return changes;
+        return new DenominationResult(amountCents, compiled.set().breakdownView(breakdown), changes);
     }
 
-    //Format denomination value as a string with two decimal places
-    private String formatDenominationKey(double denomination) {
-        return String.format("%.2f", denomination);
+    //Calculate denominations for a drawer, limited to the available stock when given. Changes are taken against
+    //the breakdown last handed out by the same drawer instead of recalculating a previous amount, and are left out
+    //for a drawer not seen before.
+    public DenominationResult calculateForDrawer(String drawerId, long amountCents, Map<String, Integer> available) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculating denominations for drawer: {}, amount: {}, available: {}",
+                    drawerId, DenominationEngine.formatCents(amountCents), available);
+        }
+
+        Compiled compiled = this.compiled;
+        amountCents = compiled.engine().round(amountCents);
+        long start = System.nanoTime();
+        long[] breakdown = available != null
+                ? calculateWithStock(compiled, amountCents, available)
+                : compiled.engine().breakdown(amountCents);
+        long[] previousBreakdown = drawerStore.exchange(drawerId, compiled.set(), breakdown);
+        Map<String, Long> changes = previousBreakdown != null
+                ? calculateChanges(compiled.set(), breakdown, previousBreakdown)
+                : null;
+        metrics.recordCalculation(previousBreakdown != null, available != null, System.nanoTime() - start);
+        compiled.pieces().record(breakdown);
+        compiled.auditJournal().append(amountCents,
+                previousBreakdown != null ? totalCents(compiled.set(), previousBreakdown) : AuditJournal.NO_PREVIOUS,
+                breakdown, previousBreakdown);
+
+        return new DenominationResult(amountCents, compiled.set().breakdownView(breakdown), changes);
+    }
+
+    //Adjust the breakdown of the previous amount to the new amount moving the fewest pieces. The breakdown is what
+    //the drawer holds afterwards, which may differ from the fewest-pieces breakdown of the amount.
+    public DenominationResult calculateMinimalExchange(long amountCents, long previousAmountCents) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculating minimal exchange for amount: {}, previous: {}",
+                    DenominationEngine.formatCents(amountCents), DenominationEngine.formatCents(previousAmountCents));
+        }
+
+        Compiled compiled = this.compiled;
+        amountCents = compiled.engine().round(amountCents);
+        previousAmountCents = compiled.engine().round(previousAmountCents);
+        long start = System.nanoTime();
+        long[] previousBreakdown = compiled.engine().breakdown(previousAmountCents);
+        long[] breakdown = compiled.minimalExchangeSolver().solve(previousBreakdown, amountCents);
+        Map<String, Long> changes = calculateChanges(compiled.set(), breakdown, previousBreakdown);
+        metrics.recordCalculation(true, false, System.nanoTime() - start);
+        compiled.pieces().record(breakdown);
+        audit(compiled, amountCents, previousAmountCents, breakdown, previousBreakdown);
+
+        return new DenominationResult(amountCents, compiled.set().breakdownView(breakdown), changes);
+    }
+
+    //Adjust what a drawer holds to the new amount moving the fewest pieces. A drawer not seen before starts from the
+    //fewest-pieces breakdown, without changes.
+    public DenominationResult calculateMinimalExchangeForDrawer(String drawerId, long amountCents) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Calculating minimal exchange for drawer: {}, amount: {}",
+                    drawerId, DenominationEngine.formatCents(amountCents));
+        }
+
+        Compiled compiled = this.compiled;
+        long rounded = compiled.engine().round(amountCents);
+        long start = System.nanoTime();
+        DrawerStore.Update update = drawerStore.update(drawerId, compiled.set(), previous -> previous != null
+                ? compiled.minimalExchangeSolver().solve(previous, rounded)
+                : compiled.engine().breakdown(rounded));
+        long[] breakdown = update.counts();
+        long[] previousBreakdown = update.previous();
+        Map<String, Long> changes = previousBreakdown != null
+                ? calculateChanges(compiled.set(), breakdown, previousBreakdown)
+                : null;
+        metrics.recordCalculation(previousBreakdown != null, false, System.nanoTime() - start);
+        compiled.pieces().record(breakdown);
+        compiled.auditJournal().append(rounded,
+                previousBreakdown != null ? totalCents(compiled.set(), previousBreakdown) : AuditJournal.NO_PREVIOUS,
+                breakdown, previousBreakdown);
+
+        return new DenominationResult(rounded, compiled.set().breakdownView(breakdown), changes);
+    }
+
+    //Counts for a caller that keeps the previous breakdown itself, such as a streaming connection: the fewest-pieces
+    //breakdown, or with MINIMAL_EXCHANGE the previous counts adjusted moving the fewest pieces. Previous counts of
+    //another set, such as the one before a reload, are left out. Recorded in the metrics and the audit journal like
+    //any other calculation.
+    public Counts calculateCounts(long amountCents, Counts previous, ChangeMode changeMode) {
+        Compiled compiled = this.compiled;
+        amountCents = compiled.engine().round(amountCents);
+        long start = System.nanoTime();
+        long[] previousBreakdown = previous != null && previous.set() == compiled.set() ? previous.counts() : null;
+        long[] breakdown = changeMode == ChangeMode.MINIMAL_EXCHANGE && previousBreakdown != null
+                ? compiled.minimalExchangeSolver().solve(previousBreakdown, amountCents)
+                : compiled.engine().breakdown(amountCents);
+        metrics.recordCalculation(previousBreakdown != null, false, System.nanoTime() - start);
+        compiled.pieces().record(breakdown);
+        compiled.auditJournal().append(amountCents,
+                previousBreakdown != null ? totalCents(compiled.set(), previousBreakdown) : AuditJournal.NO_PREVIOUS,
+                breakdown, previousBreakdown);
+        return new Counts(compiled.set(), amountCents, breakdown);
+    }
+
+    private static void audit(Compiled compiled, long amountCents, Long previousAmountCents, long[] breakdown,
+                              long[] previousBreakdown) {
+        compiled.auditJournal().append(amountCents,
+                previousAmountCents != null ? previousAmountCents : AuditJournal.NO_PREVIOUS,
+                breakdown, previousBreakdown);
+    }
+
+    private static String formatOrNull(Long cents) {
+        return cents != null ? DenominationEngine.formatCents(cents) : null;
+    }
+
+    private static long totalCents(DenominationSet set, long[] counts) {
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i] * set.cents(i);
+        }
+        return total;
+    }
+
+    private static long[] calculateWithStock(Compiled compiled, long amountCents, Map<String, Integer> available) {
+        long[] breakdown = compiled.boundedChangeSolver().solve(amountCents, compiled.set().stock(available));
+        if (breakdown == null) {
+            throw new ChangeNotPossibleException("Cannot make change for "
+                    + DenominationEngine.formatCents(amountCents) + " with the available stock");
+        }
+        return breakdown;
+    }
+
+    //Calculate the difference between current and previous denomination counts
+    private static Map<String, Long> calculateChanges(DenominationSet set, long[] current, long[] previous) {
+        // Only denominations that have non zero values in either new amount or previous given amount are included
+        return set.changesView(current, previous);
     }
-}
\ No newline at end of file
+}
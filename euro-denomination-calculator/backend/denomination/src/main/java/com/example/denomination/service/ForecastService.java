@@ -0,0 +1,276 @@
+package com.example.denomination.service;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.AmountParser;
+import com.example.denomination.engine.DenominationEngine;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.CashDemand;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Sums the pieces per denomination needed to pay out a large set of amounts, such as a month of payroll.
+//
+//The input holds one amount per line. The calling thread only cuts it into blocks at line ends and submits each block
+//to a pool of one thread per core as soon as it is read; the task parses the amounts of the block, breaks each down
+//with the currency's engine and adds the counts to the block's own long accumulator. Accumulators are merged once the
+//input ends. The pool is shared by all forecasts, but a task never waits for input, so a forecast whose upload stalls
+//holds no pool thread and the others keep running. A forecast has at most two blocks per pool thread in flight; its
+//calling thread waits for one of them before submitting more.
+@Service
+public class ForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForecastService.class);
+
+    private static final int BLOCK_BYTES = 1 << 20;
+
+    private final CurrencyRegistry currencyRegistry;
+    private final ForkJoinPool pool;
+    private final int blockBytes;
+
+    @Autowired
+    public ForecastService(CurrencyRegistry currencyRegistry,
+                           @Value("${denomination.forecast.parallelism:0}") int parallelism) {
+        this(currencyRegistry, parallelism, BLOCK_BYTES);
+    }
+
+    ForecastService(CurrencyRegistry currencyRegistry, int parallelism, int blockBytes) {
+        this.currencyRegistry = currencyRegistry;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.blockBytes = blockBytes;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    //Demand for every amount of the input in the given currency, the default one when null. A line that is not a
+    //positive amount with at most two decimal places fails the whole forecast with its line number.
+    public CashDemand forecast(InputStream input, String currency) throws IOException {
+        CurrencyRegistry.Currency selected = currencyRegistry.currency(currency);
+        DenominationEngine engine = selected.service().engine();
+        long start = System.nanoTime();
+
+        Job job = new Job(engine, pool.getParallelism());
+        job.read(input);
+
+        Accumulator total = new Accumulator(engine.set().size());
+        for (Future<Accumulator> result : job.results) {
+            total.add(join(result));
+        }
+        job.throwFirstError();
+
+        CashDemand demand = total.toDemand(selected.code(), engine.set());
+        logger.info("Forecast {} amounts of {} in {} ms", demand.amounts(), selected.code(),
+                (System.nanoTime() - start) / 1_000_000);
+        return demand;
+    }
+
+    private static Accumulator join(Future<Accumulator> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while forecasting", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //A run of whole lines; the task that parses it records how many lines it held and the first bad one
+    private static final class Block {
+
+        private final int index;
+        private byte[] bytes;
+        private final int length;
+        private long lines;
+        private String error;
+
+        private Block(int index, byte[] bytes, int length) {
+            this.index = index;
+            this.bytes = bytes;
+            this.length = length;
+        }
+    }
+
+    //Pieces per denomination, the amounts and their total, owned by one block's task until the merge
+    private static final class Accumulator {
+
+        private final long[] pieces;
+        private long amounts;
+        private long totalCents;
+
+        private Accumulator(int denominations) {
+            this.pieces = new long[denominations];
+        }
+
+        private void add(Accumulator other) {
+            for (int i = 0; i < pieces.length; i++) {
+                pieces[i] += other.pieces[i];
+            }
+            amounts += other.amounts;
+            totalCents = Math.addExact(totalCents, other.totalCents);
+        }
+
+        private CashDemand toDemand(String currency, DenominationSet set) {
+            List<CashDemand.Demand> denominations = new ArrayList<>(set.size());
+            long allPieces = 0;
+            for (int i = 0; i < pieces.length; i++) {
+                denominations.add(
+                        new CashDemand.Demand(set.key(i), pieces[i], Math.multiplyExact(pieces[i], set.cents(i))));
+                allPieces = Math.addExact(allPieces, pieces[i]);
+            }
+            return new CashDemand(currency, amounts, totalCents, allPieces, denominations);
+        }
+    }
+
+    //State of one forecast: its blocks, their results in input order and recycled block buffers
+    private final class Job {
+
+        private final DenominationEngine engine;
+        private final Semaphore inFlight;
+        private final BlockingQueue<byte[]> buffers;
+        private final List<Block> blocks = new ArrayList<>();
+        private final List<Future<Accumulator>> results = new ArrayList<>();
+        //Index of the first block that failed; later blocks are skipped, earlier ones still complete
+        private final AtomicInteger firstFailed = new AtomicInteger(Integer.MAX_VALUE);
+
+        private Job(DenominationEngine engine, int parallelism) {
+            this.engine = engine;
+            this.inFlight = new Semaphore(2 * parallelism);
+            // Enough buffers for the blocks in flight, the one being filled and the one its tail moves to
+            this.buffers = new ArrayBlockingQueue<>(2 * parallelism + 2);
+        }
+
+        //Cut the input into blocks that end at a line end and submit them to the pool
+        private void read(InputStream input) throws IOException {
+            byte[] buffer = buffer();
+            int filled = 0;
+            while (firstFailed.get() == Integer.MAX_VALUE) {
+                int read = input.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    if (filled > 0) {
+                        submit(new Block(blocks.size(), buffer, filled));
+                    }
+                    break;
+                }
+                filled += read;
+                if (filled < buffer.length) {
+                    continue;
+                }
+                int end = filled;
+                while (end > 0 && buffer[end - 1] != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    throw new IllegalArgumentException("Lines must be shorter than " + blockBytes + " bytes");
+                }
+                byte[] next = buffer();
+                System.arraycopy(buffer, end, next, 0, filled - end);
+                submit(new Block(blocks.size(), buffer, end));
+                buffer = next;
+                filled -= end;
+            }
+        }
+
+        private void submit(Block block) throws IOException {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while forecasting", e);
+            }
+            blocks.add(block);
+            results.add(pool.submit(() -> work(block)));
+        }
+
+        private byte[] buffer() {
+            byte[] buffer = buffers.poll();
+            return buffer != null ? buffer : new byte[blockBytes];
+        }
+
+        //Task of one block: parse and break it down into its own accumulator, then give back its buffer and permit
+        private Accumulator work(Block block) {
+            Accumulator accumulator = new Accumulator(engine.set().size());
+            try {
+                if (block.index < firstFailed.get()) {
+                    process(block, accumulator, new long[engine.set().size()]);
+                }
+                return accumulator;
+            } finally {
+                buffers.offer(block.bytes);
+                block.bytes = null;
+                inFlight.release();
+            }
+        }
+
+        private void process(Block block, Accumulator accumulator, long[] counts) {
+            byte[] bytes = block.bytes;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, block.length);
+            int lineStart = 0;
+            while (lineStart < block.length) {
+                int lineEnd = lineStart;
+                while (lineEnd < block.length && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                block.lines++;
+                try {
+                    long cents = AmountParser.parseCents(buffer, lineStart, lineEnd);
+                    if (cents != AmountParser.BLANK) {
+                        // The demand is for the amounts paid, so cash rounding of a reloaded set is in the total too
+                        cents = engine.round(cents);
+                        engine.breakdown(cents, counts);
+                        for (int i = 0; i < counts.length; i++) {
+                            accumulator.pieces[i] += counts[i];
+                        }
+                        accumulator.amounts++;
+                        accumulator.totalCents = Math.addExact(accumulator.totalCents, cents);
+                    }
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    block.error = e instanceof ArithmeticException ? "Total is too large" : e.getMessage();
+                    firstFailed.accumulateAndGet(block.index, Math::min);
+                    return;
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+
+        //Fail with the error of the earliest bad line, numbered across all blocks before it
+        private void throwFirstError() {
+            for (Block block : blocks) {
+                if (block.error != null) {
+                    throw new IllegalArgumentException("Line " + (lines(blocks.subList(0, block.index))
+                            + block.lines) + ": " + block.error);
+                }
+            }
+        }
+
+        private long lines(List<Block> blocks) {
+            long lines = 0;
+            for (Block block : blocks) {
+                lines += block.lines;
+            }
+            return lines;
+        }
+    }
+}
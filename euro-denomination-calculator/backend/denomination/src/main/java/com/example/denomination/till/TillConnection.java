@@ -0,0 +1,158 @@
+package com.example.denomination.till;
+
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.ChangeMode;
+import com.example.denomination.model.TillUpdate;
+import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//One till's stream of amounts over a WebSocket connection, with the breakdown last sent to it.
+//
+//Amounts are coalesced: the reading thread only stores the latest one and, unless a drain is already running, starts
+//one on the executor. The drain calculates and sends the latest amount until none is pending, so a connection never
+//has more than one calculation or send in flight, and amounts arriving while the client is slow to read replace each
+//other instead of queueing. An update holds the new counts of the denominations that changed since the previous
+//update, not the difference, so a skipped amount never leaves the client out of step. After the denominations are
+//reloaded the next update is taken against the new set, with 0 for the denominations it no longer has.
+final class TillConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(TillConnection.class);
+
+    //Pending slot when no amount is waiting; amounts are positive
+    private static final long NONE = 0;
+
+    private final WebSocketSession session;
+    private final DenominationService service;
+    private final ChangeMode changeMode;
+    private final ObjectWriter writer;
+    private final Executor executor;
+    private final LongAdder coalesced;
+    private final AtomicLong pending = new AtomicLong(NONE);
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+    //Only used by the drain, which runs one at a time and is handed over through draining
+    private DenominationService.Counts counts;
+
+    //The session must allow sends from any thread, such as a ConcurrentWebSocketSessionDecorator
+    TillConnection(WebSocketSession session, DenominationService service, ChangeMode changeMode,
+                   ObjectWriter writer, Executor executor, LongAdder coalesced) {
+        this.session = session;
+        this.service = service;
+        this.changeMode = changeMode;
+        this.writer = writer;
+        this.executor = executor;
+        this.coalesced = coalesced;
+    }
+
+    //Calculate the amount once the amounts before it are sent, unless a newer one arrives first
+    void offer(long amountCents) {
+        if (pending.getAndSet(amountCents) != NONE) {
+            coalesced.increment();
+        }
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            long amount;
+            while (!closed && (amount = pending.getAndSet(NONE)) != NONE) {
+                send(amount);
+            }
+            draining.set(false);
+            // An amount offered after the last take found the drain still running, so it is picked up here
+        } while (!closed && pending.get() != NONE && draining.compareAndSet(false, true));
+    }
+
+    private void send(long amountCents) {
+        String message;
+        try {
+            message = update(amountCents);
+        } catch (IllegalArgumentException e) {
+            // Amounts the denominations cannot make exactly, such as 234.23 in francs
+            sendError(e.getMessage());
+            return;
+        } catch (RuntimeException | JsonProcessingException e) {
+            logger.error("Unexpected error calculating denominations for {} cents on {}", amountCents, session.getId(), e);
+            message = "{\"error\":\"Error calculating denominations\"}";
+        }
+        send(message);
+    }
+
+    void sendError(String error) {
+        try {
+            send(writer.writeValueAsString(Map.of("error", error)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Send a message, closing the connection when the client does not keep up or has gone
+    private void send(String message) {
+        try {
+            session.sendMessage(new TextMessage(message));
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Closing till connection {}: {}", session.getId(), e.toString());
+            close();
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException ignored) {
+                // Already gone
+            }
+        }
+    }
+
+    //Update for the next amount, advancing the counts the client holds
+    String update(long amountCents) throws JsonProcessingException {
+        DenominationService.Counts next = service.calculateCounts(amountCents, counts, changeMode);
+        DenominationSet set = next.set();
+        Map<String, Long> changed = new LinkedHashMap<>();
+        for (int i = 0; i < set.size(); i++) {
+            if (next.counts()[i] != held(set, i)) {
+                changed.put(set.key(i), next.counts()[i]);
+            }
+        }
+        if (counts != null && counts.set() != set) {
+            // Denominations withdrawn by a reload are no longer held
+            DenominationSet previousSet = counts.set();
+            for (int i = 0; i < previousSet.size(); i++) {
+                if (counts.counts()[i] != 0 && set.indexOf(previousSet.key(i)) < 0) {
+                    changed.put(previousSet.key(i), 0L);
+                }
+            }
+        }
+        counts = next;
+        return writer.writeValueAsString(new TillUpdate(next.amountCents(), changed));
+    }
+
+    //Count the client holds of a denomination of the set, 0 for one it has not been sent
+    private long held(DenominationSet set, int index) {
+        if (counts == null) {
+            return 0;
+        }
+        if (counts.set() == set) {
+            return counts.counts()[index];
+        }
+        int previous = counts.set().indexOf(set.key(index));
+        return previous >= 0 ? counts.counts()[previous] : 0;
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.denomination.till;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.AmountParser;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+//Streams amounts from tills over WebSocket. Each text message is one amount, such as 234.23, and is answered with
+//a TillUpdate of the denominations whose counts changed; currency and changeMode are query parameters of the
+//connection. A client that does not read its updates within the send time limit, or lets them pile up past the
+//buffer limit, is disconnected.
+@Component
+public class TillWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String CONNECTION = TillConnection.class.getName();
+
+    private final CurrencyRegistry currencyRegistry;
+    private final ObjectWriter writer;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+    private final int messageSizeLimit;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+
+    public TillWebSocketHandler(CurrencyRegistry currencyRegistry, ObjectMapper objectMapper, MeterRegistry registry,
+                                @Value("${denomination.till.send-time-limit:PT5S}") Duration sendTimeLimit,
+                                @Value("${denomination.till.buffer-size-limit:65536}") int bufferSizeLimit,
+                                @Value("${denomination.till.message-size-limit:256}") int messageSizeLimit) {
+        this.currencyRegistry = currencyRegistry;
+        this.writer = objectMapper.writer();
+        this.sendTimeLimitMillis = Math.toIntExact(sendTimeLimit.toMillis());
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+
+        Gauge.builder("denomination.till.connections", connections, AtomicInteger::get)
+                .description("Open till connections")
+                .register(registry);
+        FunctionCounter.builder("denomination.till.amounts", received, LongAdder::sum)
+                .description("Amounts received from till connections")
+                .tag("outcome", "received")
+                .register(registry);
+        FunctionCounter.builder("denomination.till.amounts", coalesced, LongAdder::sum)
+                .description("Amounts received from till connections")
+                .tag("outcome", "coalesced")
+                .register(registry);
+        FunctionCounter.builder("denomination.till.amounts", invalid, LongAdder::sum)
+                .description("Amounts received from till connections")
+                .tag("outcome", "invalid")
+                .register(registry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        session.setTextMessageSizeLimit(messageSizeLimit);
+        CurrencyRegistry.Currency currency;
+        ChangeMode changeMode;
+        try {
+            MultiValueMap<String, String> query = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+            currency = currencyRegistry.currency(query.getFirst("currency"));
+            changeMode = changeMode(query.getFirst("changeMode"));
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+            return;
+        }
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, bufferSizeLimit);
+        session.getAttributes().put(CONNECTION,
+                new TillConnection(out, currency.service(), changeMode, writer, executor, coalesced));
+        connections.incrementAndGet();
+    }
+
+    private static ChangeMode changeMode(String name) {
+        if (name == null) {
+            return ChangeMode.DIFFERENCE;
+        }
+        try {
+            return ChangeMode.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown changeMode: " + name);
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        if (!(session.getAttributes().get(CONNECTION) instanceof TillConnection connection)) {
+            return;
+        }
+        received.increment();
+        char[] text = message.getPayload().strip().toCharArray();
+        long cents;
+        try {
+            cents = AmountParser.parseDecimalCents(text, 0, text.length);
+            String invalid = CalculationRequest.validate(cents, null, null);
+            if (invalid != null) {
+                throw new IllegalArgumentException(invalid);
+            }
+        } catch (IllegalArgumentException e) {
+            invalid.increment();
+            connection.sendError(e.getMessage());
+            return;
+        }
+        connection.offer(cents);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (session.getAttributes().remove(CONNECTION) instanceof TillConnection connection) {
+            connection.close();
+            connections.decrementAndGet();
+        }
+    }
+
+    //Open connections
+    public int connections() {
+        return connections.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
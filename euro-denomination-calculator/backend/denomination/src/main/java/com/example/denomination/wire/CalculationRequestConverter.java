@@ -0,0 +1,26 @@
+package com.example.denomination.wire;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.currency.CurrencyRegistry.Currency;
+import com.example.denomination.model.CalculationRequest;
+
+//CalculationRequest in the binary wire format
+public class CalculationRequestConverter extends WireFormatConverter<CalculationRequest> {
+
+    public CalculationRequestConverter(CurrencyRegistry currencies) {
+        super(CalculationRequest.class, currencies);
+    }
+
+    //Requests are encoded for the currency they name
+    @Override
+    byte[] encode(CalculationRequest request) {
+        return WireFormat.encodeRequest(request, currencies.service(request.currency()).denominationSet());
+    }
+
+    @Override
+    CalculationRequest decode(byte[] message, Currency currency) {
+        CalculationRequest request = WireFormat.decodeRequest(message, currency.service().denominationSet());
+        return new CalculationRequest(request.amountCents(), request.previousAmountCents(), request.available(),
+                request.drawerId(), currency.code(), request.changeMode());
+    }
+}
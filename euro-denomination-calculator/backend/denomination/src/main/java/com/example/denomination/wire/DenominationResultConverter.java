@@ -0,0 +1,27 @@
+package com.example.denomination.wire;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.currency.CurrencyRegistry.Currency;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.DenominationResult;
+
+//DenominationResult in the binary wire format
+public class DenominationResultConverter extends WireFormatConverter<DenominationResult> {
+
+    public DenominationResultConverter(CurrencyRegistry currencies) {
+        super(DenominationResult.class, currencies);
+    }
+
+    //Results are encoded for the set they were calculated with, other maps for the default currency
+    @Override
+    byte[] encode(DenominationResult result) {
+        DenominationSet set = DenominationSet.ofView(result.breakdown());
+        return WireFormat.encodeResult(result,
+                set != null ? set : currencies.defaultCurrency().service().denominationSet());
+    }
+
+    @Override
+    DenominationResult decode(byte[] message, Currency currency) {
+        return WireFormat.decodeResult(message, currency.service().denominationSet());
+    }
+}
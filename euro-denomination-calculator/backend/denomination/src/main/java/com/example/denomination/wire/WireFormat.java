@@ -0,0 +1,354 @@
+package com.example.denomination.wire;
+
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
+import com.example.denomination.model.DenominationResult;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Compact binary encoding of requests and results for high-volume callers.
+//
+//Every message starts with a version byte, the 4 byte id of the denomination set it was encoded for and a flags byte.
+//Amounts follow as zigzag varint cents. Count arrays are written in the order of the set, highest denomination
+//first, either dense (one varint per denomination) or sparse (a varint entry count, then index and value varints),
+//whichever is shorter. Changes are signed and zigzag encoded. A request's drawer id comes last, as a varint length
+//followed by UTF-8 bytes.
+public final class WireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-denomination";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    static final int VERSION = 1;
+    //A request may leave the set id 0 to be calculated with whatever set the service uses
+    public static final int ANY_SET = 0;
+
+    //Result flags
+    static final int HAS_CHANGES = 1;
+    static final int BREAKDOWN_SPARSE = 1 << 1;
+    static final int CHANGES_SPARSE = 1 << 2;
+
+    //Request flags
+    static final int HAS_PREVIOUS = 1;
+    static final int HAS_AVAILABLE = 1 << 1;
+    static final int AVAILABLE_SPARSE = 1 << 2;
+    static final int HAS_DRAWER = 1 << 3;
+    //Changes as a minimal exchange, the flag carries the whole change mode
+    static final int MINIMAL_EXCHANGE = 1 << 4;
+
+    private WireFormat() {
+    }
+
+    public static byte[] encodeResult(DenominationResult result, DenominationSet set) {
+        long[] breakdown = toCounts(result.breakdown(), set);
+        long[] changes = result.changes() != null ? toCounts(result.changes(), set) : null;
+        boolean breakdownSparse = sparseIsShorter(breakdown, false);
+        boolean changesSparse = changes != null && sparseIsShorter(changes, true);
+
+        Output out = new Output(set.size(), 0);
+        out.header(set.id(), (changes != null ? HAS_CHANGES : 0)
+                | (breakdownSparse ? BREAKDOWN_SPARSE : 0)
+                | (changesSparse ? CHANGES_SPARSE : 0));
+        out.signed(result.amountCents());
+        out.counts(breakdown, breakdownSparse, false);
+        if (changes != null) {
+            out.counts(changes, changesSparse, true);
+        }
+        return out.toByteArray();
+    }
+
+    public static DenominationResult decodeResult(byte[] message, DenominationSet set) {
+        Input in = new Input(message);
+        int flags = in.header(set);
+        long amount = in.signed();
+        long[] breakdown = in.counts(set.size(), (flags & BREAKDOWN_SPARSE) != 0, false);
+        Map<String, Long> changes = null;
+        if ((flags & HAS_CHANGES) != 0) {
+            long[] change = in.counts(set.size(), (flags & CHANGES_SPARSE) != 0, true);
+            // The previous counts follow from the change, which also restores entries whose change is 0
+            long[] previous = new long[change.length];
+            for (int i = 0; i < change.length; i++) {
+                previous[i] = breakdown[i] - change[i];
+            }
+            changes = set.changesView(breakdown, previous);
+        }
+        in.end();
+        return new DenominationResult(amount, set.breakdownView(breakdown), changes);
+    }
+
+    public static byte[] encodeRequest(CalculationRequest request, DenominationSet set) {
+        long[] available = request.available() != null ? toCounts(request.available(), set) : null;
+        boolean availableSparse = available != null && sparseIsShorter(available, false);
+        byte[] drawerId = request.drawerId() != null ? request.drawerId().getBytes(StandardCharsets.UTF_8) : null;
+
+        Output out = new Output(set.size(), drawerId != null ? 5 + drawerId.length : 0);
+        out.header(set.id(), (request.previousAmountCents() != null ? HAS_PREVIOUS : 0)
+                | (available != null ? HAS_AVAILABLE : 0)
+                | (availableSparse ? AVAILABLE_SPARSE : 0)
+                | (drawerId != null ? HAS_DRAWER : 0)
+                | (request.changeMode() == ChangeMode.MINIMAL_EXCHANGE ? MINIMAL_EXCHANGE : 0));
+        out.signed(request.amountCents());
+        if (request.previousAmountCents() != null) {
+            out.signed(request.previousAmountCents());
+        }
+        if (available != null) {
+            out.counts(available, availableSparse, false);
+        }
+        if (drawerId != null) {
+            out.unsigned(drawerId.length);
+            out.bytes(drawerId);
+        }
+        return out.toByteArray();
+    }
+
+    public static CalculationRequest decodeRequest(byte[] message, DenominationSet set) {
+        Input in = new Input(message);
+        int flags = in.header(set);
+        long amount = in.signed();
+        Long previousAmount = (flags & HAS_PREVIOUS) != 0 ? in.signed() : null;
+        Map<String, Integer> available = null;
+        if ((flags & HAS_AVAILABLE) != 0) {
+            long[] counts = in.counts(set.size(), (flags & AVAILABLE_SPARSE) != 0, false);
+            available = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Available count out of range: " + counts[i]);
+                }
+                if (counts[i] > 0) {
+                    available.put(set.key(i), (int) counts[i]);
+                }
+            }
+        }
+        String drawerId = (flags & HAS_DRAWER) != 0 ? in.string() : null;
+        in.end();
+        return new CalculationRequest(amount, previousAmount, available, drawerId, null,
+                (flags & MINIMAL_EXCHANGE) != 0 ? ChangeMode.MINIMAL_EXCHANGE : null);
+    }
+
+    //Id of the denomination set a message was encoded for, ANY_SET when a request leaves it to the service
+    public static int setId(byte[] message) {
+        Input in = new Input(message);
+        in.next();
+        return in.next() << 24 | in.next() << 16 | in.next() << 8 | in.next();
+    }
+
+    //Counts keyed like the breakdown, one per denomination of the set, missing ones being 0
+    private static long[] toCounts(Map<String, ? extends Number> map, DenominationSet set) {
+        long[] counts = new long[set.size()];
+        int found = 0;
+        for (int i = 0; i < counts.length; i++) {
+            Number count = map.get(set.key(i));
+            if (count != null) {
+                counts[i] = count.longValue();
+                found++;
+            }
+        }
+        if (found != map.size()) {
+            throw new IllegalArgumentException("Counts contain a denomination that is not in " + set);
+        }
+        return counts;
+    }
+
+    private static boolean sparseIsShorter(long[] counts, boolean signed) {
+        int dense = 0;
+        int sparse = 0;
+        int entries = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int size = varintSize(signed ? zigzag(counts[i]) : counts[i]);
+            dense += size;
+            if (counts[i] != 0) {
+                sparse += varintSize(i) + size;
+                entries++;
+            }
+        }
+        return varintSize(entries) + sparse < dense;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    //Fixed-capacity writer; the capacity is the largest message a set of this size can produce
+    private static final class Output {
+
+        private final byte[] bytes;
+        private int position;
+
+        Output(int denominations, int extraBytes) {
+            // Header, two amounts and two count arrays of at most index plus value per denomination
+            this.bytes = new byte[6 + 2 * 10 + 2 * (5 + denominations * 10) + extraBytes];
+        }
+
+        void header(int setId, int flags) {
+            bytes[position++] = (byte) VERSION;
+            bytes[position++] = (byte) (setId >>> 24);
+            bytes[position++] = (byte) (setId >>> 16);
+            bytes[position++] = (byte) (setId >>> 8);
+            bytes[position++] = (byte) setId;
+            bytes[position++] = (byte) flags;
+        }
+
+        void signed(long value) {
+            unsigned(zigzag(value));
+        }
+
+        void unsigned(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[position++] = (byte) value;
+        }
+
+        void bytes(byte[] value) {
+            System.arraycopy(value, 0, bytes, position, value.length);
+            position += value.length;
+        }
+
+        void counts(long[] counts, boolean sparse, boolean signed) {
+            if (!sparse) {
+                for (long count : counts) {
+                    count(count, signed);
+                }
+                return;
+            }
+            int entries = 0;
+            for (long count : counts) {
+                if (count != 0) {
+                    entries++;
+                }
+            }
+            unsigned(entries);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    unsigned(i);
+                    count(counts[i], signed);
+                }
+            }
+        }
+
+        private void count(long count, boolean signed) {
+            if (signed) {
+                signed(count);
+            } else if (count < 0) {
+                throw new IllegalArgumentException("Count must not be negative: " + count);
+            } else {
+                unsigned(count);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, position);
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        //Check the version and set id, returning the flags
+        int header(DenominationSet set) {
+            int version = next();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported wire format version: " + version);
+            }
+            int setId = next() << 24 | next() << 16 | next() << 8 | next();
+            if (setId != ANY_SET && setId != set.id()) {
+                throw new IllegalArgumentException(String.format(
+                        "Message was encoded for denomination set %08x, this service uses %08x", setId, set.id()));
+            }
+            return next();
+        }
+
+        long signed() {
+            return unzigzag(unsigned());
+        }
+
+        long unsigned() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long[] counts(int denominations, boolean sparse, boolean signed) {
+            long[] counts = new long[denominations];
+            if (!sparse) {
+                for (int i = 0; i < denominations; i++) {
+                    counts[i] = count(signed);
+                }
+                return counts;
+            }
+            long entries = unsigned();
+            if (entries > denominations) {
+                throw new IllegalArgumentException("More entries than denominations: " + entries);
+            }
+            for (int e = 0; e < entries; e++) {
+                long index = unsigned();
+                if (index >= denominations) {
+                    throw new IllegalArgumentException("Denomination index out of range: " + index);
+                }
+                counts[(int) index] = count(signed);
+            }
+            return counts;
+        }
+
+        private long count(boolean signed) {
+            long value = signed ? signed() : unsigned();
+            if (!signed && value < 0) {
+                throw new IllegalArgumentException("Count out of range: " + value);
+            }
+            return value;
+        }
+
+        String string() {
+            long length = unsigned();
+            if (length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+            String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        void end() {
+            if (position != bytes.length) {
+                throw new IllegalArgumentException("Unexpected trailing bytes: " + (bytes.length - position));
+            }
+        }
+
+        private int next() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated message");
+            }
+            return bytes[position++] & 0xFF;
+        }
+    }
+}
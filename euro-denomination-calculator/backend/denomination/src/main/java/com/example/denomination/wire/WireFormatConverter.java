@@ -0,0 +1,75 @@
+package com.example.denomination.wire;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.currency.CurrencyRegistry.Currency;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+//Reads and writes one message type in the binary wire format. The set id of a message selects its currency.
+abstract class WireFormatConverter<T> extends AbstractHttpMessageConverter<T> {
+
+    //Largest message accepted; real messages are tens of bytes
+    static final int MAX_MESSAGE_BYTES = 64 * 1024;
+
+    private final Class<T> type;
+    final CurrencyRegistry currencies;
+
+    WireFormatConverter(Class<T> type, CurrencyRegistry currencies) {
+        super(WireFormat.MEDIA_TYPE);
+        this.type = type;
+        this.currencies = currencies;
+    }
+
+    abstract byte[] encode(T value);
+
+    abstract T decode(byte[] message, Currency currency);
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return type == clazz;
+    }
+
+    @Override
+    protected T readInternal(Class<? extends T> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        byte[] message = inputMessage.getBody().readNBytes(MAX_MESSAGE_BYTES + 1);
+        if (message.length > MAX_MESSAGE_BYTES) {
+            throw new HttpMessageNotReadableException("Message exceeds " + MAX_MESSAGE_BYTES + " bytes", inputMessage);
+        }
+        try {
+            return decode(message, currencyOf(message));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException(e.getMessage(), e, inputMessage);
+        }
+    }
+
+    private Currency currencyOf(byte[] message) {
+        int setId = WireFormat.setId(message);
+        if (setId == WireFormat.ANY_SET) {
+            return currencies.defaultCurrency();
+        }
+        Currency currency = currencies.bySetId(setId);
+        if (currency == null) {
+            throw new IllegalArgumentException(String.format("Unknown denomination set %08x", setId));
+        }
+        return currency;
+    }
+
+    @Override
+    protected void writeInternal(T value, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        byte[] message;
+        try {
+            message = encode(value);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotWritableException(e.getMessage(), e);
+        }
+        outputMessage.getHeaders().setContentLength(message.length);
+        outputMessage.getBody().write(message);
+    }
+}
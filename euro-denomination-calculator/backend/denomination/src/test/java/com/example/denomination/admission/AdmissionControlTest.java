@@ -0,0 +1,95 @@
+package com.example.denomination.admission;
+
+import com.example.denomination.admission.AdmissionControl.ClientLimit;
+import com.example.denomination.admission.AdmissionControl.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdmissionControl control(int maxConcurrent, ClientLimit defaultLimit, Map<String, ClientLimit> clients) {
+        return new AdmissionControl(new ConcurrencyLimiter(maxConcurrent, 0, 0), defaultLimit, clients, registry,
+                clock::get);
+    }
+
+    @Test
+    void testRateLimitsEachConfiguredClient() {
+        AdmissionControl control = control(100, null, Map.of("shop-1", new ClientLimit(2, 1)));
+
+        assertEquals(Outcome.ADMITTED, control.admit("shop-1").outcome());
+        AdmissionControl.Decision limited = control.admit("shop-1");
+        assertEquals(Outcome.RATE_LIMITED, limited.outcome());
+        assertEquals(1, limited.retryAfterSeconds());
+
+        // Without a default limit, other clients and requests without a key are not rate limited
+        for (int i = 0; i < 10; i++) {
+            assertTrue(control.admit("shop-2").admitted());
+            assertTrue(control.admit(null).admitted());
+        }
+    }
+
+    @Test
+    void testUnknownClientsShareTheDefaultBucket() {
+        AdmissionControl control = control(100, new ClientLimit(0.1, 2), Map.of());
+
+        assertTrue(control.admit("a").admitted());
+        assertTrue(control.admit(null).admitted());
+        AdmissionControl.Decision limited = control.admit("b");
+
+        assertEquals(Outcome.RATE_LIMITED, limited.outcome());
+        assertEquals(10, limited.retryAfterSeconds());
+        clock.addAndGet(10_000_000_000L);
+        assertTrue(control.admit("c").admitted());
+    }
+
+    @Test
+    void testRejectsWhenConcurrencyLimitIsReached() {
+        AdmissionControl control = control(1, null, Map.of());
+
+        assertTrue(control.admit(null).admitted());
+        AdmissionControl.Decision busy = control.admit(null);
+        assertEquals(Outcome.QUEUE_FULL, busy.outcome());
+        assertEquals(1, busy.retryAfterSeconds());
+
+        control.release();
+        assertTrue(control.admit(null).admitted());
+    }
+
+    @Test
+    void testRateLimitedRequestsDoNotTakePermits() {
+        AdmissionControl control = control(1, new ClientLimit(1, 1), Map.of());
+
+        assertTrue(control.admit(null).admitted());
+        control.release();
+        assertEquals(Outcome.RATE_LIMITED, control.admit(null).outcome());
+        assertEquals(0, registry.get("denomination.admission.active").gauge().value());
+    }
+
+    @Test
+    void testCountsOutcomes() {
+        AdmissionControl control = control(1, null, Map.of("shop-1", new ClientLimit(1, 1)));
+
+        control.admit("shop-1");
+        control.admit("shop-1");
+        control.admit(null);
+
+        assertEquals(1, control.count(Outcome.ADMITTED));
+        assertEquals(1, control.count(Outcome.RATE_LIMITED));
+        assertEquals(1, control.count(Outcome.QUEUE_FULL));
+        assertEquals(1, registry.get("denomination.admission.requests")
+                .tags("outcome", "admitted", "reason", "none").functionCounter().count());
+        assertEquals(1, registry.get("denomination.admission.requests")
+                .tags("outcome", "rejected", "reason", "rate_limited").functionCounter().count());
+        assertEquals(0, registry.get("denomination.admission.requests")
+                .tags("outcome", "queued").functionCounter().count());
+        assertEquals(1, registry.get("denomination.admission.active").gauge().value());
+    }
+}
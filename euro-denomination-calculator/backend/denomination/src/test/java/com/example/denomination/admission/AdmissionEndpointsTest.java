@@ -0,0 +1,46 @@
+package com.example.denomination.admission;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Which endpoints the registered filter admits, checked with a client allowed a single request
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "denomination.admission.clients.shop-1.rate=0.01",
+        "denomination.admission.clients.shop-1.burst=1"})
+class AdmissionEndpointsTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.header("X-API-Key", "shop-1").build(), HttpResponse.BodyHandlers.discarding())
+                .statusCode();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+    }
+
+    @Test
+    void testCalculateEndpointsShareTheLimitAndBatchesAreNotAdmitted() throws Exception {
+        assertEquals(200, send(request("/api/calculate/23423").GET()));
+        assertEquals(429, send(request("/api/calculate/4532").GET()));
+        assertEquals(429, send(request("/api/calculate").header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1}"))));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, send(request("/api/calculate/batch").header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1}\n"))));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.denomination.admission;
+
+import com.example.denomination.admission.AdmissionControl.ClientLimit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private final AdmissionControl control = new AdmissionControl(new ConcurrencyLimiter(1, 0, 0), null,
+            Map.of("shop-1", new ClientLimit(1, 1)), new SimpleMeterRegistry());
+    private final AdmissionFilter filter = new AdmissionFilter(control, "X-API-Key");
+
+    private MockHttpServletResponse post(String client, MockFilterChain chain) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/calculate");
+        if (client != null) {
+            request.addHeader("X-API-Key", client);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Test
+    void testAdmittedRequestReleasesItsPermit() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        assertEquals(200, post(null, chain).getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(200, post(null, new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void testRateLimitedClientGets429() throws Exception {
+        post("shop-1", new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = post("shop-1", chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals("Rate limit exceeded", response.getContentAsString());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void testBusyServerGets503() throws Exception {
+        // The first request is still being calculated when the second one arrives
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+        }, (request, response, next) -> {
+            MockHttpServletResponse nested = post(null, new MockFilterChain());
+            assertEquals(503, nested.getStatus());
+            assertEquals("1", nested.getHeader("Retry-After"));
+            assertEquals("Server is busy, retry later", nested.getContentAsString());
+        });
+
+        assertEquals(200, post(null, chain).getStatus());
+        assertEquals(1, control.count(AdmissionControl.Outcome.QUEUE_FULL));
+    }
+
+    @Test
+    void testPreflightIsNotCounted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/api/calculate");
+        request.addHeader("X-API-Key", "shop-1");
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+
+        assertEquals(0, control.count(AdmissionControl.Outcome.ADMITTED));
+    }
+
+    @Test
+    void testCachedCalculationIsCountedButBatchIsNot() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/calculate/23423"), new MockHttpServletResponse(),
+                new MockFilterChain());
+        MockFilterChain batch = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/calculate/batch"), new MockHttpServletResponse(), batch);
+
+        assertEquals(1, control.count(AdmissionControl.Outcome.ADMITTED));
+        assertNotNull(batch.getRequest());
+    }
+}
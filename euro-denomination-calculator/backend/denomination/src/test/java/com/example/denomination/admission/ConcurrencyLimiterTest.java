@@ -0,0 +1,56 @@
+package com.example.denomination.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void testAdmitsUpToTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 0, 0);
+
+        assertEquals(ConcurrencyLimiter.Result.ADMITTED, limiter.acquire());
+        assertEquals(ConcurrencyLimiter.Result.ADMITTED, limiter.acquire());
+        assertEquals(2, limiter.active());
+        assertEquals(ConcurrencyLimiter.Result.QUEUE_FULL, limiter.acquire());
+
+        limiter.release();
+        assertEquals(ConcurrencyLimiter.Result.ADMITTED, limiter.acquire());
+    }
+
+    @Test
+    void testQueuedRequestTimesOut() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, TimeUnit.MILLISECONDS.toNanos(10));
+        limiter.acquire();
+
+        assertEquals(ConcurrencyLimiter.Result.TIMED_OUT, limiter.acquire());
+        assertEquals(0, limiter.waiting());
+    }
+
+    @Test
+    void testQueuedRequestIsAdmittedOnRelease() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, TimeUnit.SECONDS.toNanos(10));
+        limiter.acquire();
+
+        CompletableFuture<ConcurrencyLimiter.Result> waiting = CompletableFuture.supplyAsync(limiter::acquire);
+        while (limiter.waiting() == 0) {
+            Thread.onSpinWait();
+        }
+        // The queue holds one request, so a further one is turned away at once
+        assertEquals(ConcurrencyLimiter.Result.QUEUE_FULL, limiter.acquire());
+        limiter.release();
+
+        assertEquals(ConcurrencyLimiter.Result.ADMITTED_AFTER_WAIT, waiting.get(10, TimeUnit.SECONDS));
+        assertEquals(1, limiter.active());
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(1, -1, 0));
+    }
+}
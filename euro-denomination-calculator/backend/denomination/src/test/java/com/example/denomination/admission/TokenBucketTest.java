@@ -0,0 +1,74 @@
+package com.example.denomination.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void testAllowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        // Empty: the next token comes after one refill interval
+        assertEquals(SECOND / 10, bucket.tryAcquire(0));
+
+        assertEquals(0, bucket.tryAcquire(SECOND / 10));
+        assertTrue(bucket.tryAcquire(SECOND / 10) > 0);
+    }
+
+    @Test
+    void testDoesNotHoldMoreThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        long later = 60 * SECOND;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void testWorksAcrossNanoTimeWrap() {
+        long start = Long.MAX_VALUE - SECOND / 20;
+        TokenBucket bucket = new TokenBucket(10, 1, start);
+
+        assertEquals(0, bucket.tryAcquire(start));
+        assertTrue(bucket.tryAcquire(start + SECOND / 20) > 0);
+        assertEquals(0, bucket.tryAcquire(start + SECOND / 10));
+    }
+
+    @Test
+    void testConcurrentAcquiresTakeExactlyTheBurst() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 1_000, 0);
+        AtomicInteger taken = new AtomicInteger();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(4)) {
+            for (int thread = 0; thread < 4; thread++) {
+                pool.execute(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        if (bucket.tryAcquire(0) == 0) {
+                            taken.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        assertEquals(1_000, taken.get());
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.denomination.audit;
+
+import com.example.denomination.engine.DenominationSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditJournalReaderTest {
+
+    @TempDir
+    Path directory;
+
+    private void writeJournal() throws Exception {
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, DenominationSet.of(2, 1), 64 * 1024)) {
+            journal.append(300, AuditJournal.NO_PREVIOUS, new long[]{1, 1}, null);
+            journal.append(500, 300, new long[]{2, 1}, new long[]{1, 1});
+        }
+    }
+
+    @Test
+    void testReplayExposesRecordFields() throws Exception {
+        writeJournal();
+        long before = System.currentTimeMillis();
+
+        long[] previous = new long[2];
+        long[] changes = new long[2];
+        int[] index = {0};
+        long records = AuditJournalReader.replay(directory, record -> {
+            assertEquals(2, record.denominations());
+            assertEquals(200, record.denominationCents(0));
+            assertTrue(record.timestampMillis() <= before);
+            previous[index[0]] = record.hasPrevious() ? record.previousCents() : -1;
+            changes[index[0]] = record.change(0);
+            index[0]++;
+        });
+
+        assertEquals(2, records);
+        assertArrayEquals(new long[]{-1, 300}, previous);
+        assertArrayEquals(new long[]{0, 1}, changes);
+    }
+
+    @Test
+    void testChangesAreDerivedFromThePreviousCounts() throws Exception {
+        long large = (long) Integer.MAX_VALUE + 1;
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, DenominationSet.of(2, 1), 64 * 1024)) {
+            journal.append(200, 700, new long[]{1, 0}, new long[]{3, 1});
+            journal.append(200, 2 * large * 200, new long[]{1, 0}, new long[]{large, 0});
+        }
+
+        long[][] changes = new long[2][];
+        int[] index = {0};
+        AuditJournalReader.replay(directory, record -> {
+            assertTrue(record.hasPrevious());
+            changes[index[0]++] = new long[]{record.change(0), record.change(1)};
+        });
+
+        assertArrayEquals(new long[]{-2, -1}, changes[0]);
+        // Previous counts beyond the int range are not kept, so no change is derived
+        assertArrayEquals(new long[]{0, 0}, changes[1]);
+    }
+
+    @Test
+    void testReplayIgnoresOtherFiles() throws Exception {
+        writeJournal();
+        Files.writeString(directory.resolve("notes.txt"), "not a segment");
+
+        assertEquals(2, AuditJournalReader.replay(directory, record -> { }));
+    }
+
+    //Segments of the {2, 1} set followed by segments of {5, 2, 1}, as written across a reload
+    private void writeJournalOfTwoSets() throws Exception {
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, DenominationSet.of(2, 1), 64 * 1024)) {
+            journal.append(300, AuditJournal.NO_PREVIOUS, new long[]{1, 1}, null);
+            AuditJournal reloaded = journal.forSet(DenominationSet.of(5, 2, 1));
+            reloaded.append(700, AuditJournal.NO_PREVIOUS, new long[]{1, 1, 0}, null);
+            reloaded.append(800, 700, new long[]{1, 1, 1}, new long[]{1, 1, 0});
+        }
+    }
+
+    private String main(String... args) throws Exception {
+        PrintStream original = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try {
+            AuditJournalReader.main(args);
+        } finally {
+            System.setOut(original);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testTotalsAddPiecesByDenominationAcrossSets() throws Exception {
+        writeJournalOfTwoSets();
+
+        AuditJournalReader.Totals totals = AuditJournalReader.totals(directory, record -> { });
+
+        assertEquals(3, totals.records());
+        assertEquals(1800, totals.totalCents());
+        // The 2.00 and 1.00 pieces of both sets add up, although they are at other indexes in each
+        assertEquals(Map.of(500L, 2L, 200L, 3L, 100L, 2L), totals.piecesByCents());
+        assertEquals(List.of(500L, 200L, 100L), List.copyOf(totals.piecesByCents().keySet()));
+    }
+
+    @Test
+    void testMainPrintsSummary() throws Exception {
+        writeJournalOfTwoSets();
+
+        String[] lines = main(directory.toString()).split("\n");
+
+        assertTrue(lines[0].startsWith("records=3 totalCents=1800 "));
+        assertArrayEquals(new String[]{"5.00: 2", "2.00: 3", "1.00: 2"}, Arrays.copyOfRange(lines, 1, lines.length));
+    }
+
+    @Test
+    void testMainPrintsCsv() throws Exception {
+        writeJournal();
+
+        String[] lines = main(directory.toString(), "--csv").split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].endsWith(",300,,1,1,0,0"));
+        assertTrue(lines[1].endsWith(",500,300,2,1,1,0"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.denomination.audit;
+
+import com.example.denomination.engine.DenominationSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedAuditJournalTest {
+
+    private final DenominationSet set = DenominationSet.of(2, 1, 0.5);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAppendRollsOverIntoNewSegments() throws Exception {
+        // Room for 10 records of 72 bytes after the header page
+        long segmentBytes = JournalFormat.HEADER_BYTES + 10 * JournalFormat.recordBytes(3);
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, set, segmentBytes)) {
+            for (int i = 1; i <= 25; i++) {
+                journal.append(i * 50, AuditJournal.NO_PREVIOUS, new long[]{0, 0, i}, null);
+            }
+        }
+
+        assertEquals(3, AuditJournalReader.segments(directory).size());
+        List<Long> amounts = new ArrayList<>();
+        AuditJournalReader.replay(directory, record -> amounts.add(record.amountCents()));
+        assertEquals(25, amounts.size());
+        assertEquals(50L, amounts.get(0));
+        assertEquals(1250L, amounts.get(24));
+    }
+
+    @Test
+    void testRecordsAreDroppedWhileNoSegmentCanBeMapped() throws Exception {
+        long segmentBytes = JournalFormat.HEADER_BYTES + 10 * JournalFormat.recordBytes(3);
+        Path journalDirectory = directory.resolve("EUR");
+        try (MappedAuditJournal journal = new MappedAuditJournal(journalDirectory, set, segmentBytes)) {
+            // The current segment and the spare mapped ahead stay writable, the segments after them cannot be created
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (AuditJournalReader.segments(journalDirectory).size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            for (Path file : AuditJournalReader.segments(journalDirectory)) {
+                Files.delete(file);
+            }
+            Files.delete(journalDirectory);
+            for (int i = 1; i <= 30; i++) {
+                journal.append(i, AuditJournal.NO_PREVIOUS, new long[]{0, 0, i}, null);
+            }
+            assertEquals(10, journal.droppedRecords());
+
+            // Mapping is tried again for later records; one attempt made before may still fail
+            Files.createDirectories(journalDirectory);
+            for (int i = 31; i <= 60; i++) {
+                journal.append(i, AuditJournal.NO_PREVIOUS, new long[]{0, 0, i}, null);
+            }
+            long written = AuditJournalReader.replay(journalDirectory, record -> { });
+            assertTrue(written >= 20, "written " + written);
+            assertEquals(40, journal.droppedRecords() + written);
+        }
+    }
+
+    @Test
+    void testConcurrentAppendsAreAllRecorded() throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, set, 64 * 1024)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long amount = (long) thread * perThread + i;
+                        journal.append(amount, amount + 1, new long[]{thread, i, 1}, new long[]{0, 0, 0});
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Set<Long> amounts = new HashSet<>();
+        long records = AuditJournalReader.replay(directory, record -> {
+            amounts.add(record.amountCents());
+            assertEquals(record.amountCents() + 1, record.previousCents());
+            assertEquals(record.amountCents() % perThread, record.count(1));
+            assertEquals(record.count(0), record.change(0));
+        });
+        assertEquals(threads * perThread, records);
+        assertEquals(threads * perThread, amounts.size());
+    }
+
+    @Test
+    void testRestartContinuesInNextSegment() throws Exception {
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, set, 64 * 1024)) {
+            journal.append(100, AuditJournal.NO_PREVIOUS, new long[]{0, 1, 0}, null);
+        }
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, set, 64 * 1024)) {
+            journal.append(200, 100, new long[]{1, 0, 0}, new long[]{0, 1, 0});
+        }
+
+        assertEquals(2, AuditJournalReader.segments(directory).size());
+        assertEquals(2, AuditJournalReader.replay(directory, record -> { }));
+    }
+
+    @Test
+    void testRejectsSegmentsTooSmallForARecord() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new MappedAuditJournal(directory, set, JournalFormat.HEADER_BYTES));
+    }
+
+    @Test
+    void testJournalOfAnotherSetWritesSegmentsOfItsOwn() throws Exception {
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, set, 64 * 1024)) {
+            assertSame(journal, journal.forSet(DenominationSet.of(2, 1, 0.5)));
+            AuditJournal reloaded = journal.forSet(DenominationSet.of(2, 1));
+
+            journal.append(100, AuditJournal.NO_PREVIOUS, new long[]{0, 1, 0}, null);
+            reloaded.append(300, AuditJournal.NO_PREVIOUS, new long[]{1, 1}, null);
+            // A calculation still running on the previous set
+            journal.append(150, AuditJournal.NO_PREVIOUS, new long[]{0, 1, 1}, null);
+        }
+
+        assertEquals(2, AuditJournalReader.segments(directory).size());
+        List<String> records = new ArrayList<>();
+        AuditJournalReader.replay(directory,
+                record -> records.add(record.amountCents() + "/" + record.denominations()));
+        assertEquals(List.of("100/3", "150/3", "300/2"), records);
+    }
+
+    @Test
+    void testReloadingBackReusesTheJournalOfTheSet() throws Exception {
+        try (MappedAuditJournal journal = new MappedAuditJournal(directory, set, 64 * 1024)) {
+            AuditJournal other = journal.forSet(DenominationSet.of(2, 1));
+            for (int reload = 0; reload < 50; reload++) {
+                assertSame(journal, other.forSet(set));
+                assertSame(other, journal.forSet(DenominationSet.of(2, 1)));
+            }
+
+            journal.append(100, AuditJournal.NO_PREVIOUS, new long[]{0, 1, 0}, null);
+            other.append(300, AuditJournal.NO_PREVIOUS, new long[]{1, 1}, null);
+            other.forSet(set).append(150, AuditJournal.NO_PREVIOUS, new long[]{0, 1, 1}, null);
+        }
+
+        assertEquals(2, AuditJournalReader.segments(directory).size());
+        List<String> records = new ArrayList<>();
+        AuditJournalReader.replay(directory,
+                record -> records.add(record.amountCents() + "/" + record.denominations()));
+        assertEquals(List.of("100/3", "150/3", "300/2"), records);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.denomination.cache;
+
+import com.example.denomination.model.ChangeMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private double count(String name, String result) {
+        var search = registry.find(name);
+        return (result != null ? search.tag("result", result) : search).functionCounter().count();
+    }
+
+    @Test
+    void testCapacityIsRoundedUpToAPowerOfTwo() {
+        assertEquals(2, new ResultCache(2, registry).capacity());
+        assertEquals(1024, new ResultCache(1000, new SimpleMeterRegistry()).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new ResultCache(1, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testEveryPartOfTheKeyCounts() {
+        ResultCache cache = new ResultCache(64, registry);
+        byte[] body = {1};
+        cache.put(7, 4532, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE, body);
+
+        assertSame(body, cache.get(7, 4532, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        assertNull(cache.get(8, 4532, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        assertNull(cache.get(7, 4533, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        assertNull(cache.get(7, 4532, 0, ChangeMode.DIFFERENCE));
+        assertNull(cache.get(7, 4532, ResultCache.NO_PREVIOUS, ChangeMode.MINIMAL_EXCHANGE));
+        assertEquals(1, count("denomination.cache.requests", "hit"));
+        assertEquals(4, count("denomination.cache.requests", "miss"));
+    }
+
+    @Test
+    void testFullCacheEvictsButKeepsWhatWasJustHit() {
+        // A single bucket of two slots
+        ResultCache cache = new ResultCache(2, registry);
+        cache.put(1, 100, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE, new byte[]{1});
+        cache.put(1, 200, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE, new byte[]{2});
+
+        // 100 is in the back slot, the hit moves it to the front so 200 is evicted next
+        assertNotNull(cache.get(1, 100, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        cache.put(1, 300, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE, new byte[]{3});
+
+        assertNotNull(cache.get(1, 100, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        assertNotNull(cache.get(1, 300, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        assertNull(cache.get(1, 200, ResultCache.NO_PREVIOUS, ChangeMode.DIFFERENCE));
+        assertEquals(1, count("denomination.cache.evictions", null));
+    }
+}
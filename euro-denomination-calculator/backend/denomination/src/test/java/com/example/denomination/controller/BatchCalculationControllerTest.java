@@ -0,0 +1,41 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.service.BatchCalculationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCalculationControllerTest {
+
+    @Mock
+    private BatchCalculationService batchCalculationService;
+
+    @InjectMocks
+    private BatchCalculationController batchCalculationController;
+
+    @Test
+    void testCalculateBatch_StreamsThroughService() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("{\"amount\":1}\n".getBytes());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(batchCalculationService.process(any(), any()))
+                .thenReturn(new BatchCalculationService.BatchSummary(1, 0));
+
+        batchCalculationController.calculateBatch(request, response);
+
+        assertEquals(200, response.getStatus());
+        assertTrue(response.getContentType().startsWith(MediaType.APPLICATION_NDJSON_VALUE));
+        verify(batchCalculationService).process(request.getInputStream(), response.getOutputStream());
+    }
+}
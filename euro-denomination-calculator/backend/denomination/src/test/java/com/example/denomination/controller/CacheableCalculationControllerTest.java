@@ -0,0 +1,170 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.cache.ResultCache;
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
+import com.example.denomination.model.DenominationResult;
+import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheableCalculationControllerTest {
+
+    private static final double[] EUR = {200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01};
+
+    private static final double[] CHF = {1000, 200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05};
+
+    private final ResultCache resultCache = new ResultCache(64, new SimpleMeterRegistry());
+    private final CurrencyRegistry currencyRegistry = new CurrencyRegistry("EUR", Map.of(
+            "EUR", new DenominationService(EUR),
+            "CHF", new DenominationService(CHF)),
+            List.of());
+    private final CacheableCalculationController controller = new CacheableCalculationController(currencyRegistry,
+            resultCache, new ObjectMapper(), CalculationMetrics.disabled(DenominationSet.of(EUR)), Duration.ofDays(1));
+
+    private static ServletWebRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/calculate");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static String body(ResponseEntity<?> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testCalculatesWithETagAndCacheControl() {
+        ResponseEntity<?> response = controller.calculate(23423, 4532L, null, ChangeMode.DIFFERENCE, get(null));
+
+        assertEquals(200, response.getStatusCode().value());
+        String etag = CacheableCalculationController.etag(DenominationSet.of(EUR).id(), 23423, 4532,
+                ChangeMode.DIFFERENCE);
+        assertEquals(etag, response.getHeaders().getETag());
+        assertFalse(etag.startsWith("W/"));
+        assertEquals("max-age=86400, public", response.getHeaders().getCacheControl());
+        assertTrue(body(response).startsWith("{\"amount\":234.23,\"breakdown\":{\"200.00\":1,"));
+        assertTrue(body(response).contains("\"changes\":{"));
+    }
+
+    @Test
+    void testCashRoundingKeysTheResponseByTheRoundedAmount() throws Exception {
+        assertEquals(400, controller.calculate(23423, null, "CHF", ChangeMode.DIFFERENCE, get(null))
+                .getStatusCode().value());
+
+        currencyRegistry.reload("CHF", CHF, true);
+        ResponseEntity<?> rounded = controller.calculate(23423, null, "CHF", ChangeMode.DIFFERENCE, get(null));
+        ResponseEntity<?> exact = controller.calculate(23425, null, "CHF", ChangeMode.DIFFERENCE, get(null));
+
+        assertEquals(200, rounded.getStatusCode().value());
+        assertEquals(CacheableCalculationController.etag(DenominationSet.of(CHF).id(), 23425, ResultCache.NO_PREVIOUS,
+                ChangeMode.DIFFERENCE), rounded.getHeaders().getETag());
+        assertTrue(body(rounded).startsWith("{\"amount\":234.25,"));
+        assertSame(rounded.getBody(), exact.getBody());
+    }
+
+    @Test
+    void testSecondRequestIsServedFromTheCache() {
+        ResponseEntity<?> first = controller.calculate(4532, null, null, ChangeMode.DIFFERENCE, get(null));
+        ResponseEntity<?> second = controller.calculate(4532, null, null, ChangeMode.DIFFERENCE, get(null));
+
+        assertSame(first.getBody(), second.getBody());
+        assertNotNull(resultCache.get(DenominationSet.of(EUR).id(), 4532, ResultCache.NO_PREVIOUS,
+                ChangeMode.DIFFERENCE));
+    }
+
+    @Test
+    void testReloadBeforeTheCalculationIsSentAndCachedForTheNewSet() {
+        double[] withoutTwoHundred = {100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01};
+        AtomicBoolean reloaded = new AtomicBoolean();
+        // Reloads once after the controller has read the engine and looked up the cache
+        DenominationService reloading = new DenominationService(EUR) {
+            @Override
+            public DenominationResult calculate(CalculationRequest request) {
+                if (reloaded.compareAndSet(false, true)) {
+                    try {
+                        reload(withoutTwoHundred);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return super.calculate(request);
+            }
+        };
+        CacheableCalculationController reloadingController = new CacheableCalculationController(
+                new CurrencyRegistry("EUR", Map.of("EUR", reloading), List.of()), resultCache, new ObjectMapper(),
+                CalculationMetrics.disabled(DenominationSet.of(EUR)), Duration.ofDays(1));
+        ServletWebRequest request = get(null);
+
+        ResponseEntity<?> response = reloadingController.calculate(23423, null, null, ChangeMode.DIFFERENCE, request);
+
+        int reloadedId = DenominationSet.of(withoutTwoHundred).id();
+        String etag = CacheableCalculationController.etag(reloadedId, 23423, ResultCache.NO_PREVIOUS,
+                ChangeMode.DIFFERENCE);
+        assertTrue(reloaded.get());
+        assertEquals(etag, response.getHeaders().getETag());
+        assertEquals(etag, request.getResponse().getHeader("ETag"));
+        assertTrue(body(response).contains("\"100.00\":2"), body(response));
+        assertNull(resultCache.get(DenominationSet.of(EUR).id(), 23423, ResultCache.NO_PREVIOUS,
+                ChangeMode.DIFFERENCE));
+        assertSame(response.getBody(), resultCache.get(reloadedId, 23423, ResultCache.NO_PREVIOUS,
+                ChangeMode.DIFFERENCE));
+    }
+
+    @Test
+    void testMatchingIfNoneMatchIsNotModified() {
+        String etag = controller.calculate(4532, null, null, ChangeMode.DIFFERENCE, get(null)).getHeaders().getETag();
+
+        ServletWebRequest request = get(etag);
+        ResponseEntity<?> response = controller.calculate(4532, null, null, ChangeMode.DIFFERENCE, request);
+
+        assertEquals(304, response.getStatusCode().value());
+        assertEquals(etag, request.getResponse().getHeader("ETag"));
+        assertEquals("max-age=86400, public", response.getHeaders().getCacheControl());
+        assertNull(response.getBody());
+        assertEquals(200, controller.calculate(4533, null, null, ChangeMode.DIFFERENCE, get(etag))
+                .getStatusCode().value());
+    }
+
+    @Test
+    void testETagDependsOnTheCurrencyAndChangeMode() {
+        String eur = controller.calculate(2000, 1001L, null, ChangeMode.DIFFERENCE, get(null)).getHeaders().getETag();
+        String chf = controller.calculate(2000, 1001L, "CHF", ChangeMode.DIFFERENCE, get(null)).getHeaders().getETag();
+        ResponseEntity<?> minimal = controller.calculate(2000, 1001L, null, ChangeMode.MINIMAL_EXCHANGE, get(null));
+
+        assertNotEquals(eur, chf);
+        assertNotEquals(eur, minimal.getHeaders().getETag());
+        assertTrue(body(minimal).endsWith("\"changes\":{\"10.00\":1,\"0.01\":-1}}"), body(minimal));
+    }
+
+    @Test
+    void testInvalidRequests() {
+        assertEquals(400, controller.calculate(0, null, null, ChangeMode.DIFFERENCE, get(null))
+                .getStatusCode().value());
+        assertEquals(400, controller.calculate(100, -1L, null, ChangeMode.DIFFERENCE, get(null))
+                .getStatusCode().value());
+        assertEquals("Unknown currency: XXX", controller.calculate(100, null, "XXX", ChangeMode.DIFFERENCE, get(null))
+                .getBody());
+        assertEquals(400, controller.calculate(100, null, null, ChangeMode.MINIMAL_EXCHANGE, get(null))
+                .getStatusCode().value());
+    }
+}
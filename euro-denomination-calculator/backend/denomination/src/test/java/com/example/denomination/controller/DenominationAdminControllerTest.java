@@ -0,0 +1,49 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.service.DenominationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenominationAdminControllerTest {
+
+    private static final double[] ROUNDED = {200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05};
+
+    private final CurrencyRegistry currencyRegistry = new CurrencyRegistry("EUR", Map.of(
+            "EUR", new DenominationService(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01})),
+            List.of());
+    private final DenominationAdminController controller = new DenominationAdminController(currencyRegistry, "secret");
+
+    @Test
+    void testReloadsDenominations() {
+        ResponseEntity<?> response = controller.reloadDenominations("EUR", "secret", false, ROUNDED);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(12, ((List<?>) response.getBody()).size());
+        assertEquals("0.05€", currencyRegistry.currency("EUR").denominations().get(11));
+        assertEquals(12, currencyRegistry.service("EUR").denominationSet().size());
+    }
+
+    @Test
+    void testRequiresTheToken() {
+        assertEquals(403, controller.reloadDenominations("EUR", null, false, ROUNDED).getStatusCode().value());
+        assertEquals(403, controller.reloadDenominations("EUR", "guess", false, ROUNDED).getStatusCode().value());
+        assertEquals(403, new DenominationAdminController(currencyRegistry, "")
+                .reloadDenominations("EUR", "", false, ROUNDED).getStatusCode().value());
+        assertEquals(14, currencyRegistry.service("EUR").denominationSet().size());
+    }
+
+    @Test
+    void testRejectsUnknownCurrenciesAndInvalidSets() {
+        assertEquals(404, controller.reloadDenominations("USD", "secret", false, ROUNDED).getStatusCode().value());
+
+        ResponseEntity<?> response = controller.reloadDenominations("EUR", "secret", false, new double[]{1, 0.001});
+        assertEquals(400, response.getStatusCode().value());
+        assertEquals("Denomination must be at least 0.01: 0.001", response.getBody());
+    }
+}
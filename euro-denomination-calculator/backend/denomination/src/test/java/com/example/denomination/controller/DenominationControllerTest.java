@@ -1,22 +1,30 @@
 package com.example.denomination.controller;
 
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
 import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
 import com.example.denomination.model.DenominationResult;
+import com.example.denomination.service.ChangeNotPossibleException;
 import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.core.JsonParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 
 import java.util.Map;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,98 +33,208 @@ class DenominationControllerTest {
     @Mock
     private DenominationService denominationService;
 
-    @InjectMocks
+    @Mock
+    private CalculationMetrics metrics;
+
     private DenominationController denominationController;
 
     private DenominationResult mockResult;
 
     @BeforeEach
     void setUp() {
+        when(denominationService.denominationSet()).thenReturn(
+                DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01));
+        // The service dispatches a request to the calculation it asks for, stubbed per test below
+        lenient().when(denominationService.calculate(any())).thenCallRealMethod();
+        denominationController = new DenominationController(new CurrencyRegistry("EUR", Map.of(
+                "EUR", denominationService,
+                "CHF", new DenominationService(new double[]{1000, 200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05})),
+                List.of()), metrics);
+
         // Setup an sample mock results for multiple tests
         mockResult = new DenominationResult(
-                234.23,
-                Map.of("200.00", 1, "20.00", 1, "10.00", 1, "2.00", 2, "0.20", 1, "0.02", 1, "0.01", 1),
-                Map.of("200.00", 1, "20.00", 1, "10.00", 1, "5.00", -1, "2.00", 2)
+                23423,
+                Map.of("200.00", 1L, "20.00", 1L, "10.00", 1L, "2.00", 2L, "0.20", 1L, "0.02", 1L, "0.01", 1L),
+                Map.of("200.00", 1L, "20.00", 1L, "10.00", 1L, "5.00", -1L, "2.00", 2L)
         );
     }
 
     @Test
     void testCalculate_WithValidRequestAndPreviousAmount() {
-        CalculationRequest request = new CalculationRequest(234.23, 45.32);
+        CalculationRequest request = new CalculationRequest(23423, 4532L);
 
-        when(denominationService.calculateDenominations(234.23, 45.32))
+        when(denominationService.calculateDenominations(23423, 4532L))
                 .thenReturn(mockResult);
 
         ResponseEntity<?> response = denominationController.calculate(request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockResult, response.getBody());
-        verify(denominationService).calculateDenominations(234.23, 45.32);
+        verify(denominationService).calculateDenominations(23423, 4532L);
     }
 
     @Test
     void testCalculate_WithValidRequestWithoutPreviousAmount() {
-        CalculationRequest request = new CalculationRequest(100.0, null);
-        DenominationResult resultWithoutChanges = new DenominationResult(100.0, Map.of("100.00", 1), null);
+        CalculationRequest request = new CalculationRequest(10000, null);
+        DenominationResult resultWithoutChanges = new DenominationResult(10000, Map.of("100.00", 1L), null);
 
-        when(denominationService.calculateDenominations(100.0, null))
+        when(denominationService.calculateDenominations(10000, null))
                 .thenReturn(resultWithoutChanges);
 
         ResponseEntity<?> response = denominationController.calculate(request);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNull(((DenominationResult) response.getBody()).changes());
-        verify(denominationService).calculateDenominations(100.0, null);
+        verify(denominationService).calculateDenominations(10000, null);
     }
 
     @Test
     void testCalculate_WithZeroAmount() {
-        CalculationRequest request = new CalculationRequest(0.0, null);
+        CalculationRequest request = new CalculationRequest(0, null);
 
         ResponseEntity<?> response = denominationController.calculate(request);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Amount must be positive", response.getBody());
-        verify(denominationService, never()).calculateDenominations(anyDouble(), anyDouble());
+        verify(denominationService, never()).calculateDenominations(anyLong(), any());
+        verify(metrics).rejected(Rejection.INVALID_AMOUNT);
     }
 
     @Test
     void testCalculate_WithNegativeAmount() {
-        CalculationRequest request = new CalculationRequest(-50.0, null);
+        CalculationRequest request = new CalculationRequest(-5000, null);
 
         ResponseEntity<?> response = denominationController.calculate(request);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Amount must be positive", response.getBody());
-        verify(denominationService, never()).calculateDenominations(anyDouble(), anyDouble());
+        verify(denominationService, never()).calculateDenominations(anyLong(), any());
+    }
+
+    @Test
+    void testCalculate_WithNegativePreviousAmount() {
+        CalculationRequest request = new CalculationRequest(5000, -100L);
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Previous amount must not be negative", response.getBody());
+        verify(denominationService, never()).calculate(any());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
     }
 
     @Test
     void testCalculate_WithIllegalArgumentException() {
-        CalculationRequest request = new CalculationRequest(100.0, null);
+        CalculationRequest request = new CalculationRequest(10000, null);
 
-        when(denominationService.calculateDenominations(100.0, null))
+        when(denominationService.calculateDenominations(10000, null))
                 .thenThrow(new IllegalArgumentException("Invalid amount"));
 
         ResponseEntity<?> response = denominationController.calculate(request);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Invalid amount", response.getBody());
-        verify(denominationService).calculateDenominations(100.0, null);
+        verify(denominationService).calculateDenominations(10000, null);
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
     }
 
     @Test
     void testCalculate_WithUnexpectedException() {
-        CalculationRequest request = new CalculationRequest(100.0, null);
+        CalculationRequest request = new CalculationRequest(10000, null);
 
-        when(denominationService.calculateDenominations(100.0, null))
+        when(denominationService.calculateDenominations(10000, null))
                 .thenThrow(new RuntimeException("Database error"));
 
         ResponseEntity<?> response = denominationController.calculate(request);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertTrue(response.getBody().toString().contains("Error calculating denominations"));
-        verify(denominationService).calculateDenominations(100.0, null);
+        verify(denominationService).calculateDenominations(10000, null);
+        verify(metrics).failed();
+    }
+
+    @Test
+    void testCalculate_WithAvailableStock() {
+        Map<String, Integer> available = Map.of("0.50", 1, "0.20", 5);
+        CalculationRequest request = new CalculationRequest(60, null, available);
+        DenominationResult stockResult = new DenominationResult(60, Map.of("0.20", 3L), null);
+
+        when(denominationService.calculateDenominations(60, null, available))
+                .thenReturn(stockResult);
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stockResult, response.getBody());
+        verify(denominationService, never()).calculateDenominations(anyLong(), any());
+    }
+
+    @Test
+    void testCalculate_WhenChangeNotPossible() {
+        Map<String, Integer> available = Map.of("0.50", 1);
+        CalculationRequest request = new CalculationRequest(60, null, available);
+
+        when(denominationService.calculateDenominations(60, null, available))
+                .thenThrow(new ChangeNotPossibleException("Cannot make change for 0.60 with the available stock"));
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals("Cannot make change for 0.60 with the available stock", response.getBody());
+        verify(metrics).rejected(Rejection.CHANGE_NOT_POSSIBLE);
+    }
+
+    @Test
+    void testCalculate_WithDrawer() {
+        CalculationRequest request = new CalculationRequest(23423, null, null, "till-1");
+
+        when(denominationService.calculateForDrawer("till-1", 23423, null))
+                .thenReturn(mockResult);
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockResult, response.getBody());
+        verify(denominationService, never()).calculateDenominations(anyLong(), any());
+    }
+
+    @Test
+    void testCalculate_WithDrawerAndPreviousAmount() {
+        CalculationRequest request = new CalculationRequest(23423, 4532L, null, "till-1");
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("drawerId must not be blank or combined with previousAmount", response.getBody());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
+        verify(denominationService, never()).calculateForDrawer(any(), anyLong(), any());
+    }
+
+    @Test
+    void testCalculate_WithMinimalExchange() {
+        CalculationRequest request = new CalculationRequest(23423, 4532L, null, null, null,
+                ChangeMode.MINIMAL_EXCHANGE);
+
+        when(denominationService.calculateMinimalExchange(23423, 4532))
+                .thenReturn(mockResult);
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(mockResult, response.getBody());
+        verify(denominationService, never()).calculateDenominations(anyLong(), any());
+    }
+
+    @Test
+    void testCalculate_WithMinimalExchangeAndAvailableStock() {
+        CalculationRequest request = new CalculationRequest(60, 100L, Map.of("0.20", 3), null, null,
+                ChangeMode.MINIMAL_EXCHANGE);
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("changeMode MINIMAL_EXCHANGE cannot be combined with available", response.getBody());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
     }
 
     @Test
@@ -128,14 +246,6 @@ class DenominationControllerTest {
     }
     @Test
     void testGetAvailableDenominations() {
-        try {
-            var field = DenominationController.class.getDeclaredField("availableDenominations");
-            field.setAccessible(true);
-            field.set(denominationController, List.of(200.0, 100.0, 50.0, 20.0, 10.0, 5.0, 2.0, 1.0, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01));
-        } catch (Exception e) {
-            fail("Failed to set availableDenominations field");
-        }
-
         ResponseEntity<List<String>> response = denominationController.getAvailableDenominations();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -144,4 +254,75 @@ class DenominationControllerTest {
         assertEquals("200.00€", response.getBody().get(0));
         assertEquals("0.01€", response.getBody().get(13));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetAvailableDenominations_ForCurrency() {
+        ResponseEntity<List<String>> response = denominationController.getAvailableDenominations("CHF");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("1000.00 CHF", response.getBody().get(0));
+        assertEquals(HttpStatus.NOT_FOUND, denominationController.getAvailableDenominations("XYZ").getStatusCode());
+    }
+
+    @Test
+    void testGetCurrencies() {
+        ResponseEntity<Map<String, List<String>>> response = denominationController.getCurrencies();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().size());
+        assertEquals(13, response.getBody().get("CHF").size());
+    }
+
+    @Test
+    void testCalculate_WithCurrency() {
+        CalculationRequest request = new CalculationRequest(120000, null, null, null, "CHF");
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Map.of("1000.00", 1L, "200.00", 1L), ((DenominationResult) response.getBody()).breakdown());
+        verify(denominationService, never()).calculateDenominations(anyLong(), any());
+    }
+
+    @Test
+    void testCalculate_WithAmountTheCurrencyCannotMake() {
+        // Francs go down to 5 cents, so 234.23 is rejected rather than paid as 234.20
+        ResponseEntity<?> response = denominationController.calculate(
+                new CalculationRequest(23423, null, null, null, "CHF"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Amount 234.23 is not a multiple of 0.05, the smallest the denominations can make",
+                response.getBody());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
+
+        response = denominationController.calculate(new CalculationRequest(23425, 4532L, null, null, "CHF"));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+
+        response = denominationController.calculate(
+                new CalculationRequest(23423, null, Map.of("200.00", 2), null, "CHF"));
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testCalculate_WithUnknownCurrency() {
+        CalculationRequest request = new CalculationRequest(1200, null, null, null, "XYZ");
+
+        ResponseEntity<?> response = denominationController.calculate(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Unknown currency: XYZ", response.getBody());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
+    }
+
+    @Test
+    void testMalformedRequest_ReportsJsonProblem() {
+        var cause = new JsonParseException(null, "Amount must have at most two decimal places");
+        var exception = new HttpMessageNotReadableException("JSON parse error", cause, null);
+
+        ResponseEntity<String> response = denominationController.malformedRequest(exception);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Malformed request: Amount must have at most two decimal places", response.getBody());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
+    }
+}
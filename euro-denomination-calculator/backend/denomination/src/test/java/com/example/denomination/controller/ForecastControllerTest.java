@@ -0,0 +1,60 @@
+package com.example.denomination.controller;
+
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
+import com.example.denomination.model.CashDemand;
+import com.example.denomination.service.ForecastService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ForecastControllerTest {
+
+    @Mock
+    private ForecastService forecastService;
+
+    @Mock
+    private CalculationMetrics metrics;
+
+    @InjectMocks
+    private ForecastController forecastController;
+
+    @Test
+    void testForecast_StreamsBodyThroughService() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("1.00\n".getBytes());
+        CashDemand demand = new CashDemand("EUR", 1, 100, 1, List.of(new CashDemand.Demand("1.00", 1, 100)));
+        when(forecastService.forecast(request.getInputStream(), null)).thenReturn(demand);
+
+        ResponseEntity<?> response = forecastController.forecast(null, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(demand, response.getBody());
+    }
+
+    @Test
+    void testForecastUpload_ReadsTheFile() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "payroll.txt", "text/plain", "1.00\n".getBytes());
+        when(forecastService.forecast(any(), eq("CHF"))).thenThrow(new IllegalArgumentException("Line 1: bad"));
+
+        ResponseEntity<?> response = forecastController.forecastUpload("CHF", file);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Line 1: bad", response.getBody());
+        verify(metrics).rejected(Rejection.INVALID_REQUEST);
+    }
+}
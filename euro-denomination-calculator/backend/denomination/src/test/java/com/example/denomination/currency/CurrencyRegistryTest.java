@@ -0,0 +1,89 @@
+package com.example.denomination.currency;
+
+import com.example.denomination.service.DenominationService;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyRegistryTest {
+
+    private final DenominationService euro = new DenominationService(new double[]{200, 100, 50, 20, 10, 5, 2, 1});
+    private final DenominationService franc = new DenominationService(new double[]{1000, 200, 100, 50});
+
+    private CurrencyRegistry registry() {
+        Map<String, DenominationService> services = new LinkedHashMap<>();
+        services.put("EUR", euro);
+        services.put("CHF", franc);
+        return new CurrencyRegistry("EUR", services, List.of());
+    }
+
+    @Test
+    void testLooksUpCurrenciesByCode() {
+        CurrencyRegistry registry = registry();
+
+        assertSame(euro, registry.service(null));
+        assertSame(franc, registry.service("CHF"));
+        assertEquals("EUR", registry.defaultCurrency().code());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> registry.service("chf"));
+        assertEquals("Unknown currency: chf", exception.getMessage());
+    }
+
+    @Test
+    void testLooksUpCurrenciesBySetId() {
+        CurrencyRegistry registry = registry();
+        int setId = franc.denominationSet().id();
+
+        assertEquals("CHF", registry.bySetId(setId).code());
+        assertSame(franc.denominationSet(), registry.setById(setId));
+        assertNull(registry.setById(0));
+    }
+
+    @Test
+    void testFormatsDenominationsOnce() {
+        CurrencyRegistry registry = registry();
+
+        assertEquals(List.of("EUR", "CHF"), List.copyOf(registry.denominationsByCode().keySet()));
+        assertEquals(List.of("1000.00 CHF", "200.00 CHF", "100.00 CHF", "50.00 CHF"),
+                registry.currency("CHF").denominations());
+        assertEquals("200.00€", registry.currency("EUR").denominations().get(0));
+        assertSame(registry.currency("CHF").denominations(), registry.denominationsByCode().get("CHF"));
+    }
+
+    @Test
+    void testRejectsInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CurrencyRegistry("USD", Map.of("EUR", euro), List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CurrencyRegistry("EUR", Map.of("EUR", euro, "XYZ", franc), List.of()));
+    }
+
+    @Test
+    void testCloseClosesResources() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+
+        new CurrencyRegistry("EUR", Map.of("EUR", euro), List.<AutoCloseable>of(closed::incrementAndGet)).close();
+
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void testReloadReplacesTheListingAndSetLookup() throws Exception {
+        CurrencyRegistry registry = registry();
+        int previousSetId = franc.denominationSet().id();
+
+        CurrencyRegistry.Currency reloaded = registry.reload("CHF", new double[]{1000, 200, 100}, false);
+
+        assertEquals(List.of("1000.00 CHF", "200.00 CHF", "100.00 CHF"), reloaded.denominations());
+        assertSame(reloaded, registry.currency("CHF"));
+        assertSame(reloaded.denominations(), registry.denominationsByCode().get("CHF"));
+        assertSame(franc.denominationSet(), registry.setById(franc.denominationSet().id()));
+        assertNull(registry.bySetId(previousSetId));
+        assertThrows(IllegalArgumentException.class, () -> registry.reload("USD", new double[]{1}, false));
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.denomination.drawer;
+
+import com.example.denomination.engine.DenominationSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawerStoreTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final DenominationSet set = DenominationSet.of(2, 1);
+    private final IntFunction<DenominationSet> setsById = id -> id == set.id() ? set : null;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testExchangeReturnsPreviousBreakdown() {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+
+        assertNull(store.exchange("till-1", set, new long[]{1, 0}));
+        assertArrayEquals(new long[]{1, 0}, store.exchange("till-1", set, new long[]{0, 1}));
+        assertArrayEquals(new long[]{0, 1}, store.get("till-1", set));
+        assertNull(store.get("till-2", set));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testUpdateCalculatesFromPreviousBreakdown() {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+
+        DrawerStore.Update first = store.update("till-1", set, previous -> {
+            assertNull(previous);
+            return new long[]{1, 0};
+        });
+        DrawerStore.Update second = store.update("till-1", set, previous -> new long[]{previous[0] + 1, previous[1]});
+
+        assertNull(first.previous());
+        assertArrayEquals(new long[]{1, 0}, second.previous());
+        assertArrayEquals(new long[]{2, 0}, second.counts());
+        assertArrayEquals(new long[]{2, 0}, store.get("till-1", set));
+        assertNull(store.update("till-1", DenominationSet.of(5, 2, 1), previous -> new long[3]).previous());
+    }
+
+    @Test
+    void testRejectsDrawerIdTooLongToSnapshot() throws Exception {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+        String longest = "€".repeat(DrawerStore.MAX_ID_LENGTH);
+        String tooLong = longest + "x";
+
+        assertThrows(IllegalArgumentException.class, () -> store.exchange(tooLong, set, new long[]{1, 0}));
+        assertThrows(IllegalArgumentException.class, () -> store.update(tooLong, set, previous -> new long[]{1, 0}));
+        assertEquals(0, store.size());
+
+        store.exchange(longest, set, new long[]{1, 0});
+        Path file = directory.resolve("drawers.bin");
+        assertEquals(1, store.snapshot(file));
+        DrawerStore restored = new DrawerStore(100, 60_000, clock::get);
+        assertEquals(1, restored.restore(file, setsById));
+        assertArrayEquals(new long[]{1, 0}, restored.get(longest, set));
+    }
+
+    @Test
+    void testBreakdownOfAnotherSetIsNotReturned() {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+        DenominationSet other = DenominationSet.of(5, 2, 1);
+
+        store.exchange("till-1", set, new long[]{1, 0});
+
+        assertNull(store.exchange("till-1", other, new long[]{1, 0, 0}));
+        assertNull(store.get("till-1", set));
+        assertArrayEquals(new long[]{1, 0, 0}, store.get("till-1", other));
+    }
+
+    @Test
+    void testEvictsIdleDrawers() {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+        store.exchange("till-1", set, new long[]{1, 0});
+        clock.addAndGet(30_000);
+        store.exchange("till-2", set, new long[]{1, 0});
+        clock.addAndGet(40_000);
+
+        assertEquals(1, store.evictIdle());
+        assertNull(store.get("till-1", set));
+        assertNotNull(store.get("till-2", set));
+    }
+
+    @Test
+    void testSizeBoundEvictsLeastRecentlyUsed() {
+        // Every stripe holds one drawer when the store is bounded to 16
+        DrawerStore store = new DrawerStore(16, 60_000, clock::get);
+        for (int i = 0; i < 1_000; i++) {
+            clock.incrementAndGet();
+            store.exchange("till-" + i, set, new long[]{i, 0});
+        }
+
+        assertTrue(store.size() <= 16);
+        assertNotNull(store.get("till-999", set));
+        assertNull(store.get("till-0", set));
+    }
+
+    @Test
+    void testSnapshotAndRestore() throws Exception {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+        store.exchange("till-1", set, new long[]{1, 0});
+        store.exchange("till-2", set, new long[]{3, 1});
+        Path file = directory.resolve("drawers.snapshot");
+
+        assertEquals(2, store.snapshot(file));
+        DrawerStore restored = new DrawerStore(100, 60_000, clock::get);
+
+        assertEquals(2, restored.restore(file, setsById));
+        assertArrayEquals(new long[]{3, 1}, restored.get("till-2", set));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testRestoreSkipsSetsNoLongerConfigured() throws Exception {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+        store.exchange("till-1", set, new long[]{1, 0});
+        Path file = directory.resolve("drawers.snapshot");
+        store.snapshot(file);
+
+        DrawerStore restored = new DrawerStore(100, 60_000, clock::get);
+
+        assertEquals(0, restored.restore(file, id -> null));
+        assertEquals(0, restored.restore(directory.resolve("missing.snapshot"), setsById));
+        assertEquals(0, restored.size());
+    }
+
+    @Test
+    void testRestoreKeepsIdleTimestamps() throws Exception {
+        DrawerStore store = new DrawerStore(100, 60_000, clock::get);
+        store.exchange("till-1", set, new long[]{1, 0});
+        Path file = directory.resolve("drawers.snapshot");
+        store.snapshot(file);
+        clock.addAndGet(120_000);
+
+        DrawerStore restored = new DrawerStore(100, 60_000, clock::get);
+        restored.restore(file, setsById);
+
+        assertEquals(1, restored.evictIdle());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.denomination.metrics;
+
+import com.example.denomination.audit.AuditJournal;
+import com.example.denomination.drawer.DrawerStore;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+import com.example.denomination.metrics.CalculationMetrics.Rejection;
+import com.example.denomination.service.DenominationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalculationMetricsTest {
+
+    private final double[] denominations = {200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01};
+    private SimpleMeterRegistry registry;
+    private CalculationMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new CalculationMetrics(registry, DenominationSet.of(denominations), "EUR");
+    }
+
+    @Test
+    void testRecordCalculationSplitsByPreviousAmountAndStock() {
+        metrics.recordCalculation(true, false, 1_000);
+        metrics.recordCalculation(false, false, 2_000);
+        metrics.recordCalculation(false, false, 3_000);
+
+        assertEquals(1, registry.get("denomination.calculation")
+                .tags("previous_amount", "with", "stock", "unlimited").timer().count());
+        assertEquals(2, registry.get("denomination.calculation")
+                .tags("previous_amount", "without", "stock", "unlimited").timer().count());
+        assertEquals(5_000, registry.get("denomination.calculation")
+                .tags("previous_amount", "without", "stock", "unlimited").timer().totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    void testRecordPiecesPerDenomination() {
+        assertEquals(0, registry.get("denomination.pieces").tag("denomination", "2.00").functionCounter().count());
+
+        metrics.pieces(DenominationSet.of(denominations)).record(new long[]{1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 0, 1, 1});
+        metrics.pieces(DenominationSet.of(denominations)).record(new long[]{0, 0, 0, 0, 0, 0, 3, 0, 0, 0, 0, 0, 0, 0});
+
+        assertEquals(5, registry.get("denomination.pieces").tag("denomination", "2.00").functionCounter().count());
+        assertEquals(1, registry.get("denomination.pieces").tag("denomination", "200.00").functionCounter().count());
+        assertEquals(0, registry.get("denomination.pieces").tag("denomination", "5.00").functionCounter().count());
+    }
+
+    @Test
+    void testRejectionsAndFailures() {
+        metrics.rejected(Rejection.INVALID_AMOUNT);
+        metrics.rejected(Rejection.INVALID_AMOUNT);
+        metrics.rejected(Rejection.CHANGE_NOT_POSSIBLE);
+        metrics.failed();
+
+        assertEquals(2, registry.get("denomination.requests.rejected").tag("reason", "invalid_amount").counter().count());
+        assertEquals(0, registry.get("denomination.requests.rejected").tag("reason", "invalid_request").counter().count());
+        assertEquals(1, registry.get("denomination.requests.rejected").tag("reason", "change_not_possible").counter().count());
+        assertEquals(1, registry.get("denomination.requests.failed").counter().count());
+    }
+
+    @Test
+    void testServiceRecordsIntoMetrics() {
+        DenominationService service = new DenominationService(denominations, EngineSettings.DEFAULTS, metrics,
+                AuditJournal.DISABLED, new DrawerStore(100, 60_000));
+
+        service.calculateDenominations(23423, 4532L);
+
+        assertEquals(1, registry.get("denomination.calculation")
+                .tags("previous_amount", "with", "stock", "unlimited").timer().count());
+        assertEquals(2, registry.get("denomination.pieces").tag("denomination", "2.00").functionCounter().count());
+    }
+
+    @Test
+    void testCurrenciesShareRequestCountersButNotPieces() {
+        CalculationMetrics pounds = new CalculationMetrics(registry, DenominationSet.of(50, 20, 10, 5, 2, 1), "GBP");
+
+        metrics.pieces(DenominationSet.of(denominations)).record(new long[]{0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0});
+        pounds.pieces(DenominationSet.of(50, 20, 10, 5, 2, 1)).record(new long[]{0, 0, 0, 0, 3, 0});
+        pounds.rejected(Rejection.INVALID_AMOUNT);
+        metrics.rejected(Rejection.INVALID_AMOUNT);
+
+        assertEquals(1, registry.get("denomination.pieces").tags("denomination", "2.00", "currency", "EUR")
+                .functionCounter().count());
+        assertEquals(3, registry.get("denomination.pieces").tags("denomination", "2.00", "currency", "GBP")
+                .functionCounter().count());
+        assertEquals(2, registry.get("denomination.requests.rejected").tag("reason", "invalid_amount")
+                .counter().count());
+    }
+
+    @Test
+    void testPiecesOfAnotherSetShareTheCountersOfItsDenominations() {
+        CalculationMetrics.Pieces rounded =
+                metrics.pieces(DenominationSet.of(200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05));
+
+        metrics.pieces(DenominationSet.of(denominations)).record(new long[]{0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 1});
+        rounded.record(new long[]{0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 1});
+
+        assertEquals(3, registry.get("denomination.pieces").tag("denomination", "2.00").functionCounter().count());
+        assertEquals(1, registry.get("denomination.pieces").tag("denomination", "0.05").functionCounter().count());
+        assertEquals(1, registry.get("denomination.pieces").tag("denomination", "0.01").functionCounter().count());
+    }
+}
@@ -1,24 +1,73 @@
 package com.example.denomination.model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CalculationRequestTest {
 
     @Test
     void testCalculationRequestRecord() {
-        CalculationRequest request = new CalculationRequest(234.23, 45.32);
+        CalculationRequest request = new CalculationRequest(23423, 4532L);
 
-        assertEquals(234.23, request.amount());
-        assertEquals(45.32, request.previousAmount());
+        assertEquals(23423, request.amountCents());
+        assertEquals(4532L, request.previousAmountCents());
         assertNotNull(request.toString());
     }
 
     @Test
     void testCalculationRequestWithNullPrevious() {
-        CalculationRequest request = new CalculationRequest(100.0, null);
+        CalculationRequest request = new CalculationRequest(10000, null);
+
+        assertEquals(10000, request.amountCents());
+        assertNull(request.previousAmountCents());
+    }
+
+    @Test
+    void testCalculationRequestWithAvailableStock() {
+        CalculationRequest request = new CalculationRequest(60, null, Map.of("0.20", 3));
+
+        assertEquals(Map.of("0.20", 3), request.available());
+        assertNull(new CalculationRequest(100, null).available());
+    }
+
+    @Test
+    void testJsonAmountsAreReadAsCents() throws Exception {
+        CalculationRequest request = new ObjectMapper().readValue(
+                "{\"amount\":234.23,\"previousAmount\":45.3,\"drawerId\":\"till-1\"}", CalculationRequest.class);
+
+        assertEquals(new CalculationRequest(23423, 4530L, null, "till-1"), request);
+    }
+
+    @Test
+    void testJsonChangeMode() throws Exception {
+        CalculationRequest request = new ObjectMapper().readValue(
+                "{\"amount\":20,\"previousAmount\":10.01,\"changeMode\":\"MINIMAL_EXCHANGE\"}",
+                CalculationRequest.class);
+
+        assertEquals(ChangeMode.MINIMAL_EXCHANGE, request.changeMode());
+        assertNull(new CalculationRequest(100, null).changeMode());
+    }
+
+    @Test
+    void testValidate() {
+        assertNull(new CalculationRequest(100, 0L).validate());
+        assertNull(new CalculationRequest(100, null, null, "till-1").validate());
+        assertEquals(CalculationRequest.AMOUNT_NOT_POSITIVE, new CalculationRequest(0, null).validate());
+        assertEquals("Previous amount must not be negative", new CalculationRequest(100, -1L).validate());
+        assertEquals("drawerId must not be blank or combined with previousAmount",
+                new CalculationRequest(100, null, null, " ").validate());
+        assertEquals("drawerId must not be blank or combined with previousAmount",
+                new CalculationRequest(100, 50L, null, "till-1").validate());
+    }
+
+    @Test
+    void testJsonAmountsAreWrittenWithTwoDecimals() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new CalculationRequest(23423, 5L));
 
-        assertEquals(100.0, request.amount());
-        assertNull(request.previousAmount());
+        assertTrue(json.startsWith("{\"amount\":234.23,\"previousAmount\":0.05,"), json);
     }
-}
\ No newline at end of file
+}
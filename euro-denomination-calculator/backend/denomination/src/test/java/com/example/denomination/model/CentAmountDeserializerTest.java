@@ -0,0 +1,87 @@
+package com.example.denomination.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CentAmountDeserializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private long cents(String amount) throws Exception {
+        return mapper.readValue("{\"amount\":" + amount + "}", CalculationRequest.class).amountCents();
+    }
+
+    private String rejection(String amount) {
+        return assertThrows(InvalidFormatException.class, () -> cents(amount)).getOriginalMessage();
+    }
+
+    @Test
+    void testReadsDecimalsExactly() throws Exception {
+        assertEquals(23423, cents("234.23"));
+        assertEquals(1, cents("0.01"));
+        assertEquals(10, cents("0.1"));
+        assertEquals(500, cents("5"));
+        assertEquals(-1250, cents("-12.5"));
+        assertEquals(0, cents("0"));
+    }
+
+    @Test
+    void testReadsTreasuryAmountsWithoutRounding() throws Exception {
+        // A double holds only about 16 significant digits, these amounts have 19
+        assertEquals(Long.MAX_VALUE, cents("92233720368547758.07"));
+        assertEquals(9007199254740993L, cents("90071992547409.93"));
+    }
+
+    @Test
+    void testReadsExponents() throws Exception {
+        assertEquals(100000, cents("1e3"));
+        assertEquals(23423, cents("2.3423E2"));
+        assertEquals(5, cents("5E-2"));
+        assertEquals(0, cents("0e999999999"));
+    }
+
+    @Test
+    void testReadsStringAmounts() throws Exception {
+        assertEquals(23423, cents("\"234.23\""));
+    }
+
+    @Test
+    void testAcceptsTrailingZeros() throws Exception {
+        assertEquals(105, cents("1.0500"));
+        assertEquals(100, cents("1.000e0"));
+    }
+
+    @Test
+    void testRejectsMoreThanTwoDecimalPlaces() {
+        assertEquals("Amount must have at most two decimal places", rejection("1.005"));
+        assertEquals("Amount must have at most two decimal places", rejection("1e-3"));
+        assertEquals("Amount must have at most two decimal places", rejection("0.1e-1000000"));
+    }
+
+    @Test
+    void testRejectsAmountsPastLongRange() {
+        assertEquals("Amount is too large", rejection("92233720368547758.08"));
+        assertEquals("Amount is too large", rejection("1e17"));
+        assertEquals("Amount is too large", rejection("123456789012345678901234567890"));
+    }
+
+    @Test
+    void testRejectsText() {
+        assertEquals("Amount is not a number", rejection("\"12,50\""));
+        assertEquals("Amount is not a number", rejection("\"\""));
+        assertEquals("Amount is not a number", rejection("\"1e\""));
+        assertThrows(MismatchedInputException.class, () -> cents("true"));
+    }
+
+    @Test
+    void testWritesTwoDecimals() throws Exception {
+        assertEquals("{\"amount\":92233720368547758.07,\"breakdown\":null,\"changes\":null}",
+                mapper.writeValueAsString(new DenominationResult(Long.MAX_VALUE, null, null)));
+        assertEquals("{\"amount\":-0.05,\"breakdown\":null,\"changes\":null}",
+                mapper.writeValueAsString(new DenominationResult(-5, null, null)));
+    }
+}
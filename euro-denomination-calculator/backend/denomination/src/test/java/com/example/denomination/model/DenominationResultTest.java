@@ -1,5 +1,7 @@
 package com.example.denomination.model;
 
+import com.example.denomination.engine.DenominationSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import java.util.Map;
 import static org.junit.jupiter.api.Assertions.*;
@@ -8,12 +10,12 @@ class DenominationResultTest {
 
     @Test
     void testDenominationResultRecord() {
-        Map<String, Integer> breakdown = Map.of("200.00", 1, "20.00", 1);
-        Map<String, Integer> changes = Map.of("200.00", 1, "20.00", 0);
+        Map<String, Long> breakdown = Map.of("200.00", 1L, "20.00", 1L);
+        Map<String, Long> changes = Map.of("200.00", 1L, "20.00", 0L);
 
-        DenominationResult result = new DenominationResult(234.23, breakdown, changes);
+        DenominationResult result = new DenominationResult(23423, breakdown, changes);
 
-        assertEquals(234.23, result.amount());
+        assertEquals(23423, result.amountCents());
         assertEquals(breakdown, result.breakdown());
         assertEquals(changes, result.changes());
         assertNotNull(result.toString());
@@ -21,13 +23,25 @@ class DenominationResultTest {
 
     @Test
     void testDenominationResultWithNullChanges() {
-        Map<String, Integer> breakdown = Map.of("200.00", 1);
+        Map<String, Long> breakdown = Map.of("200.00", 1L);
 
-        DenominationResult result = new DenominationResult(200.0, breakdown, null);
+        DenominationResult result = new DenominationResult(20000, breakdown, null);
 
-        assertEquals(200.0, result.amount());
+        assertEquals(20000, result.amountCents());
         assertEquals(breakdown, result.breakdown());
         assertNull(result.changes());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testSerializesCountViewsAsJsonObjects() throws Exception {
+        DenominationSet set = DenominationSet.of(200, 20, 5);
+        DenominationResult result = new DenominationResult(22000,
+                set.breakdownView(new long[]{1, 1, 0}),
+                set.changesView(new long[]{1, 1, 0}, new long[]{0, 0, 1}));
+
+        String json = new ObjectMapper().writeValueAsString(result);
+
+        assertEquals("{\"amount\":220.00,\"breakdown\":{\"200.00\":1,\"20.00\":1},"
+                + "\"changes\":{\"200.00\":1,\"20.00\":1,\"5.00\":-1}}", json);
+    }
+}
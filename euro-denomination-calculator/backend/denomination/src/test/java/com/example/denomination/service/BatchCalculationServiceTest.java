@@ -0,0 +1,153 @@
+package com.example.denomination.service;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchCalculationServiceTest {
+
+    private BatchCalculationService batchCalculationService;
+
+    @BeforeEach
+    void setUp() {
+        double[] denominations = {200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01};
+        batchCalculationService = new BatchCalculationService(
+                new CurrencyRegistry("EUR", Map.of(
+                        "EUR", new DenominationService(denominations),
+                        "GBP", new DenominationService(new double[]{50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01})),
+                        List.of()),
+                CalculationMetrics.disabled(DenominationSet.of(denominations)), new ObjectMapper());
+    }
+
+    private String process(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchCalculationService.process(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testProcess_WritesOneResultPerLine() throws Exception {
+        String output = process("{\"amount\":234.23}\n{\"amount\":234.23,\"previousAmount\":45.32}\n");
+        String[] lines = output.split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"amount\":234.23,\"breakdown\":{\"200.00\":1,"));
+        assertTrue(lines[0].endsWith("\"changes\":null}"));
+        assertTrue(lines[1].contains("\"changes\":{\"200.00\":1,\"20.00\":-1,"));
+    }
+
+    @Test
+    void testProcess_ReportsBadLinesWithoutStopping() throws Exception {
+        String output = process("{\"amount\":-5}\nnot json\n\n{\"amount\":0.01}\n{\"amount\":1,\"previousAmount\":-1}");
+        String[] lines = output.split("\n");
+
+        assertEquals(4, lines.length);
+        assertEquals("{\"line\":1,\"error\":\"Amount must be positive\"}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"line\":2,\"error\":\"Malformed request: "));
+        assertEquals("{\"amount\":0.01,\"breakdown\":{\"0.01\":1},\"changes\":null}", lines[2]);
+        assertEquals("{\"line\":5,\"error\":\"Previous amount must not be negative\"}", lines[3]);
+    }
+
+    @Test
+    void testProcess_RejectsAmountsWithMoreThanTwoDecimals() throws Exception {
+        String output = process("{\"amount\":1.005}\n{\"amount\":1.050}\n");
+        String[] lines = output.split("\n");
+
+        assertEquals("{\"line\":1,\"error\":\"Malformed request: Amount must have at most two decimal places\"}",
+                lines[0]);
+        assertTrue(lines[1].startsWith("{\"amount\":1.05,"));
+    }
+
+    @Test
+    void testProcess_DiffsDrawerLinesInOrder() throws Exception {
+        String output = process("{\"amount\":45.32,\"drawerId\":\"till-1\"}\n"
+                + "{\"amount\":234.23,\"drawerId\":\"till-1\"}\n"
+                + "{\"amount\":1,\"previousAmount\":2,\"drawerId\":\"till-1\"}\n");
+        String[] lines = output.split("\n");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].endsWith("\"changes\":null}"));
+        assertTrue(lines[1].contains("\"changes\":{\"200.00\":1,\"20.00\":-1,"));
+        assertEquals("{\"line\":3,\"error\":\"drawerId must not be blank or combined with previousAmount\"}", lines[2]);
+    }
+
+    @Test
+    void testProcess_AdjustsDrawerLinesWithMinimalExchange() throws Exception {
+        String output = process("{\"amount\":10.01,\"drawerId\":\"till-1\",\"changeMode\":\"MINIMAL_EXCHANGE\"}\n"
+                + "{\"amount\":20,\"drawerId\":\"till-1\",\"changeMode\":\"MINIMAL_EXCHANGE\"}\n");
+        String[] lines = output.split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"amount\":20.00,\"breakdown\":{\"10.00\":2},\"changes\":{\"10.00\":1,\"0.01\":-1}}",
+                lines[1]);
+    }
+
+    @Test
+    void testProcess_SelectsCurrencyPerLine() throws Exception {
+        String output = process("{\"amount\":300}\n{\"amount\":300,\"currency\":\"GBP\"}\n"
+                + "{\"amount\":300,\"currency\":\"XYZ\"}\n");
+        String[] lines = output.split("\n");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"breakdown\":{\"200.00\":1,\"100.00\":1}"));
+        assertTrue(lines[1].contains("\"breakdown\":{\"50.00\":6}"));
+        assertEquals("{\"line\":3,\"error\":\"Unknown currency: XYZ\"}", lines[2]);
+    }
+
+    @Test
+    void testProcess_ReturnsSummary() throws Exception {
+        var summary = batchCalculationService.process(
+                new ByteArrayInputStream("{\"amount\":1}\n{\"amount\":0}\n".getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayOutputStream());
+
+        assertEquals(2, summary.lines());
+        assertEquals(1, summary.failed());
+    }
+
+    @Test
+    void testProcess_AnswersBeforeInputIsComplete() throws Exception {
+        PipedOutputStream client = new PipedOutputStream();
+        InputStream input = new PipedInputStream(client);
+        PipedOutputStream server = new PipedOutputStream();
+        PipedInputStream responses = new PipedInputStream(server);
+
+        CompletableFuture<?> batch = CompletableFuture.runAsync(() -> {
+            try {
+                batchCalculationService.process(input, server);
+                server.close();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        client.write("{\"amount\":5}\n".getBytes(StandardCharsets.UTF_8));
+        client.flush();
+
+        // The first answer arrives while the request stream is still open
+        StringBuilder firstLine = new StringBuilder();
+        int next;
+        while ((next = responses.read()) != '\n') {
+            firstLine.append((char) next);
+        }
+        assertEquals("{\"amount\":5.00,\"breakdown\":{\"5.00\":1},\"changes\":null}", firstLine.toString());
+
+        client.close();
+        batch.get();
+    }
+}
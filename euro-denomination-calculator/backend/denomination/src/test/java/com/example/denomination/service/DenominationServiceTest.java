@@ -1,5 +1,12 @@
 package com.example.denomination.service;
 
+import com.example.denomination.audit.AuditJournal;
+import com.example.denomination.drawer.DrawerStore;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.engine.EngineSettings;
+import com.example.denomination.metrics.CalculationMetrics;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
 import com.example.denomination.model.DenominationResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,6 +14,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,14 +33,14 @@ class DenominationServiceTest {
 
     @Test
     void testCalculateDenominations_WithValidAmount() {
-        var result = denominationService.calculateDenominations(234.23, null);
+        var result = denominationService.calculateDenominations(23423, null);
 
         assertNotNull(result);
-        assertEquals(234.23, result.amount(), 0.001);
+        assertEquals(23423, result.amountCents());
         assertNotNull(result.breakdown());
         assertNull(result.changes());
 
-        Map<String, Integer> breakdown = result.breakdown();
+        Map<String, Long> breakdown = result.breakdown();
         assertEquals(1, breakdown.get("200.00"));
         assertEquals(1, breakdown.get("20.00"));
         assertEquals(1, breakdown.get("10.00"));
@@ -43,36 +52,32 @@ class DenominationServiceTest {
 
     @Test
     void testCalculateDenominations_WithPreviousAmount() {
-        var result = denominationService.calculateDenominations(234.23, 45.32);
+        var result = denominationService.calculateDenominations(23423, 4532L);
 
         assertNotNull(result);
-        assertEquals(234.23, result.amount(), 0.001);
+        assertEquals(23423, result.amountCents());
         assertNotNull(result.breakdown());
         assertNotNull(result.changes());
 
-        Map<String, Integer> changes = result.changes();
+        Map<String, Long> changes = result.changes();
 
         assertTrue(changes.size() > 0, "Changes should not be empty");
 
         // The sum of (change * denomination) should equal the difference in amounts
-        double totalChangeValue = changes.entrySet().stream()
-                .mapToDouble(entry -> {
-                    double denomination = Double.parseDouble(entry.getKey());
-                    return denomination * entry.getValue();
-                })
+        long totalChangeCents = changes.entrySet().stream()
+                .mapToLong(entry -> Math.round(Double.parseDouble(entry.getKey()) * 100) * entry.getValue())
                 .sum();
 
-        double expectedDifference = 234.23 - 45.32;
-        assertEquals(expectedDifference, totalChangeValue, 0.01,
+        assertEquals(23423 - 4532, totalChangeCents,
                 "Sum of changes should equal the difference between amounts");
     }
 
     @Test
     void testCalculateDenominations_ExampleFromRequirement() {
-        var result = denominationService.calculateDenominations(234.23, 45.32);
+        var result = denominationService.calculateDenominations(23423, 4532L);
 
-        Map<String, Integer> breakdown = result.breakdown();
-        Map<String, Integer> changes = result.changes();
+        Map<String, Long> breakdown = result.breakdown();
+        Map<String, Long> changes = result.changes();
 
         assertEquals(1, breakdown.get("200.00"));
         assertEquals(1, breakdown.get("20.00"));
@@ -88,23 +93,23 @@ class DenominationServiceTest {
 
     @Test
     void testCalculateChanges_WithEmptyPrevious() {
-        Map<String, Integer> current = Map.of("200.00", 1, "20.00", 2);
-        Map<String, Integer> previous = Map.of();
+        long[] current = {1, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        long[] previous = new long[14];
 
-        Map<String, Integer> changes = (Map<String, Integer>) ReflectionTestUtils.invokeMethod(
-                denominationService, "calculateChanges", current, previous
+        Map<String, Long> changes = (Map<String, Long>) ReflectionTestUtils.invokeMethod(DenominationService.class,
+                "calculateChanges", denominationService.denominationSet(), current, previous
         );
 
-        assertEquals(1, changes.getOrDefault("200.00", 0));
-        assertEquals(2, changes.getOrDefault("20.00", 0));
+        assertEquals(1, changes.getOrDefault("200.00", 0L));
+        assertEquals(2, changes.getOrDefault("20.00", 0L));
     }
 
     @Test
     void testCalculateDenominations_WithSameAmount() {
-        var result = denominationService.calculateDenominations(100.0, 100.0);
+        var result = denominationService.calculateDenominations(10000, 10000L);
 
         assertNotNull(result);
-        assertEquals(100.0, result.amount());
+        assertEquals(10000, result.amountCents());
         assertNotNull(result.changes());
 
         // All changes should be zero when amounts are the same
@@ -115,9 +120,9 @@ class DenominationServiceTest {
 
     @Test
     void testCalculateDenominations_WithVerySmallAmount() {
-        var result = denominationService.calculateDenominations(0.01, null);
+        var result = denominationService.calculateDenominations(1, null);
 
-        assertEquals(0.01, result.amount(), 0.001);
+        assertEquals(1, result.amountCents());
         assertEquals(1, result.breakdown().get("0.01"));
         assertNull(result.changes());
     }
@@ -125,20 +130,241 @@ class DenominationServiceTest {
     @Test
     void testCalculateDenominations_WithRoundingEdgeCase() {
         // Test amounts that might cause floating point issues
-        var result = denominationService.calculateDenominations(0.03, null);
+        var result = denominationService.calculateDenominations(3, null);
 
-        assertEquals(0.03, result.amount(), 0.001);
+        assertEquals(3, result.amountCents());
         assertEquals(1, result.breakdown().get("0.02"));
         assertEquals(1, result.breakdown().get("0.01"));
     }
 
     @Test
-    void testFormatDenominationKey() {
-        String result = (String) ReflectionTestUtils.invokeMethod(
-                denominationService, "formatDenominationKey", 50.0
+    void testCalculateChanges_OnlyListsUsedDenominations() {
+        long[] current = {1, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
+        long[] previous = {0, 0, 0, 1, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0};
+
+        Map<String, Long> changes = (Map<String, Long>) ReflectionTestUtils.invokeMethod(DenominationService.class,
+                "calculateChanges", denominationService.denominationSet(), current, previous
         );
 
-        assertEquals("50.00", result);
+        assertEquals(Map.of("200.00", 1L, "20.00", 1L, "5.00", -1L), changes);
+    }
+
+    @Test
+    void testCalculateDenominations_KeepsDescendingKeyOrder() {
+        var result = denominationService.calculateDenominations(23423, null);
+
+        assertEquals(List.of("200.00", "20.00", "10.00", "2.00", "0.20", "0.02", "0.01"),
+                List.copyOf(result.breakdown().keySet()));
+    }
+
+    @Test
+    void testCalculateDenominations_WithAvailableStock() {
+        var result = denominationService.calculateDenominations(60, null, Map.of("0.50", 1, "0.20", 5));
+
+        assertEquals(Map.of("0.20", 3L), result.breakdown());
+        assertNull(result.changes());
+    }
+
+    @Test
+    void testCalculateDenominations_WithAvailableStockAndPreviousAmount() {
+        var result = denominationService.calculateDenominations(60, 50L, Map.of("0.20", 5));
+
+        assertEquals(Map.of("0.50", -1L, "0.20", 3L), result.changes());
+    }
+
+    @Test
+    void testCalculateDenominations_WhenStockCannotMakeChange() {
+        var exception = assertThrows(ChangeNotPossibleException.class,
+                () -> denominationService.calculateDenominations(60, null, Map.of("0.50", 1)));
+
+        assertEquals("Cannot make change for 0.60 with the available stock", exception.getMessage());
+    }
+
+    @Test
+    void testCalculateDenominations_WithInvalidStock() {
+        assertThrows(IllegalArgumentException.class,
+                () -> denominationService.calculateDenominations(100, null, Map.of("3.00", 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> denominationService.calculateDenominations(100, null, Map.of("1.00", -1)));
+    }
+
+    @Test
+    void testCalculateDenominations_WithNonCanonicalSet() {
+        DenominationService service = new DenominationService(new double[]{4, 3, 1});
+
+        var result = service.calculateDenominations(600, 400L);
+
+        assertEquals(Map.of("3.00", 2L), result.breakdown());
+        assertEquals(Map.of("4.00", -1L, "3.00", 2L), result.changes());
+    }
+
+    @Test
+    void testCalculateDenominations_AppendsToAuditJournal() {
+        List<long[]> appended = new ArrayList<>();
+        DenominationService service = new DenominationService(new double[]{2, 1}, EngineSettings.DEFAULTS,
+                CalculationMetrics.disabled(DenominationSet.of(2, 1)),
+                (amountCents, previousCents, breakdown, previousBreakdown) -> appended.add(new long[]{
+                        amountCents, previousCents, breakdown[0], previousBreakdown != null ? previousBreakdown[0] : -1}),
+                new DrawerStore(100, 60_000));
+
+        service.calculateDenominations(500, null);
+        service.calculateDenominations(500, 300L);
+
+        assertEquals(2, appended.size());
+        assertArrayEquals(new long[]{500, AuditJournal.NO_PREVIOUS, 2, -1}, appended.get(0));
+        assertArrayEquals(new long[]{500, 300, 2, 1}, appended.get(1));
+    }
+
+    @Test
+    void testCalculateForDrawer_DiffsAgainstLastBreakdown() {
+        var first = denominationService.calculateForDrawer("till-1", 4532, null);
+        var second = denominationService.calculateForDrawer("till-1", 23423, null);
+        var other = denominationService.calculateForDrawer("till-2", 23423, null);
+
+        assertNull(first.changes());
+        assertEquals(denominationService.calculateDenominations(23423, 4532L).changes(), second.changes());
+        assertNull(other.changes());
+    }
+
+    @Test
+    void testCalculateForDrawer_StoresStockLimitedBreakdown() {
+        denominationService.calculateForDrawer("till-1", 60, Map.of("0.20", 3));
+        var result = denominationService.calculateForDrawer("till-1", 50, null);
+
+        assertEquals(Map.of("0.50", 1L, "0.20", -3L), result.changes());
+    }
+
+    @Test
+    void testCalculateForDrawer_KeepsPreviousBreakdownWhenChangeIsNotPossible() {
+        denominationService.calculateForDrawer("till-1", 100, null);
+
+        assertThrows(ChangeNotPossibleException.class,
+                () -> denominationService.calculateForDrawer("till-1", 60, Map.of("0.50", 1)));
+        assertEquals(Map.of("1.00", 0L, "0.50", 1L),
+                denominationService.calculateForDrawer("till-1", 150, null).changes());
+    }
+
+    @Test
+    void testCalculateMinimalExchange_MovesFewerPieces() {
+        var result = denominationService.calculateMinimalExchange(23423, 4532);
+
+        // One 20.00 note and the 0.10 coin stay in the drawer as 2 x 5.00 instead of a 10.00 note
+        assertEquals(Map.of("200.00", 1L, "20.00", 1L, "5.00", 2L, "2.00", 2L, "0.20", 1L, "0.02", 1L, "0.01", 1L),
+                result.breakdown());
+        assertEquals(Map.of("200.00", 1L, "20.00", -1L, "5.00", 1L, "2.00", 2L, "0.20", 0L, "0.10", -1L,
+                "0.02", 0L, "0.01", 1L), result.changes());
+    }
+
+    @Test
+    void testCalculateMinimalExchangeForDrawer_AdjustsWhatTheDrawerHolds() {
+        var first = denominationService.calculateMinimalExchangeForDrawer("till-1", 1001);
+        var second = denominationService.calculateMinimalExchangeForDrawer("till-1", 2000);
+        var third = denominationService.calculateForDrawer("till-1", 2000, null);
+
+        assertNull(first.changes());
+        assertEquals(Map.of("10.00", 1L, "0.01", -1L), second.changes());
+        // The drawer holds two 10.00 notes, so the plain difference swaps them for a 20.00 note
+        assertEquals(Map.of("20.00", 1L, "10.00", -2L), third.changes());
+    }
+
+    @Test
+    void testCalculate_DispatchesByRequest() {
+        assertEquals(denominationService.calculateMinimalExchange(2000, 1001L),
+                denominationService.calculate(new CalculationRequest(2000, 1001L, null, null, null,
+                        ChangeMode.MINIMAL_EXCHANGE)));
+        assertEquals(denominationService.calculateDenominations(2000, 1001L),
+                denominationService.calculate(new CalculationRequest(2000, 1001L)));
+
+        var missingPrevious = assertThrows(IllegalArgumentException.class, () -> denominationService.calculate(
+                new CalculationRequest(2000, null, null, null, null, ChangeMode.MINIMAL_EXCHANGE)));
+        assertEquals("changeMode MINIMAL_EXCHANGE needs a previousAmount or drawerId", missingPrevious.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> denominationService.calculate(
+                new CalculationRequest(2000, 1001L, Map.of("10.00", 2), null, null, ChangeMode.MINIMAL_EXCHANGE)));
+    }
+
+    @Test
+    void testCalculateDenominations_WithTreasuryAmount() {
+        // 92,233,720,368,547,758.07 is the largest amount in cents a long holds, far past an int count of notes
+        var result = denominationService.calculateDenominations(Long.MAX_VALUE, null);
+
+        assertEquals(Long.MAX_VALUE, result.amountCents());
+        assertEquals(Long.MAX_VALUE / 20000, result.breakdown().get("200.00"));
+        assertEquals(1L, result.breakdown().get("0.05"));
+        assertEquals(1L, result.breakdown().get("0.02"));
+    }
+
+    @Test
+    void testCalculateDenominations_FormatsCentsInMessages() {
+        var exception = assertThrows(ChangeNotPossibleException.class,
+                () -> denominationService.calculateDenominations(5, null, Map.of("0.02", 1)));
+
+        assertEquals("Cannot make change for 0.05 with the available stock", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testReload_SwitchesToTheNewSet() throws Exception {
+        DenominationService.Counts before = denominationService.calculateCounts(4532, null, ChangeMode.DIFFERENCE);
+
+        DenominationSet set =
+                denominationService.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05});
+
+        assertSame(set, denominationService.denominationSet());
+        assertSame(set, denominationService.engine().set());
+        var result = denominationService.calculateDenominations(4535, 4530L);
+        assertEquals(2, result.breakdown().get("20.00"));
+        assertEquals(1, result.breakdown().get("0.05"));
+        assertEquals(1, result.changes().get("0.05"));
+        assertFalse(result.breakdown().containsKey("0.01"));
+        // Counts of the previous set are not adjusted with the new one
+        DenominationService.Counts after =
+                denominationService.calculateCounts(4535, before, ChangeMode.MINIMAL_EXCHANGE);
+        assertSame(set, after.set());
+        assertArrayEquals(new long[]{0, 0, 0, 2, 0, 1, 0, 0, 0, 1, 1, 1}, after.counts());
+    }
+
+    @Test
+    void testReload_WithoutCashRoundingRejectsAmountsTheSetCannotMake() throws Exception {
+        denominationService.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05});
+
+        assertThrows(IllegalArgumentException.class, () -> denominationService.calculateDenominations(3, null));
+        assertThrows(IllegalArgumentException.class, () -> denominationService.calculateDenominations(23423, null));
+    }
+
+    @Test
+    void testReload_WithCashRoundingReportsTheRoundedAmount() throws Exception {
+        denominationService.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05}, true);
+
+        var result = denominationService.calculateDenominations(23423, 4532L);
+        assertEquals(23425, result.amountCents());
+        assertEquals(1, result.breakdown().get("0.05"));
+        // 45.32 is rounded to 45.30 before its breakdown is compared
+        assertEquals(-1, result.changes().get("5.00"));
+        assertEquals(1, result.changes().get("0.05"));
+
+        assertEquals(5, denominationService.calculateDenominations(3, null).amountCents());
+        assertEquals(0, denominationService.calculateDenominations(2, null).amountCents());
+        assertEquals(23425, denominationService.calculateMinimalExchange(23423, 4532).amountCents());
+        assertEquals(23425, denominationService.calculateForDrawer("till-1", 23423, null).amountCents());
+        assertEquals(23425, denominationService.calculateMinimalExchangeForDrawer("till-2", 23424).amountCents());
+        assertEquals(23425, denominationService.calculateCounts(23423, null, ChangeMode.DIFFERENCE).amountCents());
+    }
+
+    @Test
+    void testReload_DrawersStartOverOnTheNewSet() throws Exception {
+        denominationService.calculateForDrawer("till-1", 4532, null);
+
+        denominationService.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05});
+
+        assertNull(denominationService.calculateForDrawer("till-1", 4535, null).changes());
+        assertEquals(-1, denominationService.calculateForDrawer("till-1", 4540, null).changes().get("0.05"));
+    }
+
+    @Test
+    void testReload_RejectsInvalidSetsAndKeepsTheCurrentOne() {
+        DenominationSet current = denominationService.denominationSet();
+
+        assertThrows(IllegalArgumentException.class, () -> denominationService.reload(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> denominationService.reload(new double[]{1, 0.001}));
+        assertSame(current, denominationService.denominationSet());
+    }
+}
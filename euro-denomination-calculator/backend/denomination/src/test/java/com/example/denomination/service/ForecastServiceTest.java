@@ -0,0 +1,191 @@
+package com.example.denomination.service;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.model.CashDemand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ForecastServiceTest {
+
+    private DenominationService euro;
+    private CurrencyRegistry currencyRegistry;
+    private ForecastService forecastService;
+
+    @BeforeEach
+    void setUp() {
+        euro = new DenominationService(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01});
+        Map<String, DenominationService> services = new LinkedHashMap<>();
+        services.put("EUR", euro);
+        services.put("CHF", new DenominationService(new double[]{1000, 200, 100, 50, 20, 10, 5}));
+        // Small blocks so that even short inputs are cut into many blocks across the workers
+        currencyRegistry = new CurrencyRegistry("EUR", services, List.of());
+        forecastService = new ForecastService(currencyRegistry, 4, 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        forecastService.close();
+    }
+
+    private CashDemand forecast(String input, String currency) throws IOException {
+        return forecastService.forecast(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), currency);
+    }
+
+    private static long pieces(CashDemand demand, String denomination) {
+        return demand.denominations().stream()
+                .filter(d -> d.denomination().equals(denomination))
+                .findFirst().orElseThrow().pieces();
+    }
+
+    @Test
+    void testSumsBreakdownsOfEveryAmount() throws Exception {
+        CashDemand demand = forecast("234.23\n45.32\n", null);
+
+        assertEquals("EUR", demand.currency());
+        assertEquals(2, demand.amounts());
+        assertEquals(27955, demand.totalCents());
+        assertEquals(1, pieces(demand, "200.00"));
+        assertEquals(3, pieces(demand, "20.00"));
+        assertEquals(1, pieces(demand, "5.00"));
+        assertEquals(2, pieces(demand, "0.02"));
+        assertEquals(14, demand.denominations().size());
+        assertEquals(demand.pieces(), demand.denominations().stream().mapToLong(CashDemand.Demand::pieces).sum());
+        assertEquals(demand.totalCents(),
+                demand.denominations().stream().mapToLong(CashDemand.Demand::valueCents).sum());
+    }
+
+    @Test
+    void testMatchesSingleCalculationsAcrossBlocks() throws Exception {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder input = new StringBuilder();
+        long[] expected = new long[14];
+        long total = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long cents = random.nextLong(1, 1_000_000);
+            input.append(cents / 100).append('.').append(cents % 100 < 10 ? "0" : "").append(cents % 100);
+            input.append(i % 3 == 0 ? "\r\n" : "\n");
+            long[] counts = euro.engine().breakdown(cents);
+            for (int d = 0; d < counts.length; d++) {
+                expected[d] += counts[d];
+            }
+            total += cents;
+        }
+
+        CashDemand demand = forecast(input.toString(), "EUR");
+
+        assertEquals(10_000, demand.amounts());
+        assertEquals(total, demand.totalCents());
+        for (int d = 0; d < expected.length; d++) {
+            assertEquals(expected[d], demand.denominations().get(d).pieces());
+        }
+    }
+
+    @Test
+    void testUsesTheCurrencyEngine() throws Exception {
+        CashDemand demand = forecast("1200\n15\n", "CHF");
+
+        assertEquals("CHF", demand.currency());
+        assertEquals(1, pieces(demand, "1000.00"));
+        assertEquals(1, pieces(demand, "200.00"));
+        assertEquals(1, pieces(demand, "10.00"));
+        assertEquals(1, pieces(demand, "5.00"));
+    }
+
+    @Test
+    void testSkipsBlankLinesAndAcceptsMissingFinalNewline() throws Exception {
+        CashDemand demand = forecast("\n  1.5 \n\n2", null);
+
+        assertEquals(2, demand.amounts());
+        assertEquals(350, demand.totalCents());
+    }
+
+    @Test
+    void testEmptyInput() throws Exception {
+        CashDemand demand = forecast("", null);
+
+        assertEquals(0, demand.amounts());
+        assertEquals(0, demand.pieces());
+    }
+
+    @Test
+    void testReportsTheFirstBadLine() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 200; i++) {
+            input.append(i == 150 ? "1.005" : i == 180 ? "abc" : "1.00").append('\n');
+        }
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> forecast(input.toString(), null));
+
+        assertEquals("Line 150: Amount must have at most two decimal places", exception.getMessage());
+    }
+
+    @Test
+    void testRejectsLinesLongerThanABlock() {
+        assertThrows(IllegalArgumentException.class, () -> forecast("1".repeat(100), null));
+    }
+
+    @Test
+    void testStalledUploadDoesNotBlockOtherForecasts() throws Exception {
+        ForecastService single = new ForecastService(currencyRegistry, 1, 64);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch resumed = new CountDownLatch(1);
+        // Several blocks of the stalled upload are read and submitted before it stops sending
+        InputStream stalling = new SequenceInputStream(
+                new ByteArrayInputStream("1.00\n".repeat(100).getBytes(StandardCharsets.UTF_8)),
+                new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        stalled.countDown();
+                        try {
+                            resumed.await();
+                        } catch (InterruptedException e) {
+                            throw new IOException(e);
+                        }
+                        return -1;
+                    }
+                });
+        try {
+            CompletableFuture<CashDemand> first = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return single.forecast(stalling, null);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertTrue(stalled.await(5, TimeUnit.SECONDS));
+
+            CashDemand second = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> single.forecast(
+                    new ByteArrayInputStream("2.00\n".repeat(100).getBytes(StandardCharsets.UTF_8)), null));
+            assertEquals(100, second.amounts());
+
+            resumed.countDown();
+            assertEquals(100, first.get(5, TimeUnit.SECONDS).amounts());
+        } finally {
+            resumed.countDown();
+            single.close();
+        }
+    }
+
+    @Test
+    void testRejectsUnknownCurrency() {
+        assertThrows(IllegalArgumentException.class, () -> forecast("1\n", "XYZ"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.denomination.till;
+
+import com.example.denomination.model.ChangeMode;
+import com.example.denomination.service.DenominationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TillConnectionTest {
+
+    private final DenominationService service =
+            new DenominationService(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01});
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Mock
+    private WebSocketSession session;
+
+    private TillConnection connection(ChangeMode changeMode) {
+        return new TillConnection(session, service, changeMode, new ObjectMapper().writer(), tasks::add, coalesced);
+    }
+
+    private List<String> sent() throws IOException {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> messages = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session, atLeast(0)).sendMessage(messages.capture());
+        return messages.getAllValues().stream().map(message -> ((TextMessage) message).getPayload()).toList();
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    void testUpdateHoldsOnlyChangedCounts() throws Exception {
+        TillConnection connection = connection(ChangeMode.DIFFERENCE);
+
+        assertEquals("{\"amount\":45.32,\"counts\":{\"20.00\":2,\"5.00\":1,\"0.20\":1,\"0.10\":1,\"0.02\":1}}",
+                connection.update(4532));
+        assertEquals("{\"amount\":234.23,\"counts\":{\"200.00\":1,\"20.00\":1,\"10.00\":1,\"5.00\":0,\"2.00\":2,"
+                + "\"0.10\":0,\"0.01\":1}}", connection.update(23423));
+        assertEquals("{\"amount\":234.23,\"counts\":{}}", connection.update(23423));
+    }
+
+    @Test
+    void testMinimalExchangeAdjustsTheCountsSent() throws Exception {
+        TillConnection connection = connection(ChangeMode.MINIMAL_EXCHANGE);
+
+        connection.update(1001);
+
+        assertEquals("{\"amount\":20.00,\"counts\":{\"10.00\":2,\"0.01\":0}}", connection.update(2000));
+    }
+
+    @Test
+    void testAmountsArrivingDuringADrainAreCoalesced() throws Exception {
+        TillConnection connection = connection(ChangeMode.DIFFERENCE);
+
+        connection.offer(100);
+        connection.offer(200);
+        connection.offer(500);
+
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(List.of("{\"amount\":5.00,\"counts\":{\"5.00\":1}}"), sent());
+        assertEquals(2, coalesced.sum());
+
+        connection.offer(1000);
+        runTasks();
+        assertEquals("{\"amount\":10.00,\"counts\":{\"10.00\":1,\"5.00\":0}}", sent().get(1));
+    }
+
+    @Test
+    void testFailedSendClosesTheConnection() throws Exception {
+        doThrow(new IOException("Broken pipe")).when(session).sendMessage(any());
+        TillConnection connection = connection(ChangeMode.DIFFERENCE);
+
+        connection.offer(100);
+        runTasks();
+        connection.offer(200);
+
+        verify(session).close(CloseStatus.SESSION_NOT_RELIABLE);
+        // The drain started after closing sends nothing
+        runTasks();
+        verify(session, times(1)).sendMessage(any());
+    }
+
+    @Test
+    void testSendError() throws Exception {
+        connection(ChangeMode.DIFFERENCE).sendError("Amount must be positive");
+
+        assertEquals(List.of("{\"error\":\"Amount must be positive\"}"), sent());
+    }
+
+    @Test
+    void testUpdateReportsTheCashRoundedAmount() throws Exception {
+        service.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05}, true);
+
+        assertEquals("{\"amount\":45.30,\"counts\":{\"20.00\":2,\"5.00\":1,\"0.20\":1,\"0.10\":1}}",
+                connection(ChangeMode.DIFFERENCE).update(4532));
+    }
+
+    @Test
+    void testAmountTheSetCannotMakeIsSentAsError() throws Exception {
+        service.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05});
+        TillConnection connection = connection(ChangeMode.DIFFERENCE);
+
+        connection.offer(4532);
+        runTasks();
+
+        assertEquals(List.of("{\"error\":\"Amount 45.32 is not a multiple of 0.05, the smallest the denominations "
+                + "can make\"}"), sent());
+    }
+
+    @Test
+    void testUpdateAfterReloadZeroesWithdrawnDenominations() throws Exception {
+        TillConnection connection = connection(ChangeMode.DIFFERENCE);
+        connection.update(4532);
+
+        service.reload(new double[]{200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05});
+
+        assertEquals("{\"amount\":45.35,\"counts\":{\"0.05\":1,\"0.02\":0}}", connection.update(4535));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.denomination.till;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class TillWebSocketHandlerTest {
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    //Messages and the close of one connection, in arrival order
+    private static final class Listener implements WebSocket.Listener {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final CompletableFuture<Integer> closed = new CompletableFuture<>();
+        private final StringBuilder partial = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closed.complete(statusCode);
+            return null;
+        }
+
+        String next() throws InterruptedException {
+            String message = messages.poll(10, TimeUnit.SECONDS);
+            assertNotNull(message, "No message within 10 s");
+            return message;
+        }
+    }
+
+    private WebSocket connect(String query, Listener listener) {
+        return client.newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + port + "/api/till" + query), listener)
+                .join();
+    }
+
+    @Test
+    void testStreamsChangedCounts() throws Exception {
+        Listener listener = new Listener();
+        WebSocket socket = connect("", listener);
+
+        socket.sendText("45.32", true).join();
+        assertEquals("{\"amount\":45.32,\"counts\":{\"20.00\":2,\"5.00\":1,\"0.20\":1,\"0.10\":1,\"0.02\":1}}",
+                listener.next());
+        socket.sendText("234.23", true).join();
+        assertEquals("{\"amount\":234.23,\"counts\":{\"200.00\":1,\"20.00\":1,\"10.00\":1,\"5.00\":0,\"2.00\":2,"
+                + "\"0.10\":0,\"0.01\":1}}", listener.next());
+        socket.sendText("1.005", true).join();
+        assertEquals("{\"error\":\"Amount must have at most two decimal places\"}", listener.next());
+
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+        listener.closed.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testCurrencyAndChangeModeOfTheConnection() throws Exception {
+        Listener listener = new Listener();
+        WebSocket socket = connect("?currency=CHF&changeMode=MINIMAL_EXCHANGE", listener);
+
+        socket.sendText("1205", true).join();
+        assertEquals("{\"amount\":1205.00,\"counts\":{\"1000.00\":1,\"200.00\":1,\"5.00\":1}}", listener.next());
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+    }
+
+    @Test
+    void testRejectsUnknownCurrency() throws Exception {
+        Listener listener = new Listener();
+        connect("?currency=XXX", listener);
+
+        assertEquals(1007, listener.closed.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.denomination.wire;
+
+import com.example.denomination.currency.CurrencyRegistry;
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.DenominationResult;
+import com.example.denomination.service.DenominationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatConverterTest {
+
+    private final DenominationSet set = DenominationSet.of(2, 1, 0.5);
+
+    private final DenominationService pounds = new DenominationService(new double[]{5, 2, 1});
+    private final CurrencyRegistry currencies = new CurrencyRegistry("EUR",
+            Map.of("EUR", new DenominationService(new double[]{2, 1, 0.5}), "GBP", pounds), List.of());
+
+    private final CalculationRequestConverter requestConverter = new CalculationRequestConverter(currencies);
+    private final DenominationResultConverter resultConverter = new DenominationResultConverter(currencies);
+
+    @Test
+    void testSupportsOnlyItsTypeAndMediaType() {
+        assertTrue(requestConverter.canRead(CalculationRequest.class, WireFormat.MEDIA_TYPE));
+        assertFalse(requestConverter.canRead(CalculationRequest.class, MediaType.APPLICATION_JSON));
+        assertFalse(requestConverter.canRead(DenominationResult.class, WireFormat.MEDIA_TYPE));
+        assertTrue(resultConverter.canWrite(DenominationResult.class, WireFormat.MEDIA_TYPE));
+        assertFalse(resultConverter.canWrite(Map.class, WireFormat.MEDIA_TYPE));
+    }
+
+    @Test
+    void testWriteSetsContentTypeAndLength() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        resultConverter.write(new DenominationResult(350, Map.of("2.00", 1L, "1.00", 1L, "0.50", 1L), null),
+                WireFormat.MEDIA_TYPE, output);
+
+        assertEquals(WireFormat.MEDIA_TYPE, output.getHeaders().getContentType());
+        assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+        assertEquals(350, WireFormat.decodeResult(output.getBodyAsBytes(), set).amountCents());
+    }
+
+    @Test
+    void testRead() throws Exception {
+        CalculationRequest request = new CalculationRequest(350, 100L, Map.of("0.50", 4), null, "EUR");
+        MockHttpInputMessage input = new MockHttpInputMessage(WireFormat.encodeRequest(request, set));
+
+        assertEquals(request, requestConverter.read(CalculationRequest.class, input));
+    }
+
+    @Test
+    void testSetIdSelectsCurrency() throws Exception {
+        CalculationRequest request = new CalculationRequest(800, null, null, null, "GBP");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        requestConverter.write(request, WireFormat.MEDIA_TYPE, output);
+
+        CalculationRequest decoded = requestConverter.read(CalculationRequest.class,
+                new MockHttpInputMessage(output.getBodyAsBytes()));
+
+        assertEquals(request, decoded);
+    }
+
+    @Test
+    void testWriteUsesTheSetOfTheResult() throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        resultConverter.write(pounds.calculateDenominations(800, null), WireFormat.MEDIA_TYPE, output);
+
+        assertEquals(pounds.denominationSet().id(), WireFormat.setId(output.getBodyAsBytes()));
+        assertEquals(Map.of("5.00", 1L, "2.00", 1L, "1.00", 1L), resultConverter.read(DenominationResult.class,
+                new MockHttpInputMessage(output.getBodyAsBytes())).breakdown());
+    }
+
+    @Test
+    void testReadRejectsMalformedAndOversizedMessages() {
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> requestConverter.read(CalculationRequest.class, new MockHttpInputMessage(new byte[]{1, 2})));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> requestConverter.read(CalculationRequest.class,
+                        new MockHttpInputMessage(new byte[]{1, 1, 2, 3, 4, 0, 2})));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> requestConverter.read(CalculationRequest.class,
+                        new MockHttpInputMessage(new byte[WireFormatConverter.MAX_MESSAGE_BYTES + 1])));
+    }
+}
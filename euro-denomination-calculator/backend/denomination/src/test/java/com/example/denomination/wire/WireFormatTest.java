@@ -0,0 +1,145 @@
+package com.example.denomination.wire;
+
+import com.example.denomination.engine.DenominationSet;
+import com.example.denomination.model.CalculationRequest;
+import com.example.denomination.model.ChangeMode;
+import com.example.denomination.model.DenominationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+
+    private final DenominationSet euro = DenominationSet.of(
+            200, 100, 50, 20, 10, 5, 2, 1, 0.5, 0.2, 0.1, 0.05, 0.02, 0.01);
+
+    @Test
+    void testResultRoundTripKeepsZeroChanges() {
+        long[] current = {1, 0, 0, 1, 1, 0, 2, 0, 0, 1, 0, 0, 1, 1};
+        long[] previous = {0, 0, 0, 2, 0, 1, 0, 0, 0, 1, 1, 0, 1, 0};
+        DenominationResult result = new DenominationResult(23423,
+                euro.breakdownView(current), euro.changesView(current, previous));
+
+        byte[] message = WireFormat.encodeResult(result, euro);
+        DenominationResult decoded = WireFormat.decodeResult(message, euro);
+
+        assertEquals(23423, decoded.amountCents());
+        assertEquals(result.breakdown(), decoded.breakdown());
+        assertEquals(result.changes(), decoded.changes());
+        assertEquals(0L, decoded.changes().get("0.20"));
+        assertFalse(decoded.changes().containsKey("100.00"));
+    }
+
+    @Test
+    void testResultWithoutChanges() {
+        DenominationResult result = new DenominationResult(20000, Map.of("200.00", 1L), null);
+
+        byte[] message = WireFormat.encodeResult(result, euro);
+        DenominationResult decoded = WireFormat.decodeResult(message, euro);
+
+        assertEquals(result, new DenominationResult(decoded.amountCents(), Map.copyOf(decoded.breakdown()), null));
+        // Version, set id, flags, amount and a sparse breakdown of one entry
+        assertEquals(6 + 3 + 3, message.length);
+    }
+
+    @Test
+    void testDenseArraysForFullBreakdowns() {
+        long[] counts = new long[euro.size()];
+        Arrays.fill(counts, 1);
+        DenominationResult result = new DenominationResult(38888, euro.breakdownView(counts), null);
+
+        byte[] message = WireFormat.encodeResult(result, euro);
+
+        assertEquals(0, message[5] & WireFormat.BREAKDOWN_SPARSE);
+        assertEquals(6 + 3 + euro.size(), message.length);
+        assertEquals(result.breakdown(), WireFormat.decodeResult(message, euro).breakdown());
+    }
+
+    @Test
+    void testResultWithCountsPastIntRange() {
+        DenominationResult result = new DenominationResult(Long.MAX_VALUE,
+                euro.breakdownView(new long[]{Long.MAX_VALUE / 20000, 1, 1, 0, 0, 1, 1, 1, 0, 0, 0, 1, 1, 0}), null);
+
+        DenominationResult decoded = WireFormat.decodeResult(WireFormat.encodeResult(result, euro), euro);
+
+        assertEquals(Long.MAX_VALUE, decoded.amountCents());
+        assertEquals(result.breakdown(), decoded.breakdown());
+    }
+
+    @Test
+    void testRequestRoundTrip() {
+        CalculationRequest request = new CalculationRequest(-1250, 4532L, Map.of("20.00", 3, "0.01", 250));
+
+        CalculationRequest decoded = WireFormat.decodeRequest(WireFormat.encodeRequest(request, euro), euro);
+
+        assertEquals(request, decoded);
+    }
+
+    @Test
+    void testRequestWithDrawer() {
+        CalculationRequest request = new CalculationRequest(1250, null, null, "till-7 Kassé");
+
+        CalculationRequest decoded = WireFormat.decodeRequest(WireFormat.encodeRequest(request, euro), euro);
+
+        assertEquals(request, decoded);
+    }
+
+    @Test
+    void testRequestWithMinimalExchange() {
+        CalculationRequest request = new CalculationRequest(1250, 999L, null, null, null, ChangeMode.MINIMAL_EXCHANGE);
+
+        byte[] message = WireFormat.encodeRequest(request, euro);
+
+        assertEquals(WireFormat.MINIMAL_EXCHANGE | WireFormat.HAS_PREVIOUS, message[5]);
+        assertEquals(request, WireFormat.decodeRequest(message, euro));
+    }
+
+    @Test
+    void testRequestWithoutOptionalFields() {
+        CalculationRequest request = new CalculationRequest(1, null);
+
+        byte[] message = WireFormat.encodeRequest(request, euro);
+
+        assertEquals(7, message.length);
+        assertEquals(request, WireFormat.decodeRequest(message, euro));
+    }
+
+    @Test
+    void testRequestForAnySetIsAccepted() {
+        byte[] message = WireFormat.encodeRequest(new CalculationRequest(150, null), euro);
+        message[1] = message[2] = message[3] = message[4] = 0;
+
+        assertEquals(150, WireFormat.decodeRequest(message, DenominationSet.of(1, 0.5)).amountCents());
+    }
+
+    @Test
+    void testRejectsMessagesForAnotherSet() {
+        byte[] message = WireFormat.encodeRequest(new CalculationRequest(150, null), euro);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> WireFormat.decodeRequest(message, DenominationSet.of(1, 0.5)));
+        assertTrue(exception.getMessage().startsWith("Message was encoded for denomination set"));
+    }
+
+    @Test
+    void testRejectsMalformedMessages() {
+        byte[] message = WireFormat.encodeRequest(new CalculationRequest(100000, 500L), euro);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> WireFormat.decodeRequest(Arrays.copyOf(message, message.length - 1), euro));
+        assertThrows(IllegalArgumentException.class,
+                () -> WireFormat.decodeRequest(Arrays.copyOf(message, message.length + 1), euro));
+        message[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> WireFormat.decodeRequest(message, euro));
+    }
+
+    @Test
+    void testRejectsUnknownDenominations() {
+        CalculationRequest request = new CalculationRequest(100, null, Map.of("3.00", 1));
+
+        assertThrows(IllegalArgumentException.class, () -> WireFormat.encodeRequest(request, euro));
+    }
+}
@@ -1,7 +1,8 @@
 import { TestBed } from '@angular/core/testing';
 import { DenominationService } from './denomination.service';
 import { provideHttpClient } from '@angular/common/http';
-import { provideHttpClientTesting } from '@angular/common/http/testing';
+import { HttpTestingController, provideHttpClientTesting } from '@angular/common/http/testing';
+import { environment } from '../../environments/environment';
 
 // Unit tests for DenominationService
 // Tests currency denomination calculations and edge cases
@@ -23,6 +24,17 @@ describe('DenominationService', () => {
     expect(service).toBeTruthy();
   });
 
+  it('should request the backend calculation as a GET in cents', () => {
+    const httpMock = TestBed.inject(HttpTestingController);
+
+    service.calculateBackend({ amount: 234.23, previousAmount: 45.32 }).subscribe();
+
+    const request = httpMock.expectOne(`${environment.apiUrl}/calculate/23423?previous=4532`);
+    expect(request.request.method).toBe('GET');
+    request.flush({ amount: 234.23, breakdown: {} });
+    httpMock.verify();
+  });
+
   // Based on provided sample test cases
   describe('calculate Denominations with real amounts', () => {
     it('should calculate denominations for 234.23€', () => {
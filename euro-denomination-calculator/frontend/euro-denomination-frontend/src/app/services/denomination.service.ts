@@ -1,5 +1,5 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { DenominationResult, CalculationRequest } from '../models/denomination.models';
 import { environment } from '../../environments/environment';
@@ -13,9 +13,13 @@ export class DenominationService {
 
   constructor(private http: HttpClient) {}
 
-  //Sends calculation request to backend API
+  //Sends calculation request to backend API as a GET keyed by the amounts in cents, which browsers and proxies may cache
   calculateBackend(request: CalculationRequest): Observable<DenominationResult> {
-    return this.http.post<DenominationResult>(this.apiUrl, request);
+    let params = new HttpParams();
+    if (request.previousAmount != null) {
+      params = params.set('previous', Math.round(request.previousAmount * 100));
+    }
+    return this.http.get<DenominationResult>(`${this.apiUrl}/${Math.round(request.amount * 100)}`, { params });
   }
 
   //Performs calculation on the frontend